@@ -0,0 +1,184 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.obfuscator.StringObfuscatorException;
+import br.com.opencs.benri.obfuscator.StringObfuscatorImpl;
+
+/**
+ * Compares the per-thread {@link Cipher} reused by {@link StringObfuscatorImpl}
+ * with a new {@link Cipher} per call, as it was done before the reuse was
+ * introduced. The <code>*FreshCipher</code> methods reproduce the old GCM1
+ * implementation (provider lookup, key schedule, JDK Base64 and intermediate
+ * arrays on every call) and produce the same format, while
+ * {@link #freshCipher()} and {@link #reusedCipher()} isolate the cipher alone.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CipherReuseBenchmark {
+	
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+	
+	private static final int IV_SIZE = 16;
+	
+	private static final int TAG_SIZE = 128;
+	
+	private static final byte [] HEADER = {0x18, 0x23, 0x35};
+	
+	@Param({"8", "64", "1024", "16384"})
+	public int payloadSize;
+	
+	private SecretKey key;
+	
+	private StringObfuscatorImpl obfuscator;
+	
+	private Cipher cipher;
+	
+	private final byte [] iv = new byte[IV_SIZE];
+	
+	private long counter;
+	
+	private char [] plain;
+	
+	private byte [] plainBytes;
+	
+	private String obfuscated;
+	
+	@Setup
+	public void setup() throws GeneralSecurityException, StringObfuscatorException {
+		key = Payloads.key();
+		obfuscator = new StringObfuscatorImpl(key);
+		cipher = Cipher.getInstance(TRANSFORMATION);
+		plain = Payloads.chars(payloadSize);
+		plainBytes = new String(plain).getBytes(StandardCharsets.UTF_8);
+		obfuscated = obfuscator.obfuscate(plain);
+	}
+	
+	/**
+	 * Changes the IV, since GCM refuses to encrypt twice with the same IV.
+	 * The value of the IV does not change the cost of the cipher.
+	 */
+	private byte [] nextIV() {
+		long c = ++counter;
+		for (int i = 0; i < 8; i++) {
+			iv[i] = (byte)(c >>> (i * 8));
+		}
+		return iv;
+	}
+	
+	/**
+	 * Provider lookup, key schedule and encryption on every call.
+	 */
+	@Benchmark
+	public byte [] freshCipher() throws GeneralSecurityException {
+		Cipher c = Cipher.getInstance(TRANSFORMATION);
+		c.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE, nextIV()));
+		return c.doFinal(plainBytes);
+	}
+	
+	/**
+	 * Re-initialization of a cached cipher with a new IV and encryption.
+	 */
+	@Benchmark
+	public byte [] reusedCipher() throws GeneralSecurityException {
+		cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE, nextIV()));
+		return cipher.doFinal(plainBytes);
+	}
+	
+	/**
+	 * The GCM1 obfuscation as it was implemented before the per-thread cipher.
+	 */
+	@Benchmark
+	public String obfuscateFreshCipher() throws GeneralSecurityException {
+		byte [] raw = new String(plain).getBytes(StandardCharsets.UTF_8);
+		byte [] fullIV = nextIV().clone();
+		Cipher c = Cipher.getInstance(TRANSFORMATION);
+		c.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE, fullIV));
+		byte [] enc = c.doFinal(raw);
+		byte [] full = new byte[HEADER.length + fullIV.length + enc.length];
+		System.arraycopy(HEADER, 0, full, 0, HEADER.length);
+		System.arraycopy(fullIV, 0, full, HEADER.length, fullIV.length);
+		System.arraycopy(enc, 0, full, HEADER.length + fullIV.length, enc.length);
+		return Base64.getUrlEncoder().encodeToString(full);
+	}
+	
+	@Benchmark
+	public String obfuscate() throws StringObfuscatorException {
+		return obfuscator.obfuscate(plain);
+	}
+	
+	/**
+	 * The GCM1 deobfuscation as it was implemented before the per-thread cipher.
+	 */
+	@Benchmark
+	public char [] deobfuscateFreshCipher() throws GeneralSecurityException {
+		byte [] bin = Base64.getUrlDecoder().decode(obfuscated);
+		Cipher c = Cipher.getInstance(TRANSFORMATION);
+		c.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE, bin, HEADER.length, IV_SIZE));
+		int offset = HEADER.length + IV_SIZE;
+		byte [] dec = c.doFinal(bin, offset, bin.length - offset);
+		return new String(dec, StandardCharsets.UTF_8).toCharArray();
+	}
+	
+	@Benchmark
+	public char [] deobfuscate() throws StringObfuscatorException {
+		return obfuscator.deobfuscate(obfuscated);
+	}
+}
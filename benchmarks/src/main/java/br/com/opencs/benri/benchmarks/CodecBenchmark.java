@@ -0,0 +1,139 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.util.Base64URL;
+import br.com.opencs.benri.util.UTF8;
+
+/**
+ * Compares the UTF-8 and Base64 codecs used by the obfuscators with the
+ * ones provided by the JDK.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+	
+	@Param({"8", "64", "1024", "16384", "1048576"})
+	public int size;
+	
+	private char [] chars;
+	
+	private byte [] utf8;
+	
+	private char [] decoded;
+	
+	private byte [] bytes;
+	
+	private char [] base64;
+	
+	private String base64String;
+	
+	private byte [] binary;
+	
+	@Setup
+	public void setup() {
+		chars = Payloads.chars(size);
+		utf8 = new byte[UTF8.encodedLength(chars, 0, chars.length)];
+		UTF8.encode(chars, 0, chars.length, utf8, 0);
+		decoded = new char[size];
+		bytes = Payloads.bytes(size);
+		base64 = new char[Base64URL.encodedLength(size)];
+		Base64URL.encode(bytes, 0, size, base64, 0);
+		base64String = new String(base64);
+		binary = new byte[size];
+	}
+	
+	@Benchmark
+	public int utf8Encode() {
+		return UTF8.encode(chars, 0, chars.length, utf8, 0);
+	}
+
+	@Benchmark
+	public ByteBuffer jdkUTF8Encode() {
+		return StandardCharsets.UTF_8.encode(CharBuffer.wrap(chars));
+	}
+
+	@Benchmark
+	public int utf8Decode() {
+		return UTF8.decode(utf8, 0, utf8.length, decoded, 0, decoded.length);
+	}
+
+	@Benchmark
+	public CharBuffer jdkUTF8Decode() {
+		return StandardCharsets.UTF_8.decode(ByteBuffer.wrap(utf8));
+	}
+	
+	@Benchmark
+	public int base64Encode() {
+		return Base64URL.encode(bytes, 0, bytes.length, base64, 0);
+	}
+
+	@Benchmark
+	public byte [] jdkBase64Encode() {
+		return Base64.getUrlEncoder().encode(bytes);
+	}
+
+	@Benchmark
+	public int base64Decode() {
+		return Base64URL.decode(base64String, 0, base64String.length(), binary, 0);
+	}
+
+	@Benchmark
+	public byte [] jdkBase64Decode() {
+		return Base64.getUrlDecoder().decode(base64String);
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON parser, just enough to read the result files written by
+ * JMH and the tolerance files of the {@link RegressionGate}. Objects are
+ * returned as {@link Map}, arrays as {@link List}, numbers as
+ * {@link Double} and the literals as {@link Boolean} or null.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+final class Json {
+	
+	private final String text;
+	
+	private int pos;
+	
+	private Json(String text) {
+		this.text = text;
+	}
+	
+	/**
+	 * Parses the given JSON document.
+	 * 
+	 * @param text The document.
+	 * @return The parsed value.
+	 * @throws IllegalArgumentException If the document is not valid.
+	 */
+	static Object parse(String text) {
+		Json json = new Json(text);
+		Object value = json.readValue();
+		json.skipSpaces();
+		if (json.pos != text.length()) {
+			throw json.error("Unexpected data after the value");
+		}
+		return value;
+	}
+	
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + pos + ".");
+	}
+	
+	private void skipSpaces() {
+		while ((pos < text.length()) && Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+	
+	private char peek() {
+		skipSpaces();
+		if (pos >= text.length()) {
+			throw error("Unexpected end of the document");
+		}
+		return text.charAt(pos);
+	}
+	
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("'" + c + "' expected");
+		}
+		pos++;
+	}
+	
+	private Object readValue() {
+		char c = peek();
+		switch (c) {
+		case '{':
+			return readObject();
+		case '[':
+			return readArray();
+		case '"':
+			return readString();
+		case 't':
+			return readLiteral("true", Boolean.TRUE);
+		case 'f':
+			return readLiteral("false", Boolean.FALSE);
+		case 'n':
+			return readLiteral("null", null);
+		default:
+			return readNumber();
+		}
+	}
+	
+	private Map<String, Object> readObject() {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		expect('{');
+		if (peek() == '}') {
+			pos++;
+			return map;
+		}
+		while (true) {
+			if (peek() != '"') {
+				throw error("Name expected");
+			}
+			String name = readString();
+			expect(':');
+			map.put(name, readValue());
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect('}');
+				return map;
+			}
+		}
+	}
+	
+	private List<Object> readArray() {
+		List<Object> list = new ArrayList<Object>();
+		expect('[');
+		if (peek() == ']') {
+			pos++;
+			return list;
+		}
+		while (true) {
+			list.add(readValue());
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect(']');
+				return list;
+			}
+		}
+	}
+	
+	private String readString() {
+		expect('"');
+		StringBuilder sb = new StringBuilder();
+		while (true) {
+			if (pos >= text.length()) {
+				throw error("Unterminated string");
+			}
+			char c = text.charAt(pos++);
+			if (c == '"') {
+				return sb.toString();
+			} else if (c == '\\') {
+				if (pos >= text.length()) {
+					throw error("Unterminated string");
+				}
+				c = text.charAt(pos++);
+				switch (c) {
+				case 'b':
+					sb.append('\b');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'u':
+					if (pos + 4 > text.length()) {
+						throw error("Invalid escape");
+					}
+					try {
+						sb.append((char)Integer.parseInt(text.substring(pos, pos + 4), 16));
+					} catch (NumberFormatException e) {
+						throw error("Invalid escape");
+					}
+					pos += 4;
+					break;
+				default:
+					sb.append(c);
+				}
+			} else {
+				sb.append(c);
+			}
+		}
+	}
+	
+	private Object readLiteral(String literal, Object value) {
+		if (!text.startsWith(literal, pos)) {
+			throw error("Unknown literal");
+		}
+		pos += literal.length();
+		return value;
+	}
+	
+	private Double readNumber() {
+		int start = pos;
+		while ((pos < text.length()) && ("+-0123456789.eE".indexOf(text.charAt(pos)) >= 0)) {
+			pos++;
+		}
+		if (start == pos) {
+			throw error("Value expected");
+		}
+		try {
+			return Double.valueOf(text.substring(start, pos));
+		} catch (NumberFormatException e) {
+			throw error("Invalid number");
+		}
+	}
+}
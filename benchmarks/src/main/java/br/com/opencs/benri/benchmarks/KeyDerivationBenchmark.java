@@ -0,0 +1,115 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.obfuscator.DefaultIVGenerator;
+import br.com.opencs.benri.obfuscator.IVGenerator;
+import br.com.opencs.benri.obfuscator.JCEKeyDerivationFunction;
+import br.com.opencs.benri.obfuscator.KeyDerivationFunction;
+import br.com.opencs.benri.obfuscator.PBKDF2HmacSHA256;
+import br.com.opencs.benri.obfuscator.StringObfuscatorException;
+import br.com.opencs.benri.obfuscator.StringObfuscatorImpl;
+
+/**
+ * Measures how the constructor of {@link StringObfuscatorImpl} scales with
+ * the number of iterations, comparing the JCE implementation of
+ * PBKDF2WithHmacSHA256 with {@link PBKDF2HmacSHA256}.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyDerivationBenchmark {
+	
+	/**
+	 * The key derivation functions being compared.
+	 */
+	public enum KDF {
+		JCE,
+		PBKDF2_HMAC_SHA256
+	}
+	
+	@Param({"1000", "10000", "100000"})
+	public int iterations;
+	
+	@Param({"JCE", "PBKDF2_HMAC_SHA256"})
+	public KDF kdf;
+	
+	private KeyDerivationFunction function;
+	
+	private final IVGenerator ivGenerator = new DefaultIVGenerator();
+	
+	private byte [] salt;
+	
+	private char [] password;
+	
+	@Setup
+	public void setup() {
+		if (kdf == KDF.JCE) {
+			function = new JCEKeyDerivationFunction();
+		} else {
+			function = new PBKDF2HmacSHA256();
+		}
+		salt = Payloads.bytes(32);
+		password = Payloads.chars(16);
+	}
+	
+	@Benchmark
+	public byte [] deriveKey() throws GeneralSecurityException {
+		return function.deriveKey(salt, iterations, password, 256);
+	}
+	
+	@Benchmark
+	public StringObfuscatorImpl constructor() throws StringObfuscatorException, GeneralSecurityException {
+		return new StringObfuscatorImpl(salt, iterations, password, ivGenerator, function);
+	}
+}
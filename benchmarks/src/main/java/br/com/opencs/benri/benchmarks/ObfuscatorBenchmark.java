@@ -0,0 +1,156 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.obfuscator.ChaChaStringObfuscator;
+import br.com.opencs.benri.obfuscator.CompactStringObfuscator;
+import br.com.opencs.benri.obfuscator.StringObfuscatorException;
+import br.com.opencs.benri.obfuscator.StringObfuscatorImpl;
+
+/**
+ * Measures the cost of a single call to the obfuscation operations of
+ * {@link StringObfuscatorImpl} and its variants for payloads from 8 bytes
+ * to 1 MB. The number of threads is set with the JMH option <code>-t</code>.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObfuscatorBenchmark {
+	
+	/**
+	 * The formats being compared.
+	 */
+	public enum Format {
+		/** AES-GCM with a 128 bit IV, the default. */
+		GCM1,
+		/** AES-GCM with a 96 bit nonce and a compact header. */
+		GCM2,
+		/** ChaCha20-Poly1305. Requires Java 11 or later. */
+		CCP1
+	}
+	
+	@Param({"8", "64", "1024", "16384", "1048576"})
+	public int payloadSize;
+	
+	@Param({"GCM1", "GCM2", "CCP1"})
+	public Format format;
+	
+	private StringObfuscatorImpl obfuscator;
+	
+	private char [] plain;
+	
+	private String obfuscated;
+	
+	private byte [] sealed;
+	
+	private char [] out;
+	
+	private char [] dest;
+	
+	@Setup
+	public void setup() throws StringObfuscatorException {
+		switch (format) {
+		case GCM2:
+			obfuscator = new CompactStringObfuscator(Payloads.key());
+			break;
+		case CCP1:
+			obfuscator = new ChaChaStringObfuscator(Payloads.key());
+			break;
+		default:
+			obfuscator = new StringObfuscatorImpl(Payloads.key());
+		}
+		plain = Payloads.chars(payloadSize);
+		obfuscated = obfuscator.obfuscate(plain);
+		sealed = obfuscator.seal(plain);
+		out = new char[obfuscated.length()];
+		dest = new char[payloadSize];
+	}
+	
+	@Benchmark
+	public String obfuscate() throws StringObfuscatorException {
+		return obfuscator.obfuscate(plain);
+	}
+
+	@Benchmark
+	public char [] deobfuscate() throws StringObfuscatorException {
+		return obfuscator.deobfuscate(obfuscated);
+	}
+	
+	/**
+	 * Obfuscates into a reused buffer, without the allocation of the result.
+	 */
+	@Benchmark
+	public int obfuscateTo() throws StringObfuscatorException {
+		return obfuscator.obfuscateTo(plain, out, 0);
+	}
+
+	/**
+	 * Deobfuscates into a reused buffer, without the allocation of the result.
+	 */
+	@Benchmark
+	public int deobfuscateInto() throws StringObfuscatorException {
+		return obfuscator.deobfuscateInto(obfuscated, dest);
+	}
+	
+	/**
+	 * Produces the binary form, without the Base64 encoding.
+	 */
+	@Benchmark
+	public byte [] seal() throws StringObfuscatorException {
+		return obfuscator.seal(plain);
+	}
+
+	@Benchmark
+	public char [] openChars() throws StringObfuscatorException {
+		return obfuscator.openChars(sealed);
+	}
+}
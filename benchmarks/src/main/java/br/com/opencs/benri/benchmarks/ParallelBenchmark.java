@@ -0,0 +1,113 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.obfuscator.ParallelStringObfuscator;
+import br.com.opencs.benri.obfuscator.StringObfuscatorException;
+import br.com.opencs.benri.obfuscator.StringObfuscatorImpl;
+
+/**
+ * Measures how {@link ParallelStringObfuscator} scales a batch of 10,000
+ * values with the parallelism of its pool.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+	
+	private static final int BATCH_SIZE = 10000;
+	
+	@Param({"1", "2", "4", "8"})
+	public int parallelism;
+	
+	@Param({"64"})
+	public int payloadSize;
+	
+	private ForkJoinPool pool;
+	
+	private ParallelStringObfuscator obfuscator;
+	
+	private List<char[]> plain;
+	
+	private List<String> obfuscated;
+	
+	@Setup
+	public void setup() throws StringObfuscatorException {
+		pool = new ForkJoinPool(parallelism);
+		obfuscator = new ParallelStringObfuscator(new StringObfuscatorImpl(Payloads.key()), pool,
+				ParallelStringObfuscator.DEFAULT_THRESHOLD);
+		plain = new ArrayList<char[]>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			plain.add(Payloads.chars(payloadSize));
+		}
+		obfuscated = obfuscator.obfuscateAll(plain);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+	
+	@Benchmark
+	public List<String> obfuscateAll() throws StringObfuscatorException {
+		return obfuscator.obfuscateAll(plain);
+	}
+
+	@Benchmark
+	public List<char[]> deobfuscateAll() throws StringObfuscatorException {
+		return obfuscator.deobfuscateAll(obfuscated);
+	}
+}
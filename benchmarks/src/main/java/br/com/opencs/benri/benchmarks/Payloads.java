@@ -0,0 +1,91 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Helpers shared by the benchmarks.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+final class Payloads {
+	
+	private static final Random RANDOM = new Random(20261017);
+	
+	private Payloads() {
+	}
+	
+	/**
+	 * Creates a random ASCII payload. Each char is encoded as a single byte
+	 * in UTF-8, so the size is also the size of the plaintext in bytes.
+	 * 
+	 * @param size The size in chars.
+	 * @return The payload.
+	 */
+	static char [] chars(int size) {
+		char [] value = new char[size];
+		for (int i = 0; i < size; i++) {
+			value[i] = (char)(RANDOM.nextInt(127 - 32) + 32);
+		}
+		return value;
+	}
+	
+	/**
+	 * Creates a random binary payload.
+	 * 
+	 * @param size The size in bytes.
+	 * @return The payload.
+	 */
+	static byte [] bytes(int size) {
+		byte [] value = new byte[size];
+		RANDOM.nextBytes(value);
+		return value;
+	}
+	
+	/**
+	 * Creates a random 256 bit AES key, so the benchmarks of the cipher
+	 * operations do not pay for the key derivation.
+	 * 
+	 * @return The key.
+	 */
+	static SecretKey key() {
+		byte [] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		return new SecretKeySpec(key, "AES");
+	}
+}
@@ -0,0 +1,432 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs a reduced benchmark suite and compares the scores with a baseline
+ * stored in the repository. A benchmark regresses when its score is worse
+ * than the baseline by more than its tolerance band; lower is better for the
+ * average time modes and higher is better for the throughput modes.
+ * 
+ * <p>The baseline is a regular JMH JSON result file. The tolerances are a
+ * JSON object with a <code>default</code> band and an optional
+ * <code>benchmarks</code> object that maps either
+ * <code>Class.method</code> or <code>Class</code> to a specific band. Bands
+ * are fractions of the baseline score, so 0.25 means 25%.</p>
+ * 
+ * <p>Usage:</p>
+ * 
+ * <pre>
+ * RegressionGate &lt;baseline.json&gt; &lt;tolerances.json&gt; &lt;current.json&gt; [&lt;update&gt;]
+ * </pre>
+ * 
+ * <p>The exit code is 0 if no benchmark regressed, 1 if any did and 2 on
+ * errors. A benchmark of the baseline that was not executed counts as a
+ * regression, as does a run in which no benchmark could be compared. When
+ * <code>update</code> is true, the baseline is replaced by the new results
+ * instead.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class RegressionGate {
+	
+	private static final String PACKAGE = RegressionGate.class.getPackage().getName() + ".";
+	
+	/**
+	 * The result of the comparison of a single benchmark.
+	 */
+	enum Status {
+		OK,
+		FASTER,
+		SLOWER,
+		NEW,
+		MISSING
+	}
+	
+	/**
+	 * A single benchmark score.
+	 */
+	static final class Entry {
+		
+		final String benchmark;
+		
+		final String mode;
+		
+		final Map<String, String> params;
+		
+		final double score;
+		
+		final String unit;
+		
+		Entry(String benchmark, String mode, Map<String, String> params, double score, String unit) {
+			this.benchmark = benchmark;
+			this.mode = mode;
+			this.params = new TreeMap<String, String>(params);
+			this.score = score;
+			this.unit = unit;
+		}
+		
+		String getName() {
+			return benchmark.startsWith(PACKAGE) ? benchmark.substring(PACKAGE.length()) : benchmark;
+		}
+		
+		String getKey() {
+			return benchmark + ':' + mode + ':' + params;
+		}
+		
+		boolean isHigherBetter() {
+			return "thrpt".equals(mode);
+		}
+	}
+	
+	/**
+	 * A row of the comparison table.
+	 */
+	static final class Row {
+		
+		final Entry baseline;
+		
+		final Entry current;
+		
+		final double tolerance;
+		
+		final Status status;
+		
+		Row(Entry baseline, Entry current, double tolerance, Status status) {
+			this.baseline = baseline;
+			this.current = current;
+			this.tolerance = tolerance;
+			this.status = status;
+		}
+		
+		Entry getEntry() {
+			return current != null ? current : baseline;
+		}
+		
+		/**
+		 * Returns the change relative to the baseline, where positive values
+		 * are always regressions.
+		 */
+		double getChange() {
+			double change = (current.score - baseline.score) / baseline.score;
+			return current.isHigherBetter() ? -change : change;
+		}
+	}
+	
+	private RegressionGate() {
+	}
+	
+	/**
+	 * Returns the options of the reduced suite.
+	 * 
+	 * @param output The file that will receive the JSON results.
+	 * @return The options.
+	 */
+	static Options getOptions(File output) {
+		return new OptionsBuilder()
+				.include("ObfuscatorBenchmark\\.(obfuscate|deobfuscate)$")
+				.include("ShredderBenchmark\\.shredBytes$")
+				.include("KeyDerivationBenchmark\\.deriveKey$")
+				.param("format", "GCM1")
+				.param("payloadSize", "64", "16384")
+				.param("size", "1024", "1048576")
+				.param("iterations", "10000")
+				.param("kdf", "JCE", "PBKDF2_HMAC_SHA256")
+				.warmupIterations(5)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(10)
+				.measurementTime(TimeValue.seconds(1))
+				.forks(3)
+				.threads(1)
+				.resultFormat(ResultFormatType.JSON)
+				.result(output.getPath())
+				.build();
+	}
+	
+	/**
+	 * Reads the scores from a JMH JSON result file.
+	 * 
+	 * @param text The contents of the file.
+	 * @return The scores.
+	 */
+	@SuppressWarnings("unchecked")
+	static List<Entry> parseResults(String text) {
+		List<Entry> entries = new ArrayList<Entry>();
+		for (Object o: (List<Object>)Json.parse(text)) {
+			Map<String, Object> result = (Map<String, Object>)o;
+			Map<String, String> params = new TreeMap<String, String>();
+			Object p = result.get("params");
+			if (p != null) {
+				for (Map.Entry<String, Object> e: ((Map<String, Object>)p).entrySet()) {
+					params.put(e.getKey(), String.valueOf(e.getValue()));
+				}
+			}
+			Map<String, Object> metric = (Map<String, Object>)result.get("primaryMetric");
+			entries.add(new Entry((String)result.get("benchmark"), (String)result.get("mode"), params,
+					((Number)metric.get("score")).doubleValue(), (String)metric.get("scoreUnit")));
+		}
+		return entries;
+	}
+	
+	/**
+	 * Returns the tolerance band of the given entry.
+	 * 
+	 * @param tolerances The parsed tolerances.
+	 * @param entry The entry.
+	 * @return The band as a fraction of the baseline score.
+	 */
+	@SuppressWarnings("unchecked")
+	static double getTolerance(Map<String, Object> tolerances, Entry entry) {
+		String name = entry.getName();
+		Object specific = tolerances.get("benchmarks");
+		if (specific instanceof Map) {
+			Map<String, Object> map = (Map<String, Object>)specific;
+			Object t = map.get(name);
+			if (t == null) {
+				int dot = name.lastIndexOf('.');
+				t = map.get(dot > 0 ? name.substring(0, dot) : name);
+			}
+			if (t != null) {
+				return ((Number)t).doubleValue();
+			}
+		}
+		Object t = tolerances.get("default");
+		return t != null ? ((Number)t).doubleValue() : 0.0;
+	}
+	
+	/**
+	 * Compares the current scores with the baseline.
+	 * 
+	 * @param baseline The baseline scores.
+	 * @param current The current scores.
+	 * @param tolerances The parsed tolerances.
+	 * @return The rows of the comparison, in the order of the current scores
+	 * followed by the missing ones.
+	 */
+	static List<Row> compare(List<Entry> baseline, List<Entry> current, Map<String, Object> tolerances) {
+		Map<String, Entry> remaining = new LinkedHashMap<String, Entry>();
+		for (Entry e: baseline) {
+			remaining.put(e.getKey(), e);
+		}
+		List<Row> rows = new ArrayList<Row>();
+		for (Entry c: current) {
+			Entry b = remaining.remove(c.getKey());
+			double tolerance = getTolerance(tolerances, c);
+			Status status;
+			if ((b == null) || !b.unit.equals(c.unit)) {
+				status = Status.NEW;
+			} else {
+				Row tmp = new Row(b, c, tolerance, Status.OK);
+				double change = tmp.getChange();
+				if (change > tolerance) {
+					status = Status.SLOWER;
+				} else if (change < -tolerance) {
+					status = Status.FASTER;
+				} else {
+					status = Status.OK;
+				}
+			}
+			rows.add(new Row(b, c, tolerance, status));
+		}
+		for (Entry b: remaining.values()) {
+			rows.add(new Row(b, null, getTolerance(tolerances, b), Status.MISSING));
+		}
+		return rows;
+	}
+	
+	/**
+	 * Verifies if any of the rows is a regression. A benchmark that is missing
+	 * from the current scores is a regression as well, otherwise a renamed or
+	 * broken benchmark would silently leave the gate.
+	 * 
+	 * @param rows The rows.
+	 * @return true if at least one benchmark is slower than allowed or missing.
+	 */
+	static boolean hasRegressions(List<Row> rows) {
+		for (Row r: rows) {
+			if ((r.status == Status.SLOWER) || (r.status == Status.MISSING)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the number of benchmarks that were actually compared with the
+	 * baseline.
+	 * 
+	 * @param rows The rows.
+	 * @return The number of rows with both scores.
+	 */
+	static int countCompared(List<Row> rows) {
+		int ret = 0;
+		for (Row r: rows) {
+			if ((r.status == Status.OK) || (r.status == Status.FASTER) || (r.status == Status.SLOWER)) {
+				ret++;
+			}
+		}
+		return ret;
+	}
+	
+	private static String formatScore(Entry e) {
+		return e == null ? "-" : String.format(Locale.US, "%.3f %s", e.score, e.unit);
+	}
+	
+	/**
+	 * Prints the comparison as a table.
+	 * 
+	 * @param rows The rows.
+	 * @param out The output.
+	 */
+	static void printTable(List<Row> rows, PrintStream out) {
+		String [] header = {"Benchmark", "Params", "Baseline", "Current", "Change", "Band", "Status"};
+		List<String[]> lines = new ArrayList<String[]>();
+		lines.add(header);
+		for (Row r: rows) {
+			Entry e = r.getEntry();
+			String change = (r.baseline != null && r.current != null) ?
+					String.format(Locale.US, "%+.1f%%", r.getChange() * 100) : "-";
+			lines.add(new String[] {
+					e.getName() + " (" + e.mode + ")",
+					e.params.isEmpty() ? "-" : e.params.toString(),
+					formatScore(r.baseline),
+					formatScore(r.current),
+					change,
+					String.format(Locale.US, "%.0f%%", r.tolerance * 100),
+					r.status.name()});
+		}
+		int [] widths = new int[header.length];
+		for (String [] line: lines) {
+			for (int i = 0; i < line.length; i++) {
+				widths[i] = Math.max(widths[i], line[i].length());
+			}
+		}
+		StringBuilder separator = new StringBuilder();
+		for (int w: widths) {
+			separator.append('+').append(String.join("", Collections.nCopies(w + 2, "-")));
+		}
+		separator.append('+');
+		out.println(separator);
+		for (int l = 0; l < lines.size(); l++) {
+			StringBuilder sb = new StringBuilder();
+			String [] line = lines.get(l);
+			for (int i = 0; i < line.length; i++) {
+				sb.append("| ").append(line[i]);
+				for (int p = line[i].length(); p <= widths[i]; p++) {
+					sb.append(' ');
+				}
+			}
+			sb.append('|');
+			out.println(sb);
+			if (l == 0) {
+				out.println(separator);
+			}
+		}
+		out.println(separator);
+		out.println("Change is relative to the baseline; positive values are always slower.");
+	}
+	
+	private static String read(File f) throws IOException {
+		return new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+	}
+	
+	@SuppressWarnings("unchecked")
+	static int run(File baselineFile, File tolerancesFile, File currentFile, boolean update, PrintStream out) 
+			throws IOException, RunnerException {
+		File dir = currentFile.getAbsoluteFile().getParentFile();
+		if (dir != null) {
+			dir.mkdirs();
+		}
+		new Runner(getOptions(currentFile)).run();
+		if (update) {
+			Files.copy(currentFile.toPath(), baselineFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			out.println("Baseline updated: " + baselineFile);
+			return 0;
+		}
+		if (!baselineFile.isFile()) {
+			out.println("Baseline not found: " + baselineFile);
+			return 2;
+		}
+		List<Row> rows = compare(parseResults(read(baselineFile)), parseResults(read(currentFile)),
+				(Map<String, Object>)Json.parse(read(tolerancesFile)));
+		out.println();
+		printTable(rows, out);
+		if (countCompared(rows) == 0) {
+			out.println("No benchmark was compared with the baseline.");
+			return 1;
+		} else if (hasRegressions(rows)) {
+			out.println("Performance regression detected: at least one benchmark is SLOWER than its band allows or MISSING.");
+			return 1;
+		} else {
+			out.println("No performance regressions.");
+			return 0;
+		}
+	}
+	
+	public static void main(String[] args) {
+		if ((args.length < 3) || (args.length > 4)) {
+			System.err.println("Usage: RegressionGate <baseline.json> <tolerances.json> <current.json> [<update>]");
+			System.exit(2);
+		}
+		boolean update = (args.length == 4) && Boolean.parseBoolean(args[3]);
+		int ret;
+		try {
+			ret = run(new File(args[0]), new File(args[1]), new File(args[2]), update, System.out);
+		} catch (Exception e) {
+			e.printStackTrace();
+			ret = 2;
+		}
+		System.exit(ret);
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * Measures {@link Shredder} on arrays, heap buffers and direct buffers from
+ * 8 bytes to 1 MB.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShredderBenchmark {
+	
+	/**
+	 * The types of storage being compared.
+	 */
+	public enum BufferType {
+		ARRAY,
+		HEAP,
+		DIRECT
+	}
+	
+	@Param({"8", "64", "1024", "16384", "1048576"})
+	public int size;
+	
+	@Param({"ARRAY", "HEAP", "DIRECT"})
+	public BufferType bufferType;
+	
+	private byte [] bytes;
+	
+	private char [] chars;
+	
+	private ByteBuffer byteBuffer;
+	
+	private CharBuffer charBuffer;
+	
+	@Setup
+	public void setup() {
+		switch (bufferType) {
+		case HEAP:
+			byteBuffer = ByteBuffer.allocate(size);
+			charBuffer = CharBuffer.allocate(size);
+			break;
+		case DIRECT:
+			byteBuffer = ByteBuffer.allocateDirect(size);
+			charBuffer = ByteBuffer.allocateDirect(size * 2).asCharBuffer();
+			break;
+		default:
+			bytes = new byte[size];
+			chars = new char[size];
+		}
+	}
+	
+	@Benchmark
+	public void shredBytes() {
+		if (bytes != null) {
+			Shredder.shred(bytes);
+		} else {
+			Shredder.shred(byteBuffer);
+		}
+	}
+
+	@Benchmark
+	public void shredChars() {
+		if (chars != null) {
+			Shredder.shred(chars);
+		} else {
+			Shredder.shred(charBuffer);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.opencs.benri.obfuscator.DefaultIVGenerator;
+import br.com.opencs.benri.obfuscator.IVGenerator;
+import br.com.opencs.benri.obfuscator.PrefetchIVGenerator;
+import br.com.opencs.benri.obfuscator.StringObfuscatorException;
+import br.com.opencs.benri.obfuscator.StringObfuscatorImpl;
+
+/**
+ * Measures the throughput of a single shared {@link StringObfuscatorImpl}
+ * with 1, 4 and all available threads, using each of the IV generators.
+ * Contention on the per-thread workspaces or on the IV generation shows up
+ * as throughput that does not grow with the number of threads.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreadScalingBenchmark {
+	
+	/**
+	 * The IV generators being compared.
+	 */
+	public enum Generator {
+		DEFAULT,
+		PREFETCH
+	}
+	
+	@Param({"64", "1024"})
+	public int payloadSize;
+	
+	@Param({"DEFAULT", "PREFETCH"})
+	public Generator generator;
+	
+	private IVGenerator ivGenerator;
+	
+	private StringObfuscatorImpl obfuscator;
+	
+	private char [] plain;
+	
+	@Setup
+	public void setup() {
+		if (generator == Generator.PREFETCH) {
+			ivGenerator = new PrefetchIVGenerator(4096);
+		} else {
+			ivGenerator = new DefaultIVGenerator();
+		}
+		obfuscator = new StringObfuscatorImpl(Payloads.key(), ivGenerator);
+		plain = Payloads.chars(payloadSize);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		if (ivGenerator instanceof PrefetchIVGenerator) {
+			((PrefetchIVGenerator)ivGenerator).close();
+		}
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public String obfuscate1() throws StringObfuscatorException {
+		return obfuscator.obfuscate(plain);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String obfuscate4() throws StringObfuscatorException {
+		return obfuscator.obfuscate(plain);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String obfuscateMax() throws StringObfuscatorException {
+		return obfuscator.obfuscate(plain);
+	}
+}
@@ -0,0 +1,55 @@
+package br.com.opencs.benri.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class JsonTest {
+
+	@Test
+	public void testLiterals() {
+		assertEquals(Boolean.TRUE, Json.parse("true"));
+		assertEquals(Boolean.FALSE, Json.parse(" false "));
+		assertNull(Json.parse("null"));
+		assertEquals(1.5e3, (Double)Json.parse("1.5e3"), 0.0);
+		assertEquals(-2.0, (Double)Json.parse("-2"), 0.0);
+	}
+
+	@Test
+	public void testStrings() {
+		assertEquals("abc", Json.parse("\"abc\""));
+		assertEquals("a\"b\\c\né", Json.parse("\"a\\\"b\\\\c\\n\\u00e9\""));
+		assertEquals("NaN", Json.parse("\"NaN\""));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testStructures() {
+		Map<String, Object> map = (Map<String, Object>)Json.parse(
+				"{ \"a\": [1, 2, {}], \"b\": { \"c\": \"d\" }, \"e\": [] }");
+		assertEquals(Arrays.asList("a", "b", "e"), Arrays.asList(map.keySet().toArray()));
+		List<Object> a = (List<Object>)map.get("a");
+		assertEquals(3, a.size());
+		assertEquals(2.0, (Double)a.get(1), 0.0);
+		assertEquals("d", ((Map<String, Object>)map.get("b")).get("c"));
+		assertEquals(0, ((List<Object>)map.get("e")).size());
+	}
+
+	@Test
+	public void testInvalid() {
+		String [] invalid = {"", "{", "[1,", "{\"a\" 1}", "\"abc", "tru", "1 2", "{1: 2}", "[1 2]", "-"};
+		for (String s: invalid) {
+			try {
+				Json.parse(s);
+				fail(s);
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package br.com.opencs.benri.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import br.com.opencs.benri.benchmarks.RegressionGate.Entry;
+import br.com.opencs.benri.benchmarks.RegressionGate.Row;
+import br.com.opencs.benri.benchmarks.RegressionGate.Status;
+
+public class RegressionGateTest {
+	
+	private static final String RESULTS = "[\n"
+			+ "  {\"jmhVersion\": \"1.37\", \"benchmark\": \"br.com.opencs.benri.benchmarks.ObfuscatorBenchmark.obfuscate\",\n"
+			+ "   \"mode\": \"avgt\", \"threads\": 1, \"params\": {\"payloadSize\": \"64\", \"format\": \"GCM1\"},\n"
+			+ "   \"primaryMetric\": {\"score\": %s, \"scoreError\": \"NaN\", \"scoreUnit\": \"ns/op\"},\n"
+			+ "   \"secondaryMetrics\": {}},\n"
+			+ "  {\"benchmark\": \"br.com.opencs.benri.benchmarks.ThreadScalingBenchmark.obfuscate1\",\n"
+			+ "   \"mode\": \"thrpt\", \"params\": {\"payloadSize\": \"64\", \"generator\": \"DEFAULT\"},\n"
+			+ "   \"primaryMetric\": {\"score\": %s, \"scoreUnit\": \"ops/ms\"}},\n"
+			+ "  {\"benchmark\": \"br.com.opencs.benri.benchmarks.ShredderBenchmark.shredBytes\",\n"
+			+ "   \"mode\": \"avgt\", \"params\": {\"size\": \"1024\", \"bufferType\": \"%s\"},\n"
+			+ "   \"primaryMetric\": {\"score\": 100.0, \"scoreUnit\": \"ns/op\"}}\n"
+			+ "]";
+	
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> tolerances() {
+		return (Map<String, Object>)Json.parse("{\"default\": 0.10, \"benchmarks\": "
+				+ "{\"ShredderBenchmark\": 0.5, \"ObfuscatorBenchmark.obfuscate\": 0.2}}");
+	}
+	
+	private static List<Entry> results(double avgt, double thrpt, String bufferType) {
+		return RegressionGate.parseResults(String.format(RESULTS, avgt, thrpt, bufferType));
+	}
+
+	@Test
+	public void testParseResults() {
+		List<Entry> entries = results(1000, 50, "ARRAY");
+		assertEquals(3, entries.size());
+		Entry e = entries.get(0);
+		assertEquals("ObfuscatorBenchmark.obfuscate", e.getName());
+		assertEquals("avgt", e.mode);
+		assertEquals("GCM1", e.params.get("format"));
+		assertEquals("64", e.params.get("payloadSize"));
+		assertEquals(1000.0, e.score, 0.0);
+		assertEquals("ns/op", e.unit);
+		assertFalse(e.isHigherBetter());
+		assertTrue(entries.get(1).isHigherBetter());
+	}
+
+	@Test
+	public void testGetTolerance() {
+		List<Entry> entries = results(1000, 50, "ARRAY");
+		assertEquals(0.2, RegressionGate.getTolerance(tolerances(), entries.get(0)), 0.0);
+		assertEquals(0.1, RegressionGate.getTolerance(tolerances(), entries.get(1)), 0.0);
+		assertEquals(0.5, RegressionGate.getTolerance(tolerances(), entries.get(2)), 0.0);
+		assertEquals(0.0, RegressionGate.getTolerance(Collections.<String, Object>emptyMap(), entries.get(2)), 0.0);
+	}
+
+	@Test
+	public void testWithinBands() {
+		List<Row> rows = RegressionGate.compare(results(1000, 50, "ARRAY"), 
+				results(1150, 46, "ARRAY"), tolerances());
+		assertEquals(3, rows.size());
+		for (Row r: rows) {
+			assertEquals(Status.OK, r.status);
+		}
+		assertEquals(0.15, rows.get(0).getChange(), 1e-9);
+		assertEquals(0.08, rows.get(1).getChange(), 1e-9);
+		assertFalse(RegressionGate.hasRegressions(rows));
+	}
+
+	@Test
+	public void testRegressions() {
+		// Average time grows, throughput drops.
+		List<Row> rows = RegressionGate.compare(results(1000, 50, "ARRAY"), 
+				results(1300, 40, "ARRAY"), tolerances());
+		assertEquals(Status.SLOWER, rows.get(0).status);
+		assertEquals(Status.SLOWER, rows.get(1).status);
+		assertEquals(Status.OK, rows.get(2).status);
+		assertTrue(RegressionGate.hasRegressions(rows));
+	}
+
+	@Test
+	public void testImprovements() {
+		List<Row> rows = RegressionGate.compare(results(1000, 50, "ARRAY"), 
+				results(500, 100, "ARRAY"), tolerances());
+		assertEquals(Status.FASTER, rows.get(0).status);
+		assertEquals(Status.FASTER, rows.get(1).status);
+		assertFalse(RegressionGate.hasRegressions(rows));
+	}
+
+	@Test
+	public void testNewAndMissing() {
+		List<Row> rows = RegressionGate.compare(results(1000, 50, "ARRAY"), 
+				results(1000, 50, "DIRECT"), tolerances());
+		assertEquals(4, rows.size());
+		assertEquals(Status.NEW, rows.get(2).status);
+		assertEquals("DIRECT", rows.get(2).current.params.get("bufferType"));
+		assertEquals(Status.MISSING, rows.get(3).status);
+		assertEquals("ARRAY", rows.get(3).baseline.params.get("bufferType"));
+		assertEquals(2, RegressionGate.countCompared(rows));
+		// A missing benchmark fails the gate
+		assertTrue(RegressionGate.hasRegressions(rows));
+	}
+	
+	@Test
+	public void testNothingCompared() {
+		List<Row> rows = RegressionGate.compare(Collections.<Entry>emptyList(), 
+				results(1000, 50, "ARRAY"), tolerances());
+		assertEquals(3, rows.size());
+		for (Row r: rows) {
+			assertEquals(Status.NEW, r.status);
+		}
+		assertFalse(RegressionGate.hasRegressions(rows));
+		assertEquals(0, RegressionGate.countCompared(rows));
+		assertEquals(3, RegressionGate.countCompared(RegressionGate.compare(results(1000, 50, "ARRAY"), 
+				results(1000, 50, "ARRAY"), tolerances())));
+	}
+
+	@Test
+	public void testPrintTable() throws Exception {
+		List<Row> rows = RegressionGate.compare(results(1000, 50, "ARRAY"), 
+				results(1300, 50, "DIRECT"), tolerances());
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		RegressionGate.printTable(rows, new PrintStream(bout, true, "UTF-8"));
+		String table = bout.toString("UTF-8");
+		String [] lines = table.split("\n");
+		// Separator, header, separator, 4 rows, separator, note.
+		assertEquals(9, lines.length);
+		assertEquals(lines[0].length(), lines[1].length());
+		assertEquals(lines[0].length(), lines[3].length());
+		assertTrue(lines[3].contains("ObfuscatorBenchmark.obfuscate (avgt)"));
+		assertTrue(lines[3].contains("+30.0%"));
+		assertTrue(lines[3].contains("SLOWER"));
+		assertTrue(lines[5].contains("NEW"));
+		assertTrue(lines[6].contains("MISSING"));
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class implements a {@link StringObfuscator} that selects the fastest
+ * engine for the current host. The first time an engine must be selected, it
+ * runs a short benchmark of {@link StringObfuscatorImpl} (AES-GCM) and
+ * {@link ChaChaStringObfuscator} (ChaCha20-Poly1305) and the fastest one is
+ * used by all instances of this class to obfuscate new values. Values in
+ * either format are always accepted, thus instances running on different
+ * hosts can share the same data.
+ * 
+ * <p>The benchmark takes a few milliseconds and is not as precise as a real
+ * benchmark, but the difference between the engines is usually large when the
+ * host lacks hardware support for AES. It runs only once per JVM with a
+ * throwaway key. If ChaCha20-Poly1305 is not supported by the JVM, AES-GCM is
+ * always selected.</p>
+ * 
+ * <p>The key is never used directly. Each engine uses its own subkey, derived
+ * from the key with HKDF-SHA256 and a label that names the algorithm, thus the
+ * same key material is never shared by two algorithms. Because of that, the
+ * values produced by this class cannot be read by a plain
+ * {@link StringObfuscatorImpl} with the same key, and vice versa.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>Instances of this class are guaranteed to be thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class AdaptiveStringObfuscator implements StringObfuscator {
+	
+	/**
+	 * The available engines.
+	 */
+	public enum Engine {
+		/**
+		 * AES-GCM, implemented by {@link StringObfuscatorImpl}.
+		 */
+		AES_GCM,
+		/**
+		 * ChaCha20-Poly1305, implemented by {@link ChaChaStringObfuscator}.
+		 */
+		CHACHA20_POLY1305
+	}
+	
+	private static final int BENCHMARK_ROUNDS = 5;
+	
+	private static final int BENCHMARK_OPERATIONS = 500;
+	
+	private static final char [] BENCHMARK_VALUE = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+	
+	/**
+	 * The HKDF info used to derive the AES-GCM subkey.
+	 */
+	static final String AES_GCM_KEY_INFO = "benri.adaptive.aes-gcm";
+	
+	/**
+	 * The HKDF info used to derive the ChaCha20-Poly1305 subkey.
+	 */
+	static final String CHACHA20_POLY1305_KEY_INFO = "benri.adaptive.chacha20-poly1305";
+	
+	private final StringObfuscatorImpl aes;
+	
+	private final StringObfuscatorImpl chacha;
+	
+	private final Engine engine;
+	
+	/**
+	 * Creates a new instance of this class. The key is derived just like
+	 * {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], int, char[])}
+	 * and it is destroyed as soon as the subkeys are derived.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @throws GeneralSecurityException If the key derivation fails.
+	 */
+	public AdaptiveStringObfuscator(byte [] salt, int iterations, char [] password) throws GeneralSecurityException {
+		this(deriveKey(salt, iterations, password), null, true);
+	}
+
+	/**
+	 * Creates a new instance of this class that uses the engine selected by
+	 * the benchmark.
+	 * 
+	 * @param key The key with 256 bits.
+	 */
+	public AdaptiveStringObfuscator(SecretKey key) {
+		this(key, null);
+	}
+
+	/**
+	 * Creates a new instance of this class with a fixed engine.
+	 * 
+	 * @param key The key with 256 bits.
+	 * @param engine The engine used to obfuscate new values or null to use
+	 * the one selected by the benchmark.
+	 */
+	public AdaptiveStringObfuscator(SecretKey key, Engine engine) {
+		this(key, engine, false);
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param key The key with 256 bits.
+	 * @param engine The engine used to obfuscate new values or null to use
+	 * the one selected by the benchmark.
+	 * @param owned If true, the key is a {@link DestroyableSecretKey} created
+	 * by this class and it is destroyed once the subkeys are derived.
+	 */
+	private AdaptiveStringObfuscator(SecretKey key, Engine engine, boolean owned) {
+		try {
+			boolean chachaSupported = ChaChaStringObfuscator.isSupported();
+			if ((engine == Engine.CHACHA20_POLY1305) && !chachaSupported) {
+				throw new IllegalArgumentException("ChaCha20-Poly1305 is not supported.");
+			}
+			this.aes = new StringObfuscatorImpl(subkey(key, AES_GCM_KEY_INFO));
+			this.chacha = chachaSupported ? new ChaChaStringObfuscator(subkey(key, CHACHA20_POLY1305_KEY_INFO)) : null;
+			this.engine = (engine != null) ? engine : SelectedEngine.ENGINE;
+		} finally {
+			if (owned) {
+				((DestroyableSecretKey)key).destroy();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the engine used to obfuscate new values.
+	 * 
+	 * @return The engine.
+	 */
+	public Engine getEngine() {
+		return engine;
+	}
+	
+	private StringObfuscatorImpl writer() {
+		return (engine == Engine.AES_GCM) ? aes : chacha;
+	}
+
+	@Override
+	public String obfuscate(char[] value) throws StringObfuscatorException {
+		return writer().obfuscate(value);
+	}
+
+	@Override
+	public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		if (obfuscated.startsWith(ChaChaStringObfuscator.HEADER)) {
+			if (chacha == null) {
+				throw new StringObfuscatorException("ChaCha20-Poly1305 is not supported.");
+			}
+			return chacha.deobfuscate(obfuscated);
+		}
+		return aes.deobfuscate(obfuscated);
+	}
+
+	@Override
+	public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		return writer().obfuscateAll(values);
+	}
+	
+	/**
+	 * Derives the subkey of an engine.
+	 * 
+	 * @param key The key.
+	 * @param info The label of the engine.
+	 * @return The subkey.
+	 */
+	private static SecretKey subkey(SecretKey key, String info) {
+		try {
+			return KeyHierarchy.hkdf(key, null, info, StringObfuscatorImpl.CIPHER_ALG);
+		} catch (GeneralSecurityException e) {
+			// HMAC-SHA256 is required by the Java specification
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Runs the benchmark once per JVM, when the engine is needed for the
+	 * first time.
+	 */
+	private static final class SelectedEngine {
+		
+		static final Engine ENGINE = selectEngine();
+	}
+	
+	private static Engine selectEngine() {
+		if (!ChaChaStringObfuscator.isSupported()) {
+			return Engine.AES_GCM;
+		}
+		byte [] raw = new byte[StringObfuscatorImpl.CIPHER_KEY_SIZE / 8];
+		new SecureRandom().nextBytes(raw);
+		DestroyableSecretKey key = new DestroyableSecretKey(raw, StringObfuscatorImpl.CIPHER_ALG);
+		Shredder.shred(raw);
+		try {
+			StringObfuscatorImpl aes = new StringObfuscatorImpl(key);
+			StringObfuscatorImpl chacha = new ChaChaStringObfuscator(key);
+			long aesBest = Long.MAX_VALUE;
+			long chachaBest = Long.MAX_VALUE;
+			// The rounds alternate, thus both engines get the same JIT treatment
+			for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+				aesBest = Math.min(aesBest, measure(aes));
+				chachaBest = Math.min(chachaBest, measure(chacha));
+			}
+			return (chachaBest < aesBest) ? Engine.CHACHA20_POLY1305 : Engine.AES_GCM;
+		} catch (StringObfuscatorException e) {
+			return Engine.AES_GCM;
+		} finally {
+			key.destroy();
+		}
+	}
+	
+	private static long measure(StringObfuscatorImpl o) throws StringObfuscatorException {
+		long start = System.nanoTime();
+		for (int i = 0; i < BENCHMARK_OPERATIONS; i++) {
+			o.deobfuscate(o.obfuscate(BENCHMARK_VALUE));
+		}
+		return System.nanoTime() - start;
+	}
+	
+	/**
+	 * Derives the master key from the password. Unlike a
+	 * {@link javax.crypto.spec.SecretKeySpec}, the returned key can be
+	 * shredded once the subkeys are derived from it.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @return The master key.
+	 * @throws GeneralSecurityException If the key derivation fails.
+	 */
+	static DestroyableSecretKey deriveKey(byte [] salt, int iterations, char [] password) throws GeneralSecurityException {
+		byte [] raw = StringObfuscatorImpl.generateKey(salt, iterations, password, StringObfuscatorImpl.CIPHER_KEY_SIZE);
+		try {
+			return new DestroyableSecretKey(raw, StringObfuscatorImpl.CIPHER_ALG);
+		} finally {
+			Shredder.shred(raw);
+		}
+	}
+}
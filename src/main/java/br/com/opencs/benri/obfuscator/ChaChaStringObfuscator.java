@@ -0,0 +1,111 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.SecretKey;
+
+/**
+ * This class implements a variant of {@link StringObfuscatorImpl} that uses
+ * ChaCha20-Poly1305 instead of AES-GCM. ChaCha20-Poly1305 is usually much
+ * faster than AES-GCM on hosts without hardware support for AES, like some
+ * ARM boards and virtual machines that hide AES-NI from the guest.
+ * 
+ * <p>The values use the header {@value #HEADER}, followed by the Base64
+ * encoding of a 12 byte nonce, the ciphertext and the 128 bit tag. The header
+ * is authenticated as additional data. The key is the same 256 bit key used by
+ * {@link StringObfuscatorImpl}, derived in the same way.</p>
+ * 
+ * <p>ChaCha20-Poly1305 is available only on Java 11 or later. On older
+ * versions, all operations fail with a {@link StringObfuscatorException};
+ * {@link #isSupported()} can be used to check it in advance. See
+ * {@link AdaptiveStringObfuscator} for an obfuscator that selects the engine
+ * automatically.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>Instances of this class are guaranteed to be thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class ChaChaStringObfuscator extends StringObfuscatorImpl {
+	
+	/**
+	 * The header of this format. Always "CCP1".
+	 */
+	public static final String HEADER = CipherFormat.CHACHA_HEADER;
+	
+	/**
+	 * Creates a new instance of this class. The key is derived just like
+	 * {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], int, char[])}.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 */
+	public ChaChaStringObfuscator(byte [] salt, int iterations, char [] password) throws StringObfuscatorException, GeneralSecurityException {
+		super(salt, iterations, password, DEFAULT_IV_GENERATOR, DEFAULT_KDF, CipherFormat.CCP1);
+	}
+
+	/**
+	 * Creates a new instance of this class with an already derived key.
+	 * 
+	 * @param key The key with 256 bits.
+	 */
+	public ChaChaStringObfuscator(SecretKey key) {
+		this(key, DEFAULT_IV_GENERATOR);
+	}
+
+	/**
+	 * Creates a new instance of this class with an already derived key and a
+	 * custom IV generator.
+	 * 
+	 * @param key The key with 256 bits.
+	 * @param ivGenerator The nonce generator. It must be thread safe.
+	 */
+	public ChaChaStringObfuscator(SecretKey key, IVGenerator ivGenerator) {
+		super(key, ivGenerator, CipherFormat.CCP1);
+	}
+	
+	/**
+	 * Verifies if ChaCha20-Poly1305 is supported by the current JVM.
+	 * 
+	 * @return true if it is supported.
+	 */
+	public static boolean isSupported() {
+		return Platform.isChaChaSupported();
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Base64;
+
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+import br.com.opencs.benri.util.Base64URL;
+
+/**
+ * This class describes the layout of a format of {@link StringObfuscatorImpl}.
+ * The binary form of all formats is the binary header, the IV, the ciphertext
+ * and the tag. The string form is the string header followed by the rest of
+ * the binary form encoded in Base64 with the URL safe alphabet. The binary
+ * header always starts with the string header decoded from Base64.
+ * 
+ * <p>The following formats are supported:</p>
+ * 
+ * <ul>
+ * <li><b>GCM1</b>: header "GCM1", 16 byte IV, 128 bit tag, padded.</li>
+ * <li><b>GCK1</b>: header "GCK1" followed by a key id byte, 16 byte IV, 128 bit
+ * tag, padded. The binary header is authenticated as additional data.</li>
+ * <li><b>GCM2</b>: no string header and a single byte binary header with the
+ * version, the tag size and the key id, 12 byte nonce, 96 to 128 bit tag, not
+ * padded. The binary header is authenticated as additional data.</li>
+ * <li><b>CCP1</b>: header "CCP1", ChaCha20-Poly1305 instead of AES-GCM, 12 byte
+ * nonce, 128 bit tag, padded. The binary header is authenticated as additional
+ * data.</li>
+ * </ul>
+ * 
+ * <p>The GCM2 header byte is {@code 10ttkkkk}, where {@code tt} selects the
+ * tag size (128, 120, 112 or 96 bits) and {@code kkkk} is the key id. Since
+ * its two highest bits are always {@code 10}, the first Base64 character of a
+ * GCM2 value always encodes a value between 32 and 47, that is, it is in the
+ * range 'g' to 'v'. Thus it never collides with the 'G' of the other
+ * formats.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+final class CipherFormat {
+	
+	/**
+	 * The header of the format with key id. Always "GCK1".
+	 */
+	static final String KEYED_HEADER = "GCK1";
+	
+	/**
+	 * The header of the ChaCha20-Poly1305 format. Always "CCP1".
+	 */
+	static final String CHACHA_HEADER = "CCP1";
+	
+	/**
+	 * The name of the ChaCha20-Poly1305 cipher. It is available on Java 11 or later.
+	 */
+	static final String CHACHA_TRANSFORMATION = "ChaCha20-Poly1305";
+	
+	/**
+	 * The largest key id of the compact format.
+	 */
+	static final int MAX_COMPACT_KEY_ID = 0x0F;
+	
+	private static final int GCM1_IV_SIZE = 16;
+	
+	private static final int COMPACT_IV_SIZE = 12;
+	
+	private static final int COMPACT_VERSION = 0x80;
+	
+	private static final int COMPACT_VERSION_MASK = 0xC0;
+	
+	private static final int [] COMPACT_TAG_SIZES = {128, 120, 112, 96};
+	
+	/**
+	 * The original format.
+	 */
+	static final CipherFormat GCM1 = new CipherFormat(StringObfuscatorImpl.CIPHER_ALG_FULL, StringObfuscatorImpl.HEADER, 
+			Base64.getUrlDecoder().decode(StringObfuscatorImpl.HEADER), GCM1_IV_SIZE, 128, false, true);
+	
+	/**
+	 * The ChaCha20-Poly1305 format.
+	 */
+	static final CipherFormat CCP1 = new CipherFormat(CHACHA_TRANSFORMATION, CHACHA_HEADER,
+			Base64.getUrlDecoder().decode(CHACHA_HEADER), COMPACT_IV_SIZE, 128, true, true);
+	
+	/**
+	 * The cipher transformation.
+	 */
+	final String transformation;
+	
+	/**
+	 * The header of the string form. It may be empty.
+	 */
+	final String header;
+	
+	/**
+	 * The header of the binary form.
+	 */
+	final byte [] binaryHeader;
+	
+	/**
+	 * The number of bytes of the binary header encoded by the string header.
+	 */
+	final int headerSize;
+	
+	final int ivSize;
+	
+	/**
+	 * The tag size in bits.
+	 */
+	final int tagSize;
+	
+	/**
+	 * If true, the binary header is authenticated as additional data.
+	 */
+	final boolean aad;
+	
+	/**
+	 * If true, the Base64 encoding is padded.
+	 */
+	final boolean padded;
+	
+	private CipherFormat(String transformation, String header, byte [] binaryHeader, int ivSize, int tagSize, boolean aad, boolean padded) {
+		this.transformation = transformation;
+		this.header = header;
+		this.binaryHeader = binaryHeader;
+		this.headerSize = (header.length() / 4) * 3;
+		this.ivSize = ivSize;
+		this.tagSize = tagSize;
+		this.aad = aad;
+		this.padded = padded;
+	}
+	
+	/**
+	 * Returns the GCK1 format for the given key id.
+	 * 
+	 * @param keyId The key id from 0 to 255.
+	 * @return The format.
+	 */
+	static CipherFormat keyed(int keyId) {
+		if ((keyId < 0) || (keyId > 0xFF)) {
+			throw new IllegalArgumentException("Invalid key id.");
+		}
+		byte [] prefix = Base64.getUrlDecoder().decode(KEYED_HEADER);
+		byte [] binaryHeader = new byte[prefix.length + 1];
+		System.arraycopy(prefix, 0, binaryHeader, 0, prefix.length);
+		binaryHeader[prefix.length] = (byte)keyId;
+		return new CipherFormat(StringObfuscatorImpl.CIPHER_ALG_FULL, KEYED_HEADER, binaryHeader, GCM1_IV_SIZE, 128, true, true);
+	}
+	
+	/**
+	 * Returns the GCM2 format for the given key id and tag size.
+	 * 
+	 * @param keyId The key id from 0 to {@value #MAX_COMPACT_KEY_ID}.
+	 * @param tagSize The tag size in bits: 128, 120, 112 or 96.
+	 * @return The format.
+	 */
+	static CipherFormat compact(int keyId, int tagSize) {
+		if ((keyId < 0) || (keyId > MAX_COMPACT_KEY_ID)) {
+			throw new IllegalArgumentException("Invalid key id.");
+		}
+		for (int i = 0; i < COMPACT_TAG_SIZES.length; i++) {
+			if (COMPACT_TAG_SIZES[i] == tagSize) {
+				byte [] binaryHeader = {(byte)(COMPACT_VERSION | (i << 4) | keyId)};
+				return new CipherFormat(StringObfuscatorImpl.CIPHER_ALG_FULL, "", binaryHeader, COMPACT_IV_SIZE, tagSize, true, false);
+			}
+		}
+		throw new IllegalArgumentException("Invalid tag size.");
+	}
+	
+	/**
+	 * Verifies if the given byte is the header of a compact value.
+	 * 
+	 * @param header The first byte of the binary form.
+	 * @return true if it is a compact value.
+	 */
+	static boolean isCompact(int header) {
+		return (header & COMPACT_VERSION_MASK) == COMPACT_VERSION;
+	}
+	
+	/**
+	 * Returns the key id of a compact value.
+	 * 
+	 * @param header The first byte of the binary form.
+	 * @return The key id.
+	 */
+	static int getCompactKeyId(int header) {
+		return header & MAX_COMPACT_KEY_ID;
+	}
+	
+	/**
+	 * Returns the first byte of the binary form encoded in the given string.
+	 * 
+	 * @param obfuscated The string form.
+	 * @return The first byte or -1 if it cannot be decoded.
+	 */
+	static int getFirstByte(CharSequence obfuscated) {
+		if (obfuscated.length() < 2) {
+			return -1;
+		}
+		int hi = Base64URL.valueOf(obfuscated.charAt(0));
+		int lo = Base64URL.valueOf(obfuscated.charAt(1));
+		if ((hi < 0) || (lo < 0)) {
+			return -1;
+		}
+		return (hi << 2) | (lo >>> 4);
+	}
+	
+	/**
+	 * Returns the format that values in this format may also be read as. It
+	 * allows the compact format to read the original format with the same key.
+	 * 
+	 * @return The legacy format or null.
+	 */
+	CipherFormat legacy() {
+		return padded ? null : GCM1;
+	}
+	
+	/**
+	 * Returns the parameters of the cipher.
+	 * 
+	 * @param iv The buffer with the IV.
+	 * @param offset The offset of the IV.
+	 * @return The parameters.
+	 */
+	AlgorithmParameterSpec parameters(byte [] iv, int offset) {
+		if (transformation.equals(CHACHA_TRANSFORMATION)) {
+			return new IvParameterSpec(iv, offset, ivSize);
+		} else {
+			return new GCMParameterSpec(tagSize, iv, offset, ivSize);
+		}
+	}
+	
+	/**
+	 * Returns the size of the binary form.
+	 * 
+	 * @param size The size of the plaintext in bytes.
+	 * @return The size of the binary form in bytes.
+	 */
+	int sealedSize(int size) {
+		return binaryHeader.length + ivSize + size + tagSize / 8;
+	}
+	
+	/**
+	 * Returns the length of the string form.
+	 * 
+	 * @param sealedSize The size of the binary form in bytes.
+	 * @return The length of the string form.
+	 */
+	int textLength(int sealedSize) {
+		return padded ? Base64URL.encodedLength(sealedSize) : Base64URL.unpaddedLength(sealedSize);
+	}
+	
+	/**
+	 * Verifies if the given string starts with the string header of this format.
+	 * 
+	 * @param obfuscated The string.
+	 * @return true if the header matches.
+	 */
+	boolean matches(CharSequence obfuscated) {
+		if (obfuscated.length() < header.length()) {
+			return false;
+		}
+		for (int i = 0; i < header.length(); i++) {
+			if (obfuscated.charAt(i) != header.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
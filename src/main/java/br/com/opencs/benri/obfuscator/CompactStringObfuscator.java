@@ -0,0 +1,171 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.SecretKey;
+
+import br.com.opencs.benri.util.Base64URL;
+
+/**
+ * This class implements the compact format (GCM2) of
+ * {@link StringObfuscatorImpl}. It is intended for large columns of short
+ * values, where the size of each value matters.
+ * 
+ * <p>Instead of the 4 character header and the 16 byte IV of the original
+ * format, each value starts with a single byte that holds the version, the
+ * tag size and a key id from 0 to {@value #MAX_KEY_ID}, followed by a 12 byte
+ * nonce, which is the size GCM is optimized for. The header byte is
+ * authenticated as additional data. The tag may be reduced to 120, 112 or 96
+ * bits and the Base64 encoding is not padded. For a value with 16 bytes, the
+ * obfuscated string drops from 68 characters (GCM1) to 60 characters, or 55
+ * characters with a 96 bit tag.</p>
+ * 
+ * <p>The first character of a compact value is never 'G', thus values in
+ * the original format (GCM1) are still accepted and are deobfuscated with the
+ * same key. All other methods inherited from {@link StringObfuscatorImpl},
+ * including the binary ones, use the compact format as well. The static size
+ * methods of {@link StringObfuscatorImpl} describe the original format; use
+ * {@link #outputLength(int, int)} and {@link #sealedLength(int, int)}
+ * instead.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>Instances of this class are guaranteed to be thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class CompactStringObfuscator extends StringObfuscatorImpl {
+	
+	/**
+	 * The default tag size in bits.
+	 */
+	public static final int DEFAULT_TAG_SIZE = 128;
+	
+	/**
+	 * The largest key id.
+	 */
+	public static final int MAX_KEY_ID = CipherFormat.MAX_COMPACT_KEY_ID;
+	
+	private static final int NONCE_SIZE = 12;
+
+	/**
+	 * Creates a new instance of this class with the key id 0 and the default
+	 * tag size. The key is derived just like
+	 * {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], int, char[])}.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 */
+	public CompactStringObfuscator(byte [] salt, int iterations, char [] password) throws StringObfuscatorException, GeneralSecurityException {
+		this(salt, iterations, password, 0, DEFAULT_TAG_SIZE);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @param keyId The key id from 0 to {@value #MAX_KEY_ID}.
+	 * @param tagSize The tag size in bits: 128, 120, 112 or 96.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 */
+	public CompactStringObfuscator(byte [] salt, int iterations, char [] password, int keyId, int tagSize) throws StringObfuscatorException, GeneralSecurityException {
+		super(salt, iterations, password, DEFAULT_IV_GENERATOR, DEFAULT_KDF, CipherFormat.compact(keyId, tagSize));
+	}
+
+	/**
+	 * Creates a new instance of this class with the key id 0 and the default
+	 * tag size.
+	 * 
+	 * @param key The AES key with 256 bits.
+	 */
+	public CompactStringObfuscator(SecretKey key) {
+		this(key, 0, DEFAULT_TAG_SIZE, DEFAULT_IV_GENERATOR);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param key The AES key with 256 bits.
+	 * @param keyId The key id from 0 to {@value #MAX_KEY_ID}.
+	 * @param tagSize The tag size in bits: 128, 120, 112 or 96.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 */
+	public CompactStringObfuscator(SecretKey key, int keyId, int tagSize, IVGenerator ivGenerator) {
+		super(key, ivGenerator, CipherFormat.compact(keyId, tagSize));
+	}
+	
+	/**
+	 * Returns the size of the compact binary format for a given plaintext size.
+	 * 
+	 * @param size The size of the plaintext in bytes.
+	 * @param tagSize The tag size in bits.
+	 * @return The size of the sealed value in bytes.
+	 */
+	public static int sealedLength(int size, int tagSize) {
+		return 1 + NONCE_SIZE + size + tagSize / 8;
+	}
+	
+	/**
+	 * Returns the length of the compact obfuscated string for a given
+	 * plaintext size.
+	 * 
+	 * @param size The size of the plaintext encoded in UTF-8, in bytes.
+	 * @param tagSize The tag size in bits.
+	 * @return The length of the obfuscated string.
+	 */
+	public static int outputLength(int size, int tagSize) {
+		return Base64URL.unpaddedLength(sealedLength(size, tagSize));
+	}
+	
+	/**
+	 * Returns the key id of a compact value. The value itself is not validated.
+	 * 
+	 * @param obfuscated The obfuscated value.
+	 * @return The key id or -1 if the value is not in the compact format.
+	 */
+	public static int getKeyId(CharSequence obfuscated) {
+		int header = CipherFormat.getFirstByte(obfuscated);
+		if ((header < 0) || !CipherFormat.isCompact(header)) {
+			return -1;
+		}
+		return CipherFormat.getCompactKeyId(header);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.SecureRandom;
+
+/**
+ * This is the default implementation of the {@link IVGenerator}. It keeps
+ * one {@link SecureRandom} instance per thread, thus no synchronization is
+ * required to generate new IVs and the throughput scales with the number
+ * of threads. The instances are independent of each other: SHA1PRNG
+ * seeded once on Java 8 and DRBG on Java 11 or later. The default
+ * NativePRNG is not used because all its instances share a global lock.
+ * 
+ * <p>Virtual threads are too many and too short lived to pay for the seeding
+ * of their own instances, so they share a small set of instances selected by
+ * the thread id instead.</p>
+ * 
+ * <p>Besides the memory allocated by the {@link SecureRandom} itself, the
+ * generation of an IV into a slice of a larger array does not allocate any
+ * memory on platform threads.</p>
+ * 
+ * <p>This class is thread safe and a single instance can be shared by many
+ * obfuscators.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class DefaultIVGenerator implements IVGenerator {
+
+	private final ThreadLocal<Source> sources = new ThreadLocal<Source>() {
+		@Override
+		protected Source initialValue() {
+			return new Source(Platform.newSecureRandom());
+		}
+	};
+
+	/**
+	 * The random source of a platform thread and the scratch buffer used to
+	 * generate IVs that do not fill the whole destination array.
+	 */
+	private static final class Source {
+		
+		final SecureRandom random;
+		
+		private byte [] scratch = new byte[0];
+		
+		Source(SecureRandom random) {
+			this.random = random;
+		}
+		
+		byte [] scratch(int size) {
+			if (scratch.length != size) {
+				scratch = new byte[size];
+			}
+			return scratch;
+		}
+	}
+
+	private static class SharedRandoms {
+		
+		static final SecureRandom [] RANDOMS = new SecureRandom[Runtime.getRuntime().availableProcessors()];
+		
+		static {
+			for (int i = 0; i < RANDOMS.length; i++) {
+				RANDOMS[i] = Platform.newSecureRandom();
+			}
+		}
+		
+		static SecureRandom get() {
+			return RANDOMS[(int)((Thread.currentThread().getId() & Long.MAX_VALUE) % RANDOMS.length)];
+		}
+	}
+
+	@Override
+	public void generate(byte[] iv, int offset, int size) {
+		if (Platform.isVirtualThread()) {
+			generate(SharedRandoms.get(), null, iv, offset, size);
+		} else {
+			Source source = sources.get();
+			generate(source.random, source, iv, offset, size);
+		}
+	}
+	
+	/**
+	 * Generates the IV. {@link SecureRandom} can only fill whole arrays, thus
+	 * when the IV is a slice of the destination, it is generated into the
+	 * scratch buffer of the thread and copied into place. Virtual threads have
+	 * no scratch buffer and use a temporary array instead.
+	 * 
+	 * @param random The random source.
+	 * @param source The source of the current thread or null for virtual threads.
+	 * @param iv The destination array.
+	 * @param offset The offset of the IV.
+	 * @param size The size of the IV.
+	 */
+	private static void generate(SecureRandom random, Source source, byte[] iv, int offset, int size) {
+		if ((offset == 0) && (size == iv.length)) {
+			random.nextBytes(iv);
+		} else {
+			byte [] tmp = (source != null) ? source.scratch(size) : new byte[size];
+			random.nextBytes(tmp);
+			System.arraycopy(tmp, 0, iv, offset, size);
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import br.com.opencs.benri.util.LatencyHistogram;
+
+/**
+ * This is the default implementation of {@link ObfuscatorMetrics}. For each
+ * operation, it keeps the number of successes, the number of plaintext bytes
+ * processed, the number of failures by reason and a {@link LatencyHistogram}
+ * with the duration of all calls, successful or not.
+ * 
+ * <p>All updates are lock-free, thus a single instance can be shared by all
+ * obfuscators of an application. It can be disabled at any time with
+ * {@link #setEnabled(boolean)}; while disabled, the metered objects do not
+ * even read the clock.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class DefaultObfuscatorMetrics implements ObfuscatorMetrics {
+	
+	private static final FailureReason [] REASONS = FailureReason.values();
+	
+	private static class Stats {
+		
+		final LongAdder successes = new LongAdder();
+		
+		final LongAdder bytes = new LongAdder();
+		
+		final AtomicLongArray failures = new AtomicLongArray(REASONS.length);
+		
+		final LatencyHistogram latency = new LatencyHistogram();
+	}
+	
+	private final Stats [] stats;
+	
+	private volatile boolean enabled = true;
+	
+	/**
+	 * Creates a new enabled instance.
+	 */
+	public DefaultObfuscatorMetrics() {
+		Operation [] operations = Operation.values();
+		stats = new Stats[operations.length];
+		for (int i = 0; i < stats.length; i++) {
+			stats[i] = new Stats();
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Enables or disables the collection of metrics. The values already
+	 * collected are kept.
+	 * 
+	 * @param enabled The new state.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public void recordSuccess(Operation operation, long bytes, long nanos) {
+		Stats s = stats[operation.ordinal()];
+		s.successes.increment();
+		s.bytes.add(bytes);
+		s.latency.record(nanos);
+	}
+
+	@Override
+	public void recordFailure(Operation operation, FailureReason reason, long nanos) {
+		Stats s = stats[operation.ordinal()];
+		s.failures.incrementAndGet(reason.ordinal());
+		s.latency.record(nanos);
+	}
+	
+	/**
+	 * Returns the number of successful calls.
+	 * 
+	 * @param operation The operation.
+	 * @return The number of successful calls.
+	 */
+	public long getSuccessCount(Operation operation) {
+		return stats[operation.ordinal()].successes.sum();
+	}
+
+	/**
+	 * Returns the number of failed calls for a given reason.
+	 * 
+	 * @param operation The operation.
+	 * @param reason The reason.
+	 * @return The number of failed calls.
+	 */
+	public long getFailureCount(Operation operation, FailureReason reason) {
+		return stats[operation.ordinal()].failures.get(reason.ordinal());
+	}
+
+	/**
+	 * Returns the number of failed calls for all reasons.
+	 * 
+	 * @param operation The operation.
+	 * @return The number of failed calls.
+	 */
+	public long getFailureCount(Operation operation) {
+		AtomicLongArray failures = stats[operation.ordinal()].failures;
+		long count = 0;
+		for (int i = 0; i < failures.length(); i++) {
+			count += failures.get(i);
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the total number of bytes processed by the successful calls.
+	 * See {@link ObfuscatorMetrics#recordSuccess(Operation, long, long)}.
+	 * 
+	 * @param operation The operation.
+	 * @return The number of bytes.
+	 */
+	public long getBytes(Operation operation) {
+		return stats[operation.ordinal()].bytes.sum();
+	}
+	
+	/**
+	 * Returns the histogram of the duration of the calls in nanoseconds.
+	 * 
+	 * @param operation The operation.
+	 * @return The live histogram.
+	 */
+	public LatencyHistogram getLatency(Operation operation) {
+		return stats[operation.ordinal()].latency;
+	}
+	
+	/**
+	 * Clears all metrics. Values recorded concurrently with this method may
+	 * be partially cleared.
+	 */
+	public void reset() {
+		for (Stats s: stats) {
+			s.successes.reset();
+			s.bytes.reset();
+			for (int i = 0; i < s.failures.length(); i++) {
+				s.failures.set(i, 0);
+			}
+			s.latency.reset();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Operation op: Operation.values()) {
+			LatencyHistogram latency = getLatency(op);
+			sb.append(op.name())
+					.append(": ok=").append(getSuccessCount(op))
+					.append(", failed=").append(getFailureCount(op))
+					.append(", bytes=").append(getBytes(op))
+					.append(", p50=").append(latency.getValueAtPercentile(50)).append("ns")
+					.append(", p99=").append(latency.getValueAtPercentile(99)).append("ns")
+					.append(", max=").append(latency.getMax()).append("ns\n");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This input stream deobfuscates the data produced by
+ * {@link ObfuscatingOutputStream}. Each segment is authenticated before any
+ * of its contents is returned, thus this stream never releases unauthenticated
+ * data. Instances of this class are created by
+ * {@link StringObfuscatorImpl#createInputStream(InputStream)}.
+ * 
+ * <p>Errors in the format or in the authentication are reported as
+ * {@link IOException} whose cause is a {@link StringObfuscatorException}.</p>
+ * 
+ * <p>This class is not thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class DeobfuscatingInputStream extends FilterInputStream {
+	
+	/**
+	 * The obfuscator that created this stream. It keeps the obfuscator, and
+	 * thus the master key, reachable while the stream is in use. See
+	 * {@link StringObfuscatorFactory}.
+	 */
+	@SuppressWarnings("unused")
+	private final StringObfuscatorImpl owner;
+	
+	private final SecretKey masterKey;
+	
+	private DestroyableSecretKey key;
+	
+	private final Cipher cipher;
+	
+	private final byte [] header = new byte[ObfuscatingOutputStream.HEADER_SIZE];
+	
+	private final byte [] nonce = new byte[ObfuscatingOutputStream.NONCE_SIZE];
+	
+	private byte [] plain;
+	
+	private byte [] enc;
+	
+	private int pos;
+	
+	private int count;
+	
+	private int segment;
+	
+	private int lookAhead = -1;
+	
+	private boolean last;
+	
+	private boolean closed;
+	
+	DeobfuscatingInputStream(InputStream in, StringObfuscatorImpl owner, SecretKey key) throws IOException {
+		super(in);
+		this.owner = owner;
+		this.masterKey = key;
+		try {
+			this.cipher = Cipher.getInstance(StringObfuscatorImpl.CIPHER_ALG_FULL);
+		} catch (GeneralSecurityException e) {
+			throw new IOException(e.getMessage(), new StringObfuscatorException(e.getMessage(), e));
+		}
+	}
+	
+	private static IOException formatError(String message) {
+		return new IOException(message, new StringObfuscatorException(message));
+	}
+
+	private int readFully(byte [] buff, int offset, int len) throws IOException {
+		int total = 0;
+		while (total < len) {
+			int n = in.read(buff, offset + total, len - total);
+			if (n < 0) {
+				break;
+			}
+			total += n;
+		}
+		return total;
+	}
+	
+	private void readHeader() throws IOException {
+		if (readFully(header, 0, header.length) != header.length) {
+			throw formatError("Invalid format.");
+		}
+		for (int i = 0; i < ObfuscatingOutputStream.MAGIC.length; i++) {
+			if (header[i] != ObfuscatingOutputStream.MAGIC[i]) {
+				throw formatError("Invalid format.");
+			}
+		}
+		int segmentSize = ((header[4] & 0xFF) << 24) | ((header[5] & 0xFF) << 16) | 
+				((header[6] & 0xFF) << 8) | (header[7] & 0xFF);
+		if ((segmentSize <= 0) || (segmentSize > ObfuscatingOutputStream.MAX_SEGMENT_SIZE)) {
+			throw formatError("Invalid format.");
+		}
+		try {
+			key = ObfuscatingOutputStream.deriveStreamKey(masterKey, header);
+		} catch (GeneralSecurityException e) {
+			throw new IOException(e.getMessage(), new StringObfuscatorException(e.getMessage(), e));
+		}
+		plain = new byte[segmentSize];
+		enc = new byte[segmentSize + ObfuscatingOutputStream.TAG_SIZE / 8];
+	}
+	
+	/**
+	 * Reads and authenticates the next segment.
+	 * 
+	 * @return false if there are no more segments.
+	 * @throws IOException In case of error.
+	 */
+	private boolean readSegment() throws IOException {
+		if (plain == null) {
+			readHeader();
+		} else if (last) {
+			return false;
+		}
+		Shredder.shred(plain, 0, count);
+		pos = 0;
+		count = 0;
+		
+		// Read the segment and check if it is the last one
+		int size = 0;
+		if (lookAhead >= 0) {
+			enc[size++] = (byte)lookAhead;
+			lookAhead = -1;
+		}
+		size += readFully(enc, size, enc.length - size);
+		if (size == enc.length) {
+			lookAhead = in.read();
+			last = (lookAhead < 0);
+		} else {
+			last = true;
+		}
+		if (size < ObfuscatingOutputStream.TAG_SIZE / 8) {
+			throw formatError("Invalid format.");
+		}
+		if (segment == -1) {
+			throw formatError("Too many segments.");
+		}
+		
+		ObfuscatingOutputStream.updateNonce(nonce, segment, last);
+		try {
+			cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(ObfuscatingOutputStream.TAG_SIZE, nonce));
+			cipher.updateAAD(header);
+			count = cipher.doFinal(enc, 0, size, plain, 0);
+		} catch (AEADBadTagException e) {
+			throw formatError("Invalid format/key.");
+		} catch (GeneralSecurityException e) {
+			throw new IOException(e.getMessage(), new StringObfuscatorException(e.getMessage(), e));
+		}
+		segment++;
+		return true;
+	}
+	
+	private boolean fill() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed.");
+		}
+		while (pos == count) {
+			if (!readSegment()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return plain[pos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if ((off < 0) || (len < 0) || (off + len > b.length)) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int n = Math.min(len, count - pos);
+		System.arraycopy(plain, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		while ((skipped < n) && fill()) {
+			int s = (int)Math.min(n - skipped, count - pos);
+			pos += s;
+			skipped += s;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return count - pos;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("Mark not supported.");
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			Shredder.shred(plain);
+			if (key != null) {
+				key.destroy();
+			}
+			in.close();
+		}
+	}
+}
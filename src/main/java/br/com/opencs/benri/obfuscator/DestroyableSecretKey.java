@@ -0,0 +1,99 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import javax.crypto.SecretKey;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This is a {@link SecretKey} whose key material can be shredded by
+ * {@link #destroy()}. Unlike {@link javax.crypto.spec.SecretKeySpec}, it
+ * supports the destruction of the key on all Java versions.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+class DestroyableSecretKey implements SecretKey {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String algorithm;
+	
+	private final byte [] key;
+	
+	private volatile boolean destroyed;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param key The key material. It is copied, thus the caller is still
+	 * responsible for shredding it.
+	 * @param algorithm The algorithm.
+	 */
+	public DestroyableSecretKey(byte [] key, String algorithm) {
+		this.key = key.clone();
+		this.algorithm = algorithm;
+	}
+
+	@Override
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public String getFormat() {
+		return "RAW";
+	}
+
+	@Override
+	public byte[] getEncoded() {
+		if (destroyed) {
+			throw new IllegalStateException("The key has been destroyed.");
+		}
+		return key.clone();
+	}
+
+	/**
+	 * Shreds the key material.
+	 */
+	@Override
+	public void destroy() {
+		destroyed = true;
+		Shredder.shred(key);
+	}
+
+	@Override
+	public boolean isDestroyed() {
+		return destroyed;
+	}
+}
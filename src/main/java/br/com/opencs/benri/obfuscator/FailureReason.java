@@ -0,0 +1,81 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+/**
+ * This enumeration classifies the causes of a {@link StringObfuscatorException}.
+ * It separates the values that are malformed from the values that are well
+ * formed but cannot be opened with the current key.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public enum FailureReason {
+	
+	/**
+	 * The value is malformed: unknown header, invalid Base64 or truncated.
+	 * It is usually caused by bad input.
+	 */
+	INVALID_FORMAT,
+	
+	/**
+	 * The value is well formed but its authentication tag does not match.
+	 * It is caused by a wrong key or by a tampered value; AEAD ciphers cannot
+	 * tell one from the other.
+	 */
+	AUTHENTICATION,
+	
+	/**
+	 * The value refers to a key that is not available.
+	 */
+	UNKNOWN_KEY,
+	
+	/**
+	 * The output buffer provided by the caller is too small.
+	 */
+	BUFFER_TOO_SMALL,
+	
+	/**
+	 * Any other error, like an unsupported algorithm or an interrupted
+	 * operation.
+	 */
+	OTHER;
+	
+	/**
+	 * Verifies if this reason is caused by the key instead of the input.
+	 * 
+	 * @return true for {@link #AUTHENTICATION} and {@link #UNKNOWN_KEY}.
+	 */
+	public boolean isKeyError() {
+		return (this == AUTHENTICATION) || (this == UNKNOWN_KEY);
+	}
+}
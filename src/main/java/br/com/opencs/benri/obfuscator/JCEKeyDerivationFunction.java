@@ -0,0 +1,87 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * This class implements a {@link KeyDerivationFunction} backed by a
+ * {@link SecretKeyFactory} of the JCE. It is the default key derivation
+ * function of this library, thus the key derivation always goes through the
+ * JCA provider configured for the application (e.g. a FIPS provider).
+ * 
+ * <p>This class is thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class JCEKeyDerivationFunction implements KeyDerivationFunction {
+	
+	/**
+	 * The default algorithm. Always "PBKDF2WithHmacSHA256".
+	 */
+	public static final String DEFAULT_ALGORITHM = "PBKDF2WithHmacSHA256";
+	
+	private final String algorithm;
+	
+	/**
+	 * Creates a new instance of this class that uses {@value #DEFAULT_ALGORITHM}.
+	 */
+	public JCEKeyDerivationFunction() {
+		this(DEFAULT_ALGORITHM);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param algorithm The name of the {@link SecretKeyFactory} algorithm.
+	 */
+	public JCEKeyDerivationFunction(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	@Override
+	public byte[] deriveKey(byte[] salt, int iterations, char[] password, int keySize) throws GeneralSecurityException {
+		SecretKeyFactory generator = SecretKeyFactory.getInstance(algorithm);
+		PBEKeySpec params = new PBEKeySpec(password, salt, iterations, keySize);
+		try {
+			SecretKey key = generator.generateSecret(params);
+			return key.getEncoded();
+		} finally {
+			params.clearPassword();
+		}
+	}
+}
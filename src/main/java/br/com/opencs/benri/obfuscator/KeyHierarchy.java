@@ -0,0 +1,366 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class implements a key hierarchy that derives one obfuscator per
+ * context (tenant, column, etc) from a single master key. The master key is
+ * derived from the password only once, while the subkeys are derived with
+ * HKDF-SHA256 (RFC 5869), which costs only a few HMAC computations.
+ * 
+ * <p>The subkey of a context is the output of HKDF-Expand with the info set
+ * to {@value #INFO_PREFIX} followed by the context in UTF-8, where the pseudo
+ * random key is extracted from the master key with an all zero salt. Thus, the
+ * subkeys are stable and the same context always gets the same key.</p>
+ * 
+ * <p>The obfuscators are created lazily on first use and are kept in a
+ * bounded cache. When the cache is full, the least recently used entries are
+ * evicted. The keys of the evicted obfuscators are not shredded because they
+ * may still be in use; a new obfuscator with the same key is created on the
+ * next request for the same context.</p>
+ * 
+ * <p>All obfuscators of a hierarchy share the same per-thread workspaces, thus
+ * each thread keeps a single {@link javax.crypto.Cipher} no matter how many
+ * contexts it uses. The price is a new key schedule whenever a thread switches
+ * from one context to another, which is much cheaper than a cipher per
+ * context and thread.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class KeyHierarchy {
+	
+	/**
+	 * The prefix of the HKDF info. Always "benri.subkey.v1:".
+	 */
+	public static final String INFO_PREFIX = "benri.subkey.v1:";
+	
+	/**
+	 * The default maximum number of cached obfuscators.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 4096;
+	
+	private static final String HMAC_ALG = "HmacSHA256";
+	
+	private static final int HASH_SIZE = 32;
+	
+	private final DestroyableSecretKey prk;
+	
+	private final IVGenerator ivGenerator;
+	
+	private final int maxSize;
+	
+	private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<String, Entry>();
+	
+	private final StringObfuscatorImpl.Workspaces workspaces = new StringObfuscatorImpl.Workspaces(CipherFormat.GCM1);
+	
+	/**
+	 * A cached obfuscator and the time of its last use.
+	 */
+	private static final class Entry {
+		
+		final StringObfuscatorImpl obfuscator;
+		
+		volatile long lastUse;
+		
+		Entry(StringObfuscatorImpl obfuscator) {
+			this.obfuscator = obfuscator;
+			this.lastUse = System.nanoTime();
+		}
+		
+		StringObfuscatorImpl use() {
+			lastUse = System.nanoTime();
+			return obfuscator;
+		}
+	}
+	
+	/**
+	 * Creates a new instance of this class. The master key is derived from the
+	 * password just like {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], int, char[])}.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @throws GeneralSecurityException If the key derivation fails.
+	 */
+	public KeyHierarchy(byte [] salt, int iterations, char [] password) throws GeneralSecurityException {
+		byte [] master = null;
+		try {
+			master = StringObfuscatorImpl.generateKey(salt, iterations, password, StringObfuscatorImpl.CIPHER_KEY_SIZE);
+			this.prk = extract(master);
+		} finally {
+			Shredder.shred(master);
+		}
+		this.ivGenerator = StringObfuscatorImpl.DEFAULT_IV_GENERATOR;
+		this.maxSize = DEFAULT_MAX_SIZE;
+	}
+
+	/**
+	 * Creates a new instance of this class with a master key that was already
+	 * derived, for example, loaded by {@link SealedKeyFile}.
+	 * 
+	 * @param masterKey The master key.
+	 * @throws GeneralSecurityException If HMAC-SHA256 is not supported.
+	 */
+	public KeyHierarchy(SecretKey masterKey) throws GeneralSecurityException {
+		this(masterKey, DEFAULT_MAX_SIZE, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+	}
+
+	/**
+	 * Creates a new instance of this class with a master key that was already
+	 * derived.
+	 * 
+	 * @param masterKey The master key.
+	 * @param maxSize The maximum number of cached obfuscators.
+	 * @param ivGenerator The IV generator used by all obfuscators.
+	 * @throws GeneralSecurityException If HMAC-SHA256 is not supported.
+	 */
+	public KeyHierarchy(SecretKey masterKey, int maxSize, IVGenerator ivGenerator) throws GeneralSecurityException {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid maximum size.");
+		}
+		byte [] master = masterKey.getEncoded();
+		try {
+			this.prk = extract(master);
+		} finally {
+			Shredder.shred(master);
+		}
+		this.ivGenerator = ivGenerator;
+		this.maxSize = maxSize;
+	}
+	
+	/**
+	 * Returns the obfuscator of the given context. It is created on the first
+	 * request.
+	 * 
+	 * @param context The context.
+	 * @return The obfuscator.
+	 * @throws StringObfuscatorException If the subkey cannot be derived.
+	 */
+	public StringObfuscatorImpl get(String context) throws StringObfuscatorException {
+		Entry entry = cache.get(context);
+		if (entry == null) {
+			entry = new Entry(create(context));
+			Entry old = cache.putIfAbsent(context, entry);
+			if (old != null) {
+				entry = old;
+			} else if (cache.size() > maxSize) {
+				evict(context);
+			}
+		}
+		return entry.use();
+	}
+	
+	/**
+	 * Derives the subkey of the given context.
+	 * 
+	 * @param context The context.
+	 * @return The subkey material. The caller is responsible for shredding it.
+	 * @throws StringObfuscatorException If the subkey cannot be derived.
+	 */
+	public byte [] deriveKey(String context) throws StringObfuscatorException {
+		if (prk.isDestroyed()) {
+			throw new IllegalStateException("The key hierarchy was destroyed.");
+		}
+		try {
+			byte [] info = (INFO_PREFIX + context).getBytes(StandardCharsets.UTF_8);
+			return hkdfExpand(prk, info, StringObfuscatorImpl.CIPHER_KEY_SIZE / 8);
+		} catch (GeneralSecurityException e) {
+			throw new StringObfuscatorException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Returns the number of cached obfuscators.
+	 * 
+	 * @return The number of cached obfuscators.
+	 */
+	public int size() {
+		return cache.size();
+	}
+	
+	/**
+	 * Returns the maximum number of cached obfuscators.
+	 * 
+	 * @return The maximum number of cached obfuscators.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+	
+	/**
+	 * Shreds the master key and clears the cache. The obfuscators already
+	 * returned remain usable.
+	 */
+	public void destroy() {
+		prk.destroy();
+		cache.clear();
+	}
+	
+	private StringObfuscatorImpl create(String context) throws StringObfuscatorException {
+		byte [] key = deriveKey(context);
+		try {
+			return new StringObfuscatorImpl(new SecretKeySpec(key, StringObfuscatorImpl.CIPHER_ALG), ivGenerator,
+					CipherFormat.GCM1, workspaces);
+		} finally {
+			Shredder.shred(key);
+		}
+	}
+	
+	private static DestroyableSecretKey extract(byte [] master) throws GeneralSecurityException {
+		byte [] tmp = hkdfExtract(null, master);
+		try {
+			return new DestroyableSecretKey(tmp, HMAC_ALG);
+		} finally {
+			Shredder.shred(tmp);
+		}
+	}
+	
+	/**
+	 * Evicts the least recently used entries until the cache fits. Each
+	 * eviction scans the whole cache, which is still much cheaper than the
+	 * creation of the obfuscator that caused it.
+	 * 
+	 * @param keep The context that was just added. It is never evicted.
+	 */
+	private void evict(String keep) {
+		while (cache.size() > maxSize) {
+			Map.Entry<String, Entry> oldest = null;
+			for (Map.Entry<String, Entry> e: cache.entrySet()) {
+				if (!e.getKey().equals(keep) && 
+						((oldest == null) || (e.getValue().lastUse - oldest.getValue().lastUse < 0))) {
+					oldest = e;
+				}
+			}
+			if (oldest == null) {
+				return;
+			}
+			cache.remove(oldest.getKey(), oldest.getValue());
+		}
+	}
+	
+	/**
+	 * Derives a new key from another key with HKDF-SHA256. The new key has
+	 * the same size as the original key.
+	 * 
+	 * @param key The original key. Its key material must be available.
+	 * @param salt The salt. If null, an all zero salt is used.
+	 * @param info The info that binds the new key to its purpose.
+	 * @param algorithm The algorithm of the new key.
+	 * @return The new key. It should be destroyed when it is no longer used.
+	 * @throws GeneralSecurityException If HMAC-SHA256 is not supported.
+	 */
+	static DestroyableSecretKey hkdf(SecretKey key, byte [] salt, String info, String algorithm) throws GeneralSecurityException {
+		byte [] ikm = key.getEncoded();
+		byte [] tmp = null;
+		DestroyableSecretKey prk = null;
+		try {
+			tmp = hkdfExtract(salt, ikm);
+			prk = new DestroyableSecretKey(tmp, HMAC_ALG);
+			Shredder.shred(tmp);
+			tmp = hkdfExpand(prk, info.getBytes(StandardCharsets.UTF_8), ikm.length);
+			return new DestroyableSecretKey(tmp, algorithm);
+		} finally {
+			Shredder.shred(ikm);
+			Shredder.shred(tmp);
+			if (prk != null) {
+				prk.destroy();
+			}
+		}
+	}
+	
+	/**
+	 * HKDF-Extract as defined by RFC 5869.
+	 * 
+	 * @param salt The salt. If null, an all zero salt is used.
+	 * @param ikm The input key material.
+	 * @return The pseudo random key.
+	 * @throws GeneralSecurityException If HMAC-SHA256 is not supported.
+	 */
+	static byte [] hkdfExtract(byte [] salt, byte [] ikm) throws GeneralSecurityException {
+		Mac mac = Mac.getInstance(HMAC_ALG);
+		byte [] s = (salt != null && salt.length > 0) ? salt : new byte[HASH_SIZE];
+		mac.init(new SecretKeySpec(s, HMAC_ALG));
+		return mac.doFinal(ikm);
+	}
+	
+	/**
+	 * HKDF-Expand as defined by RFC 5869.
+	 * 
+	 * @param prk The pseudo random key.
+	 * @param info The info.
+	 * @param length The length of the output in bytes.
+	 * @return The output key material.
+	 * @throws GeneralSecurityException If HMAC-SHA256 is not supported.
+	 */
+	static byte [] hkdfExpand(SecretKey prk, byte [] info, int length) throws GeneralSecurityException {
+		if ((length <= 0) || (length > 255 * HASH_SIZE)) {
+			throw new IllegalArgumentException("Invalid length.");
+		}
+		Mac mac = Mac.getInstance(HMAC_ALG);
+		mac.init(prk);
+		byte [] ret = new byte[length];
+		byte [] t = new byte[HASH_SIZE];
+		try {
+			int offset = 0;
+			for (int i = 1; offset < length; i++) {
+				if (i > 1) {
+					mac.update(t);
+				}
+				mac.update(info);
+				mac.update((byte)i);
+				mac.doFinal(t, 0);
+				int size = Math.min(HASH_SIZE, length - offset);
+				System.arraycopy(t, 0, ret, offset, size);
+				offset += size;
+			}
+		} finally {
+			Shredder.shred(t);
+		}
+		return ret;
+	}
+}
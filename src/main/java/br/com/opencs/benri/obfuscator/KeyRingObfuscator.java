@@ -0,0 +1,230 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import br.com.opencs.benri.util.Base64URL;
+
+/**
+ * This class implements a {@link StringObfuscator} that holds a ring of keys
+ * identified by ids from 0 to {@value #MAX_KEY_ID}. New values are always
+ * obfuscated with the primary key while values obfuscated with any key of the
+ * ring can be deobfuscated, thus it can be used to rotate keys without
+ * rewriting all values at once.
+ * 
+ * <h2>Format</h2>
+ * 
+ * <p>The values are written in a variant of the format of
+ * {@link StringObfuscatorImpl} with the header {@value #HEADER}. The binary
+ * form is the header decoded from Base64, followed by a single byte with the
+ * key id, the IV, the ciphertext and the tag. The header and the key id are
+ * authenticated as additional data.</p>
+ * 
+ * <p>Since the key id is written right after the header, the key used to
+ * deobfuscate a value is selected directly, without any attempt with the wrong
+ * keys. Values in the format {@value StringObfuscatorImpl#HEADER} do not record
+ * their keys, thus they are still accepted but each key of the ring is tried
+ * in turn, starting with the primary key. Only authentication failures move
+ * on to the next key; any other failure, like a malformed value, is reported
+ * at once.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is immutable and thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class KeyRingObfuscator implements StringObfuscator {
+	
+	/**
+	 * The header of the format with key id. Always "GCK1".
+	 */
+	public static final String HEADER = CipherFormat.KEYED_HEADER;
+	
+	/**
+	 * The largest key id.
+	 */
+	public static final int MAX_KEY_ID = 0xFF;
+	
+	private final StringObfuscatorImpl [] keyed = new StringObfuscatorImpl[MAX_KEY_ID + 1];
+	
+	/**
+	 * The obfuscators for values without key id, starting with the primary key.
+	 */
+	private final StringObfuscatorImpl [] legacy;
+	
+	private final int primaryKeyId;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param keys The AES keys indexed by their ids.
+	 * @param primaryKeyId The id of the key used to obfuscate new values.
+	 */
+	public KeyRingObfuscator(Map<Integer, ? extends SecretKey> keys, int primaryKeyId) {
+		this(keys, primaryKeyId, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+	}
+
+	/**
+	 * Creates a new instance of this class with a custom IV generator.
+	 * 
+	 * @param keys The AES keys indexed by their ids.
+	 * @param primaryKeyId The id of the key used to obfuscate new values.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @throws IllegalArgumentException If the primary key is not part of the
+	 * ring or if a key id is null or invalid or if a key is null.
+	 */
+	public KeyRingObfuscator(Map<Integer, ? extends SecretKey> keys, int primaryKeyId, IVGenerator ivGenerator) {
+		if (!keys.containsKey(primaryKeyId)) {
+			throw new IllegalArgumentException("The primary key is not part of the ring.");
+		}
+		List<StringObfuscatorImpl> legacyList = new ArrayList<StringObfuscatorImpl>(keys.size());
+		for (Map.Entry<Integer, ? extends SecretKey> e: keys.entrySet()) {
+			if (e.getKey() == null) {
+				throw new IllegalArgumentException("Null key id.");
+			}
+			int id = e.getKey();
+			if ((id < 0) || (id > MAX_KEY_ID)) {
+				throw new IllegalArgumentException("Invalid key id " + id + ".");
+			}
+			if (e.getValue() == null) {
+				throw new IllegalArgumentException("The key " + id + " is null.");
+			}
+			keyed[id] = new StringObfuscatorImpl(e.getValue(), ivGenerator, CipherFormat.keyed(id));
+			StringObfuscatorImpl o = new StringObfuscatorImpl(e.getValue(), ivGenerator);
+			if (id == primaryKeyId) {
+				legacyList.add(0, o);
+			} else {
+				legacyList.add(o);
+			}
+		}
+		this.legacy = legacyList.toArray(new StringObfuscatorImpl[legacyList.size()]);
+		this.primaryKeyId = primaryKeyId;
+	}
+	
+	/**
+	 * Returns the id of the primary key.
+	 * 
+	 * @return The id of the primary key.
+	 */
+	public int getPrimaryKeyId() {
+		return primaryKeyId;
+	}
+	
+	/**
+	 * Returns the obfuscator bound to the given key id. It can be used to access
+	 * the other operations of {@link StringObfuscatorImpl} in the format with
+	 * key id.
+	 * 
+	 * @param keyId The key id.
+	 * @return The obfuscator or null if the key is not part of the ring.
+	 */
+	public StringObfuscatorImpl get(int keyId) {
+		if ((keyId < 0) || (keyId > MAX_KEY_ID)) {
+			return null;
+		}
+		return keyed[keyId];
+	}
+	
+	/**
+	 * Returns the id of the key used to obfuscate the given value. The value
+	 * itself is not validated.
+	 * 
+	 * @param obfuscated The obfuscated value.
+	 * @return The key id or -1 if the value does not have a key id.
+	 */
+	public static int getKeyId(CharSequence obfuscated) {
+		int len = HEADER.length();
+		if (obfuscated.length() < len + 2) {
+			return -1;
+		}
+		for (int i = 0; i < len; i++) {
+			if (obfuscated.charAt(i) != HEADER.charAt(i)) {
+				return -1;
+			}
+		}
+		// The key id is the first byte after the header
+		int hi = Base64URL.valueOf(obfuscated.charAt(len));
+		int lo = Base64URL.valueOf(obfuscated.charAt(len + 1));
+		if ((hi < 0) || (lo < 0)) {
+			return -1;
+		}
+		return (hi << 2) | (lo >>> 4);
+	}
+
+	@Override
+	public String obfuscate(char[] value) throws StringObfuscatorException {
+		return keyed[primaryKeyId].obfuscate(value);
+	}
+
+	@Override
+	public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		if (obfuscated.startsWith(HEADER)) {
+			int keyId = getKeyId(obfuscated);
+			if (keyId < 0) {
+				throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+			}
+			StringObfuscatorImpl o = keyed[keyId];
+			if (o == null) {
+				throw new StringObfuscatorException(FailureReason.UNKNOWN_KEY, "Unknown key id " + keyId + ".");
+			}
+			return o.deobfuscate(obfuscated);
+		} else if (obfuscated.startsWith(StringObfuscatorImpl.HEADER)) {
+			StringObfuscatorException last = null;
+			for (StringObfuscatorImpl o: legacy) {
+				try {
+					return o.deobfuscate(obfuscated);
+				} catch (StringObfuscatorException e) {
+					// Only a wrong key justifies trying the next one
+					if (e.getReason() != FailureReason.AUTHENTICATION) {
+						throw e;
+					}
+					last = e;
+				}
+			}
+			throw last;
+		} else {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+	}
+
+	@Override
+	public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		return keyed[primaryKeyId].obfuscateAll(values);
+	}
+}
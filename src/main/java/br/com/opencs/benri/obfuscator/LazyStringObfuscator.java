@@ -0,0 +1,123 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements a {@link StringObfuscator} whose actual obfuscator is
+ * still being created in background. All operations block until the
+ * obfuscator is available, thus the cost of the key derivation is paid only
+ * by the first use instead of by the construction.
+ * 
+ * <p>Instances of this class are usually created by
+ * {@link StringObfuscatorFactory#getLazy(byte[], int, char[])}.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is thread safe as long as the wrapped obfuscator is also
+ * thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class LazyStringObfuscator implements StringObfuscator {
+	
+	private final Future<? extends StringObfuscator> future;
+	
+	private volatile StringObfuscator obfuscator;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param future The future that will provide the actual obfuscator.
+	 */
+	public LazyStringObfuscator(Future<? extends StringObfuscator> future) {
+		this.future = future;
+	}
+	
+	/**
+	 * Returns the actual obfuscator. It blocks until it is available.
+	 * 
+	 * @return The obfuscator.
+	 * @throws StringObfuscatorException If the creation of the obfuscator failed.
+	 */
+	public StringObfuscator getObfuscator() throws StringObfuscatorException {
+		StringObfuscator ret = obfuscator;
+		if (ret == null) {
+			try {
+				ret = future.get();
+				obfuscator = ret;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new StringObfuscatorException("Interrupted while waiting for the obfuscator.", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof StringObfuscatorException) {
+					throw (StringObfuscatorException)e.getCause();
+				}
+				throw new StringObfuscatorException(e.getCause().getMessage(), e.getCause());
+			}
+		}
+		return ret;
+	}
+	
+	/**
+	 * Verifies if the actual obfuscator is already available.
+	 * 
+	 * @return true if the operations will not block.
+	 */
+	public boolean isReady() {
+		return future.isDone();
+	}
+
+	@Override
+	public String obfuscate(char[] value) throws StringObfuscatorException {
+		return getObfuscator().obfuscate(value);
+	}
+
+	@Override
+	public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		return getObfuscator().deobfuscate(obfuscated);
+	}
+
+	@Override
+	public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		return getObfuscator().obfuscateAll(values);
+	}
+
+	@Override
+	public List<char[]> deobfuscateAll(List<String> values) throws StringObfuscatorException {
+		return getObfuscator().deobfuscateAll(values);
+	}
+}
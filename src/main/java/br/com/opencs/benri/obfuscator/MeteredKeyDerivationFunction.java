@@ -0,0 +1,81 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+
+import br.com.opencs.benri.obfuscator.ObfuscatorMetrics.Operation;
+
+/**
+ * This class implements a {@link KeyDerivationFunction} that reports the
+ * calls to another function to an {@link ObfuscatorMetrics} as
+ * {@link Operation#GENERATE_KEY}. It can be passed to the constructors of
+ * {@link StringObfuscatorImpl} and {@link StringObfuscatorFactory} that
+ * accept a key derivation function.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class MeteredKeyDerivationFunction implements KeyDerivationFunction {
+	
+	private final KeyDerivationFunction kdf;
+	
+	private final ObfuscatorMetrics metrics;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param kdf The function that will do the actual work.
+	 * @param metrics The metrics.
+	 */
+	public MeteredKeyDerivationFunction(KeyDerivationFunction kdf, ObfuscatorMetrics metrics) {
+		this.kdf = kdf;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public byte[] deriveKey(byte[] salt, int iterations, char[] password, int keySize) throws GeneralSecurityException {
+		if (!metrics.isEnabled()) {
+			return kdf.deriveKey(salt, iterations, password, keySize);
+		}
+		long start = System.nanoTime();
+		byte [] ret;
+		try {
+			ret = kdf.deriveKey(salt, iterations, password, keySize);
+		} catch (GeneralSecurityException | RuntimeException e) {
+			metrics.recordFailure(Operation.GENERATE_KEY, FailureReason.OTHER, System.nanoTime() - start);
+			throw e;
+		}
+		metrics.recordSuccess(Operation.GENERATE_KEY, ret.length, System.nanoTime() - start);
+		return ret;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.util.List;
+
+import br.com.opencs.benri.obfuscator.ObfuscatorMetrics.Operation;
+import br.com.opencs.benri.util.UTF8;
+
+/**
+ * This class implements a {@link StringObfuscator} that reports the calls
+ * to another obfuscator to an {@link ObfuscatorMetrics}. The failures are
+ * classified by {@link StringObfuscatorException#getReason()}, so bad input
+ * can be told apart from a wrong key. Unchecked exceptions of the wrapped
+ * obfuscator are recorded as {@link FailureReason#OTHER} and rethrown.
+ * 
+ * <p>The batch operations are delegated to the batch operations of the
+ * wrapped obfuscator, thus they keep its optimizations. Each batch is
+ * recorded as a single sample whose size is the total size of its values.
+ * The sizes are always the sizes of the plaintexts in UTF-8. While the
+ * metrics are disabled, the calls go straight to the wrapped obfuscator.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>Instances of this class are thread safe as long as the wrapped
+ * obfuscator is thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class MeteredStringObfuscator implements StringObfuscator {
+	
+	private final StringObfuscator obfuscator;
+	
+	private final ObfuscatorMetrics metrics;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param obfuscator The obfuscator that will do the actual work.
+	 * @param metrics The metrics.
+	 */
+	public MeteredStringObfuscator(StringObfuscator obfuscator, ObfuscatorMetrics metrics) {
+		this.obfuscator = obfuscator;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public String obfuscate(char[] value) throws StringObfuscatorException {
+		if (!metrics.isEnabled()) {
+			return obfuscator.obfuscate(value);
+		}
+		long start = System.nanoTime();
+		String ret;
+		try {
+			ret = obfuscator.obfuscate(value);
+		} catch (StringObfuscatorException e) {
+			metrics.recordFailure(Operation.OBFUSCATE, e.getReason(), System.nanoTime() - start);
+			throw e;
+		} catch (RuntimeException e) {
+			metrics.recordFailure(Operation.OBFUSCATE, FailureReason.OTHER, System.nanoTime() - start);
+			throw e;
+		}
+		long nanos = System.nanoTime() - start;
+		metrics.recordSuccess(Operation.OBFUSCATE, size(value), nanos);
+		return ret;
+	}
+
+	@Override
+	public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		if (!metrics.isEnabled()) {
+			return obfuscator.deobfuscate(obfuscated);
+		}
+		long start = System.nanoTime();
+		char [] ret;
+		try {
+			ret = obfuscator.deobfuscate(obfuscated);
+		} catch (StringObfuscatorException e) {
+			metrics.recordFailure(Operation.DEOBFUSCATE, e.getReason(), System.nanoTime() - start);
+			throw e;
+		} catch (RuntimeException e) {
+			metrics.recordFailure(Operation.DEOBFUSCATE, FailureReason.OTHER, System.nanoTime() - start);
+			throw e;
+		}
+		long nanos = System.nanoTime() - start;
+		metrics.recordSuccess(Operation.DEOBFUSCATE, size(ret), nanos);
+		return ret;
+	}
+
+	@Override
+	public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		if (!metrics.isEnabled()) {
+			return obfuscator.obfuscateAll(values);
+		}
+		long start = System.nanoTime();
+		List<String> ret;
+		try {
+			ret = obfuscator.obfuscateAll(values);
+		} catch (StringObfuscatorException e) {
+			metrics.recordFailure(Operation.OBFUSCATE, e.getReason(), System.nanoTime() - start);
+			throw e;
+		} catch (RuntimeException e) {
+			metrics.recordFailure(Operation.OBFUSCATE, FailureReason.OTHER, System.nanoTime() - start);
+			throw e;
+		}
+		long nanos = System.nanoTime() - start;
+		long size = 0;
+		for (char [] value: values) {
+			size += size(value);
+		}
+		metrics.recordSuccess(Operation.OBFUSCATE, size, nanos);
+		return ret;
+	}
+
+	@Override
+	public List<char[]> deobfuscateAll(List<String> values) throws StringObfuscatorException {
+		if (!metrics.isEnabled()) {
+			return obfuscator.deobfuscateAll(values);
+		}
+		long start = System.nanoTime();
+		List<char[]> ret;
+		try {
+			ret = obfuscator.deobfuscateAll(values);
+		} catch (StringObfuscatorException e) {
+			metrics.recordFailure(Operation.DEOBFUSCATE, e.getReason(), System.nanoTime() - start);
+			throw e;
+		} catch (RuntimeException e) {
+			metrics.recordFailure(Operation.DEOBFUSCATE, FailureReason.OTHER, System.nanoTime() - start);
+			throw e;
+		}
+		long nanos = System.nanoTime() - start;
+		long size = 0;
+		for (char [] value: ret) {
+			size += size(value);
+		}
+		metrics.recordSuccess(Operation.DEOBFUSCATE, size, nanos);
+		return ret;
+	}
+	
+	private static int size(char [] value) {
+		return UTF8.encodedLength(value, 0, value.length);
+	}
+	
+	/**
+	 * Returns the wrapped obfuscator.
+	 * 
+	 * @return The wrapped obfuscator.
+	 */
+	public StringObfuscator getObfuscator() {
+		return obfuscator;
+	}
+	
+	/**
+	 * Returns the metrics.
+	 * 
+	 * @return The metrics.
+	 */
+	public ObfuscatorMetrics getMetrics() {
+		return metrics;
+	}
+}
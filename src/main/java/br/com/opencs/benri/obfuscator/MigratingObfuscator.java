@@ -0,0 +1,315 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class implements a {@link StringObfuscator} that migrates old values
+ * lazily, as they are read by the application. It is an alternative to
+ * {@link RotationEngine} when rewriting the whole dataset at once is not
+ * possible.
+ * 
+ * <p>New values are always obfuscated by the current obfuscator. Values whose
+ * version matches the version produced by the current obfuscator are
+ * deobfuscated directly. All other values are deobfuscated by the current
+ * obfuscator or by one of the legacy obfuscators, in this order, and are
+ * obfuscated again by the current obfuscator. The new value is passed to the
+ * {@link UpgradeListener}, thus the application may write it back whenever it
+ * is convenient.</p>
+ * 
+ * <p>The version alone does not identify the key when the format stays the
+ * same (for example, a "GCM1" obfuscator replaced by another "GCM1" obfuscator
+ * with a new key). Because of that, a value of the current version that fails
+ * the authentication ({@link FailureReason#AUTHENTICATION}) is handed to the
+ * legacy obfuscators and upgraded like any other legacy value.</p>
+ * 
+ * <p>The version of a value is its header, followed by the key id for values
+ * with key id (for example, "GCM1", "GCK1:3" or "GCM2:0"). The number of
+ * values read per version is counted. Since the legacy values of the current
+ * version are counted under it, {@link #getLegacyCount()} should be used to
+ * tell when the legacy values were drained.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is thread safe as long as the wrapped obfuscators and the
+ * listener are thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class MigratingObfuscator implements StringObfuscator {
+	
+	/**
+	 * Receives the values upgraded to the current version.
+	 */
+	public interface UpgradeListener {
+		
+		/**
+		 * Called when a value is upgraded. It is called by the thread that
+		 * deobfuscated the value and any exception thrown by it is propagated
+		 * to the caller.
+		 * 
+		 * @param oldValue The value that was read.
+		 * @param newValue The same plaintext obfuscated by the current obfuscator.
+		 */
+		public void upgraded(String oldValue, String newValue);
+	}
+	
+	private static final int VERSION_HEADER_SIZE = 4;
+	
+	private static final String COMPACT_VERSION = "GCM2";
+	
+	private final StringObfuscator current;
+	
+	private final List<StringObfuscator> legacy;
+	
+	private final String currentVersion;
+	
+	private final UpgradeListener listener;
+	
+	private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>();
+	
+	private final LongAdder upgrades = new LongAdder();
+	
+	private final LongAdder legacyReads = new LongAdder();
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param current The current obfuscator.
+	 * @param legacy The legacy obfuscators, in the order they should be tried.
+	 * @param listener The listener of the upgraded values. It may be null.
+	 * @throws StringObfuscatorException If the current obfuscator fails.
+	 */
+	public MigratingObfuscator(StringObfuscator current, List<? extends StringObfuscator> legacy, UpgradeListener listener) throws StringObfuscatorException {
+		this.current = current;
+		this.legacy = new ArrayList<StringObfuscator>(legacy);
+		this.listener = listener;
+		// The current version is the version of any value it produces
+		this.currentVersion = getVersion(current.obfuscate(new char[0]));
+	}
+	
+	/**
+	 * Returns the version of the given value. The value itself is not
+	 * validated.
+	 * 
+	 * @param obfuscated The value.
+	 * @return The version.
+	 */
+	public static String getVersion(String obfuscated) {
+		int compactKeyId = CompactStringObfuscator.getKeyId(obfuscated);
+		if (compactKeyId >= 0) {
+			return COMPACT_VERSION + ":" + compactKeyId;
+		}
+		if (obfuscated.length() < VERSION_HEADER_SIZE) {
+			return obfuscated;
+		}
+		String header = obfuscated.substring(0, VERSION_HEADER_SIZE);
+		int keyId = KeyRingObfuscator.getKeyId(obfuscated);
+		if (keyId >= 0) {
+			return header + ":" + keyId;
+		}
+		return header;
+	}
+	
+	/**
+	 * Returns the version produced by the current obfuscator.
+	 * 
+	 * @return The current version.
+	 */
+	public String getCurrentVersion() {
+		return currentVersion;
+	}
+
+	@Override
+	public String obfuscate(char[] value) throws StringObfuscatorException {
+		return current.obfuscate(value);
+	}
+
+	@Override
+	public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		String version = getVersion(obfuscated);
+		StringObfuscatorException failure = null;
+		if (version.equals(currentVersion)) {
+			try {
+				char [] ret = current.deobfuscate(obfuscated);
+				count(version);
+				return ret;
+			} catch (StringObfuscatorException e) {
+				failure = checkRotated(e);
+			}
+		}
+		
+		char [] ret = deobfuscateLegacy(obfuscated, failure);
+		boolean success = false;
+		try {
+			count(version);
+			legacyReads.increment();
+			String upgraded = current.obfuscate(ret);
+			upgrades.increment();
+			if (listener != null) {
+				listener.upgraded(obfuscated, upgraded);
+			}
+			success = true;
+			return ret;
+		} finally {
+			if (!success) {
+				Shredder.shred(ret);
+			}
+		}
+	}
+	
+	/**
+	 * Upgrades the given value to the current version without returning the
+	 * plaintext. The listener is not called.
+	 * 
+	 * @param obfuscated The value.
+	 * @return The value in the current version. It is the value itself if it
+	 * can already be deobfuscated by the current obfuscator.
+	 * @throws StringObfuscatorException If the value cannot be deobfuscated.
+	 */
+	public String upgrade(String obfuscated) throws StringObfuscatorException {
+		String version = getVersion(obfuscated);
+		StringObfuscatorException failure = null;
+		if (version.equals(currentVersion)) {
+			// The header alone does not tell which key was used
+			try {
+				Shredder.shred(current.deobfuscate(obfuscated));
+				return obfuscated;
+			} catch (StringObfuscatorException e) {
+				failure = checkRotated(e);
+			}
+		}
+		char [] plain = deobfuscateLegacy(obfuscated, failure);
+		try {
+			String ret = current.obfuscate(plain);
+			upgrades.increment();
+			return ret;
+		} finally {
+			Shredder.shred(plain);
+		}
+	}
+	
+	/**
+	 * Returns the number of values read per version.
+	 * 
+	 * @return A snapshot of the counters, sorted by version.
+	 */
+	public Map<String, Long> getCounts() {
+		TreeMap<String, Long> ret = new TreeMap<String, Long>();
+		for (Map.Entry<String, LongAdder> e: counters.entrySet()) {
+			ret.put(e.getKey(), e.getValue().sum());
+		}
+		return Collections.unmodifiableMap(ret);
+	}
+	
+	/**
+	 * Returns the number of legacy values read so far, including the values
+	 * of the current version encrypted with an older key.
+	 * 
+	 * @return The number of legacy values.
+	 */
+	public long getLegacyCount() {
+		return legacyReads.sum();
+	}
+	
+	/**
+	 * Returns the number of upgraded values.
+	 * 
+	 * @return The number of upgraded values.
+	 */
+	public long getUpgradeCount() {
+		return upgrades.sum();
+	}
+	
+	private void count(String version) {
+		LongAdder counter = counters.get(version);
+		if (counter == null) {
+			counter = counters.computeIfAbsent(version, k -> new LongAdder());
+		}
+		counter.increment();
+	}
+	
+	/**
+	 * Verifies if the failure of the current obfuscator may be caused by a
+	 * value of the current version encrypted with an older key.
+	 * 
+	 * @param e The failure of the current obfuscator.
+	 * @return The failure itself.
+	 * @throws StringObfuscatorException The failure itself if it is not an
+	 * authentication failure.
+	 */
+	private static StringObfuscatorException checkRotated(StringObfuscatorException e) throws StringObfuscatorException {
+		if (e.getReason() != FailureReason.AUTHENTICATION) {
+			throw e;
+		}
+		return e;
+	}
+	
+	/**
+	 * Deobfuscates the value with the current obfuscator or with the legacy
+	 * obfuscators, in this order.
+	 * 
+	 * @param obfuscated The value.
+	 * @param currentFailure The failure of the current obfuscator if it was
+	 * already tried, or null otherwise.
+	 * @return The plaintext.
+	 * @throws StringObfuscatorException If no obfuscator can deobfuscate the value.
+	 */
+	private char [] deobfuscateLegacy(String obfuscated, StringObfuscatorException currentFailure) throws StringObfuscatorException {
+		StringObfuscatorException last = currentFailure;
+		if (last == null) {
+			try {
+				return current.deobfuscate(obfuscated);
+			} catch (StringObfuscatorException e) {
+				last = e;
+			}
+		}
+		for (StringObfuscator o: legacy) {
+			try {
+				return o.deobfuscate(obfuscated);
+			} catch (StringObfuscatorException e) {
+				last = e;
+			}
+		}
+		throw last;
+	}
+}
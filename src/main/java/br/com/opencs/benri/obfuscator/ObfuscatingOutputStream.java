@@ -0,0 +1,267 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This output stream obfuscates all data written to it using a segmented
+ * AES-GCM format loosely based on the <b>STREAM</b> construction. It allows
+ * the obfuscation of payloads of any size using a constant amount of memory.
+ * Instances of this class are created by
+ * {@link StringObfuscatorImpl#createOutputStream(OutputStream)}.
+ * 
+ * <h2>Format</h2>
+ * 
+ * <p>The stream starts with a header composed by the magic "GCS1" (4 bytes),
+ * the segment size (4 bytes, big endian) and a random salt (16 bytes). It is
+ * followed by the segments, each one containing up to segment size bytes of
+ * ciphertext followed by the 16 bytes of the tag. All segments but the last
+ * one are always full.</p>
+ * 
+ * <p>Each stream is encrypted with its own subkey, derived from the key of the
+ * obfuscator and the salt with HKDF-SHA256. Since the subkey is never shared,
+ * the nonce of each segment is simply composed by 7 zero bytes, the segment
+ * counter (4 bytes, big endian) and a flag that is set to 1 only in the last
+ * segment; a (key, nonce) pair is reused only if two streams draw the same
+ * 128 bit salt. The header is used as the additional authenticated data of all
+ * segments. This prevents the reordering, the truncation and the extension of
+ * the stream.</p>
+ * 
+ * <h2>Usage</h2>
+ * 
+ * <p>Since all segments but the last one must be full, {@link #flush()} does
+ * not produce a partial segment. The last segment is written only by
+ * {@link #close()}, thus the stream must always be closed, otherwise the
+ * obfuscated data will be rejected as truncated.</p>
+ * 
+ * <p>This class is not thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class ObfuscatingOutputStream extends FilterOutputStream {
+	
+	/**
+	 * The magic of this format. Always "GCS1".
+	 */
+	public static final byte [] MAGIC = {'G', 'C', 'S', '1'};
+	
+	/**
+	 * The default segment size in bytes.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+	
+	/**
+	 * The maximum segment size accepted by this format.
+	 */
+	public static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+	
+	static final int SALT_SIZE = 16;
+	static final int NONCE_PREFIX_SIZE = 7;
+	static final int NONCE_SIZE = 12;
+	static final int HEADER_SIZE = MAGIC.length + 4 + SALT_SIZE;
+	static final int TAG_SIZE = 128;
+	
+	/**
+	 * The HKDF info used to derive the subkey of each stream.
+	 */
+	static final String STREAM_KEY_INFO = "benri.stream.v1";
+	
+	/**
+	 * The obfuscator that created this stream. It is never used but keeps the
+	 * obfuscator, and thus its key, reachable while the stream is in use. See
+	 * {@link StringObfuscatorFactory}.
+	 */
+	@SuppressWarnings("unused")
+	private final StringObfuscatorImpl owner;
+	
+	private final DestroyableSecretKey key;
+	
+	private final Cipher cipher;
+	
+	private final byte [] header;
+	
+	private final byte [] nonce = new byte[NONCE_SIZE];
+	
+	private final byte [] plain;
+	
+	private final byte [] enc;
+	
+	private int count;
+	
+	private int segment;
+	
+	private boolean closed;
+
+	ObfuscatingOutputStream(OutputStream out, StringObfuscatorImpl owner, SecretKey key, IVGenerator ivGenerator, int segmentSize) throws IOException {
+		super(out);
+		if ((segmentSize <= 0) || (segmentSize > MAX_SEGMENT_SIZE)) {
+			throw new IllegalArgumentException("Invalid segment size.");
+		}
+		this.owner = owner;
+		this.header = new byte[HEADER_SIZE];
+		System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+		writeInt(header, MAGIC.length, segmentSize);
+		ivGenerator.generate(header, MAGIC.length + 4, SALT_SIZE);
+		try {
+			this.cipher = Cipher.getInstance(StringObfuscatorImpl.CIPHER_ALG_FULL);
+			this.key = deriveStreamKey(key, header);
+		} catch (GeneralSecurityException e) {
+			throw new IOException(e.getMessage(), new StringObfuscatorException(e.getMessage(), e));
+		}
+		this.plain = new byte[segmentSize];
+		this.enc = new byte[segmentSize + TAG_SIZE / 8];
+		out.write(header);
+	}
+	
+	/**
+	 * Derives the subkey of a stream from the salt inside its header.
+	 * 
+	 * @param key The key of the obfuscator.
+	 * @param header The header of the stream.
+	 * @return The subkey.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	static DestroyableSecretKey deriveStreamKey(SecretKey key, byte [] header) throws GeneralSecurityException {
+		byte [] salt = Arrays.copyOfRange(header, MAGIC.length + 4, HEADER_SIZE);
+		return KeyHierarchy.hkdf(key, salt, STREAM_KEY_INFO, StringObfuscatorImpl.CIPHER_ALG);
+	}
+	
+	static void writeInt(byte [] buff, int offset, int v) {
+		buff[offset] = (byte)(v >>> 24);
+		buff[offset + 1] = (byte)(v >>> 16);
+		buff[offset + 2] = (byte)(v >>> 8);
+		buff[offset + 3] = (byte)v;
+	}
+	
+	/**
+	 * Sets the segment counter and the last segment flag of the nonce.
+	 * 
+	 * @param nonce The nonce with the prefix already set.
+	 * @param segment The segment counter.
+	 * @param last Flag that indicates the last segment.
+	 */
+	static void updateNonce(byte [] nonce, int segment, boolean last) {
+		writeInt(nonce, NONCE_PREFIX_SIZE, segment);
+		nonce[NONCE_SIZE - 1] = (byte)(last ? 1 : 0);
+	}
+
+	private void writeSegment(boolean last) throws IOException {
+		if (segment == -1) {
+			throw new IOException("Too many segments.");
+		}
+		updateNonce(nonce, segment, last);
+		int size;
+		try {
+			cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE, nonce));
+			cipher.updateAAD(header);
+			size = cipher.doFinal(plain, 0, count, enc, 0);
+		} catch (GeneralSecurityException e) {
+			throw new IOException(e.getMessage(), new StringObfuscatorException(e.getMessage(), e));
+		} finally {
+			Shredder.shred(plain, 0, count);
+		}
+		out.write(enc, 0, size);
+		count = 0;
+		segment++;
+	}
+	
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		if (count == plain.length) {
+			writeSegment(false);
+		}
+		plain[count++] = (byte)b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		if ((off < 0) || (len < 0) || (off + len > b.length)) {
+			throw new IndexOutOfBoundsException();
+		}
+		while (len > 0) {
+			if (count == plain.length) {
+				writeSegment(false);
+			}
+			int n = Math.min(len, plain.length - count);
+			System.arraycopy(b, off, plain, count, n);
+			count += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Flushes the underlying stream. It does not write the pending data because
+	 * only the last segment may be partial.
+	 */
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Writes the last segment and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			try {
+				writeSegment(true);
+			} finally {
+				Shredder.shred(plain);
+				key.destroy();
+				out.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+/**
+ * This interface defines the hooks used to collect metrics about the
+ * obfuscation operations. The metrics are collected by
+ * {@link MeteredStringObfuscator} and {@link MeteredKeyDerivationFunction};
+ * {@link DefaultObfuscatorMetrics} is a lock-free implementation that
+ * keeps counters and latency histograms in memory.
+ * 
+ * <p>Implementations must be thread safe and must not block, since they are
+ * called from the threads that perform the operations.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public interface ObfuscatorMetrics {
+	
+	/**
+	 * The operations being measured.
+	 */
+	public enum Operation {
+		/**
+		 * Obfuscation of a value.
+		 */
+		OBFUSCATE,
+		/**
+		 * Deobfuscation of a value.
+		 */
+		DEOBFUSCATE,
+		/**
+		 * Derivation of a key from a password.
+		 */
+		GENERATE_KEY
+	}
+	
+	/**
+	 * An implementation that is always disabled and ignores everything.
+	 */
+	public static final ObfuscatorMetrics NOOP = new ObfuscatorMetrics() {
+		
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+		
+		@Override
+		public void recordSuccess(Operation operation, long bytes, long nanos) {
+		}
+		
+		@Override
+		public void recordFailure(Operation operation, FailureReason reason, long nanos) {
+		}
+	};
+	
+	/**
+	 * Verifies if the metrics are enabled. When it returns false, the callers
+	 * skip the measurements altogether, including the reading of the clock.
+	 * 
+	 * @return true if the metrics are enabled.
+	 */
+	public boolean isEnabled();
+	
+	/**
+	 * Records a successful operation. A batch operation is recorded as a
+	 * single operation.
+	 * 
+	 * @param operation The operation.
+	 * @param bytes The number of bytes processed. For obfuscation and
+	 * deobfuscation, it is the size of the plaintext encoded in UTF-8 (the sum
+	 * of all values for a batch); for key derivation, the size of the key.
+	 * @param nanos The duration of the operation in nanoseconds.
+	 */
+	public void recordSuccess(Operation operation, long bytes, long nanos);
+	
+	/**
+	 * Records a failed operation.
+	 * 
+	 * @param operation The operation.
+	 * @param reason The reason of the failure.
+	 * @param nanos The duration of the operation in nanoseconds.
+	 */
+	public void recordFailure(Operation operation, FailureReason reason, long nanos);
+}
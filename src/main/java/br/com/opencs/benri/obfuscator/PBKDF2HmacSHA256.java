@@ -0,0 +1,330 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
+
+import br.com.opencs.benri.util.Shredder;
+import br.com.opencs.benri.util.UTF8;
+
+/**
+ * This class implements PBKDF2 with HMAC-SHA256 as defined by RFC 8018. It
+ * produces exactly the same keys as "PBKDF2WithHmacSHA256" from the JCE,
+ * including the UTF-8 encoding of the password, without depending on the
+ * JCA providers installed in the JVM.
+ * 
+ * <p>The HMAC key is always the password, thus the SHA-256 states after the
+ * inner and outer pad blocks are computed only once per derivation. After
+ * that, each iteration is reduced to exactly two SHA-256 compressions over
+ * 32-bit words that never leave the work arrays, without any allocation or
+ * byte conversion inside the iteration loop.</p>
+ * 
+ * <p>It is not faster than the JCE: the JVM replaces the SHA-256 compression
+ * of the JCE by intrinsics that this class cannot use, thus it is about 2
+ * times slower on current x86 JVMs (see <code>KeyDerivationBenchmark</code>).
+ * Because of that, and because it bypasses the JCA providers, it is never
+ * used by default. It must be explicitly passed to the classes that accept a
+ * {@link KeyDerivationFunction}, like
+ * {@link StringObfuscatorFactory#StringObfuscatorFactory(KeyDerivationFunction)}
+ * and {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], int, char[], IVGenerator, KeyDerivationFunction)}.</p>
+ * 
+ * <p>This class is thread safe. All work buffers are local to each call and
+ * are shredded before it returns.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class PBKDF2HmacSHA256 implements KeyDerivationFunction {
+	
+	private static final int BLOCK_SIZE = 64;
+	
+	private static final int DIGEST_SIZE = 32;
+	
+	private static final int STATE_WORDS = 8;
+	
+	private static final int[] INITIAL_STATE = {
+		0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+		0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+	};
+	
+	private static final int[] ROUND_CONSTANTS = {
+		0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+		0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+		0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+		0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+		0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+		0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+		0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+		0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+	};
+	
+	/**
+	 * The length in bits of the message hashed by each iteration: the pad block
+	 * followed by a digest.
+	 */
+	private static final int ITERATION_MESSAGE_BITS = (BLOCK_SIZE + DIGEST_SIZE) * 8;
+
+	@Override
+	public byte[] deriveKey(byte[] salt, int iterations, char[] password, int keySize) throws GeneralSecurityException {
+		if (iterations <= 0) {
+			throw new InvalidKeySpecException("Invalid number of iterations.");
+		}
+		if ((keySize <= 0) || ((keySize % 8) != 0)) {
+			throw new InvalidKeySpecException("Invalid key size.");
+		}
+		int keyLength = keySize / 8;
+		
+		byte [] pwd = new byte[UTF8.encodedLength(password, 0, password.length)];
+		byte [] block = new byte[BLOCK_SIZE];
+		byte [] msg = new byte[salt.length + 4];
+		int [] inner = new int[STATE_WORDS];
+		int [] outer = new int[STATE_WORDS];
+		int [] u = new int[STATE_WORDS];
+		int [] t = new int[STATE_WORDS];
+		int [] state = new int[STATE_WORDS];
+		int [] w = new int[64];
+		try {
+			UTF8.encode(password, 0, password.length, pwd, 0);
+			initPads(pwd, block, w, inner, outer);
+			
+			byte [] key = new byte[keyLength];
+			System.arraycopy(salt, 0, msg, 0, salt.length);
+			for (int i = 1, offset = 0; offset < keyLength; i++, offset += DIGEST_SIZE) {
+				// U1 = HMAC(P, S || INT(i))
+				writeInt(i, msg, salt.length);
+				hash(inner, BLOCK_SIZE, msg, 0, msg.length, block, w, state);
+				stateToWords(state, w);
+				System.arraycopy(outer, 0, u, 0, STATE_WORDS);
+				compress(u, w);
+				System.arraycopy(u, 0, t, 0, STATE_WORDS);
+				
+				// Uj = HMAC(P, Uj-1)
+				for (int j = 1; j < iterations; j++) {
+					stateToWords(u, w);
+					System.arraycopy(inner, 0, state, 0, STATE_WORDS);
+					compress(state, w);
+					stateToWords(state, w);
+					System.arraycopy(outer, 0, u, 0, STATE_WORDS);
+					compress(u, w);
+					for (int k = 0; k < STATE_WORDS; k++) {
+						t[k] ^= u[k];
+					}
+				}
+				
+				int size = Math.min(DIGEST_SIZE, keyLength - offset);
+				for (int k = 0; k < size; k++) {
+					key[offset + k] = (byte)(t[k >>> 2] >>> (24 - ((k & 3) << 3)));
+				}
+			}
+			return key;
+		} finally {
+			Shredder.shred(pwd);
+			Shredder.shred(block);
+			Shredder.shred(msg);
+			Arrays.fill(inner, 0);
+			Arrays.fill(outer, 0);
+			Arrays.fill(u, 0);
+			Arrays.fill(t, 0);
+			Arrays.fill(state, 0);
+			Arrays.fill(w, 0);
+		}
+	}
+	
+	/**
+	 * Computes the SHA-256 states after the inner and outer pad blocks of the
+	 * HMAC key.
+	 * 
+	 * @param pwd The HMAC key.
+	 * @param block The block buffer.
+	 * @param w The message schedule.
+	 * @param inner Receives the state after the inner pad.
+	 * @param outer Receives the state after the outer pad.
+	 */
+	private static void initPads(byte [] pwd, byte [] block, int [] w, int [] inner, int [] outer) {
+		byte [] key = pwd;
+		int keyLength = pwd.length;
+		if (keyLength > BLOCK_SIZE) {
+			// Long keys are replaced by their digest
+			hash(INITIAL_STATE, 0, pwd, 0, pwd.length, block, w, inner);
+			key = new byte[DIGEST_SIZE];
+			for (int k = 0; k < DIGEST_SIZE; k++) {
+				key[k] = (byte)(inner[k >>> 2] >>> (24 - ((k & 3) << 3)));
+			}
+			keyLength = DIGEST_SIZE;
+		}
+		try {
+			padBlock(key, keyLength, (byte)0x36, block);
+			bytesToWords(block, 0, w);
+			System.arraycopy(INITIAL_STATE, 0, inner, 0, STATE_WORDS);
+			compress(inner, w);
+			
+			padBlock(key, keyLength, (byte)0x5c, block);
+			bytesToWords(block, 0, w);
+			System.arraycopy(INITIAL_STATE, 0, outer, 0, STATE_WORDS);
+			compress(outer, w);
+		} finally {
+			if (key != pwd) {
+				Shredder.shred(key);
+			}
+		}
+	}
+	
+	private static void padBlock(byte [] key, int keyLength, byte pad, byte [] block) {
+		for (int k = 0; k < keyLength; k++) {
+			block[k] = (byte)(key[k] ^ pad);
+		}
+		Arrays.fill(block, keyLength, BLOCK_SIZE, pad);
+	}
+	
+	/**
+	 * Hashes a message starting from the given state.
+	 * 
+	 * @param initial The initial state.
+	 * @param prefixLength The number of bytes already hashed by the initial state.
+	 * @param msg The message.
+	 * @param offset The offset.
+	 * @param length The length.
+	 * @param block The block buffer.
+	 * @param w The message schedule.
+	 * @param state Receives the final state.
+	 */
+	private static void hash(int [] initial, int prefixLength, byte [] msg, int offset, int length, byte [] block, int [] w, int [] state) {
+		System.arraycopy(initial, 0, state, 0, STATE_WORDS);
+		int end = offset + length;
+		while (end - offset >= BLOCK_SIZE) {
+			bytesToWords(msg, offset, w);
+			compress(state, w);
+			offset += BLOCK_SIZE;
+		}
+		
+		// Padding
+		int remaining = end - offset;
+		System.arraycopy(msg, offset, block, 0, remaining);
+		block[remaining] = (byte)0x80;
+		Arrays.fill(block, remaining + 1, BLOCK_SIZE, (byte)0);
+		if (remaining + 1 > BLOCK_SIZE - 8) {
+			bytesToWords(block, 0, w);
+			compress(state, w);
+			Arrays.fill(block, (byte)0);
+		}
+		bytesToWords(block, 0, w);
+		long bits = ((long)prefixLength + length) * 8;
+		w[14] = (int)(bits >>> 32);
+		w[15] = (int)bits;
+		compress(state, w);
+	}
+	
+	/**
+	 * Loads a 32 byte digest followed by its padding into the message
+	 * schedule. It assumes that the message started with a pad block.
+	 * 
+	 * @param state The digest.
+	 * @param w The message schedule.
+	 */
+	private static void stateToWords(int [] state, int [] w) {
+		System.arraycopy(state, 0, w, 0, STATE_WORDS);
+		w[8] = 0x80000000;
+		w[9] = 0;
+		w[10] = 0;
+		w[11] = 0;
+		w[12] = 0;
+		w[13] = 0;
+		w[14] = 0;
+		w[15] = ITERATION_MESSAGE_BITS;
+	}
+	
+	private static void bytesToWords(byte [] src, int offset, int [] w) {
+		for (int k = 0; k < 16; k++, offset += 4) {
+			w[k] = ((src[offset] & 0xFF) << 24) | ((src[offset + 1] & 0xFF) << 16)
+					| ((src[offset + 2] & 0xFF) << 8) | (src[offset + 3] & 0xFF);
+		}
+	}
+	
+	private static void writeInt(int v, byte [] dst, int offset) {
+		dst[offset] = (byte)(v >>> 24);
+		dst[offset + 1] = (byte)(v >>> 16);
+		dst[offset + 2] = (byte)(v >>> 8);
+		dst[offset + 3] = (byte)v;
+	}
+	
+	/**
+	 * The SHA-256 compression function. It expands the first 16 words of the
+	 * message schedule and updates the state.
+	 * 
+	 * @param state The state.
+	 * @param w The message schedule with 64 words.
+	 */
+	private static void compress(int [] state, int [] w) {
+		for (int i = 16; i < 64; i++) {
+			int x = w[i - 15];
+			int y = w[i - 2];
+			int s0 = Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+			int s1 = Integer.rotateRight(y, 17) ^ Integer.rotateRight(y, 19) ^ (y >>> 10);
+			w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+		}
+		
+		int a = state[0];
+		int b = state[1];
+		int c = state[2];
+		int d = state[3];
+		int e = state[4];
+		int f = state[5];
+		int g = state[6];
+		int h = state[7];
+		for (int i = 0; i < 64; i++) {
+			int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+			int ch = (e & f) ^ (~e & g);
+			int t1 = h + s1 + ch + ROUND_CONSTANTS[i] + w[i];
+			int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+			int maj = (a & b) ^ (a & c) ^ (b & c);
+			int t2 = s0 + maj;
+			h = g;
+			g = f;
+			f = e;
+			e = d + t1;
+			d = c;
+			c = b;
+			b = a;
+			a = t1 + t2;
+		}
+		state[0] += a;
+		state[1] += b;
+		state[2] += c;
+		state[3] += d;
+		state[4] += e;
+		state[5] += f;
+		state[6] += g;
+		state[7] += h;
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class wraps another {@link StringObfuscator} and executes large batches
+ * in parallel using a {@link ForkJoinPool}. Single value operations are
+ * delegated directly to the wrapped obfuscator.
+ * 
+ * <p>Each batch is recursively split in chunks that are processed by the
+ * batch methods of the wrapped obfuscator. Since {@link StringObfuscatorImpl}
+ * keeps its cipher and buffers per thread, each worker uses its own cipher and
+ * IV source. The order of the results always matches the order of the
+ * input.</p>
+ * 
+ * <p>Batches smaller than the threshold are processed sequentially in the
+ * caller thread, as the cost of the task distribution dominates for small
+ * batches.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is thread safe as long as the wrapped obfuscator is also
+ * thread safe.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class ParallelStringObfuscator implements StringObfuscator {
+	
+	/**
+	 * The default threshold. Below about 256 short values, the cost of the
+	 * fork/join distribution is similar to the cost of the work itself.
+	 */
+	public static final int DEFAULT_THRESHOLD = 256;
+	
+	private final StringObfuscator obfuscator;
+	
+	private final ForkJoinPool pool;
+	
+	private final int threshold;
+	
+	/**
+	 * Creates a new instance of this class that uses the common pool and the
+	 * default threshold.
+	 * 
+	 * @param obfuscator The obfuscator that will do the actual work.
+	 */
+	public ParallelStringObfuscator(StringObfuscator obfuscator) {
+		this(obfuscator, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param obfuscator The obfuscator that will do the actual work.
+	 * @param pool The pool used to execute the tasks.
+	 * @param threshold The minimum size of the batch that will be executed in
+	 * parallel. It is also the minimum size of each chunk.
+	 */
+	public ParallelStringObfuscator(StringObfuscator obfuscator, ForkJoinPool pool, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("The threshold must be positive.");
+		}
+		this.obfuscator = obfuscator;
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+	@Override
+	public String obfuscate(char[] value) throws StringObfuscatorException {
+		return obfuscator.obfuscate(value);
+	}
+
+	@Override
+	public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		return obfuscator.deobfuscate(obfuscated);
+	}
+
+	@Override
+	public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		if (values.size() < threshold) {
+			return obfuscator.obfuscateAll(values);
+		}
+		String [] ret = new String[values.size()];
+		execute(new BatchTask<char[], String>(obfuscator::obfuscateAll, values, ret, 0, ret.length, chunkSize(ret.length)));
+		return Arrays.asList(ret);
+	}
+
+	@Override
+	public List<char[]> deobfuscateAll(List<String> values) throws StringObfuscatorException {
+		if (values.size() < threshold) {
+			return obfuscator.deobfuscateAll(values);
+		}
+		char [][] ret = new char[values.size()][];
+		boolean success = false;
+		try {
+			execute(new BatchTask<String, char[]>(obfuscator::deobfuscateAll, values, ret, 0, ret.length, chunkSize(ret.length)));
+			success = true;
+			return Arrays.asList(ret);
+		} finally {
+			if (!success) {
+				for (char [] value: ret) {
+					Shredder.shred(value);
+				}
+			}
+		}
+	}
+	
+	private int chunkSize(int size) {
+		// About 4 chunks per worker to compensate uneven workers
+		return Math.max(threshold, size / (pool.getParallelism() * 4));
+	}
+	
+	private void execute(BatchTask<?, ?> task) throws StringObfuscatorException {
+		try {
+			pool.invoke(task);
+		} catch (BatchException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Wraps the exceptions thrown by the tasks.
+	 */
+	private static class BatchException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public BatchException(StringObfuscatorException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized StringObfuscatorException getCause() {
+			return (StringObfuscatorException)super.getCause();
+		}
+	}
+
+	/**
+	 * Processes a single chunk of the batch.
+	 */
+	private static interface ChunkProcessor<I, O> {
+		
+		public List<O> process(List<I> chunk) throws StringObfuscatorException;
+	}
+
+	/**
+	 * Task that splits the batch until the chunk size is reached.
+	 */
+	private static class BatchTask<I, O> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		
+		private final ChunkProcessor<I, O> processor;
+
+		private final List<I> values;
+		
+		private final O [] ret;
+		
+		private final int start;
+		
+		private final int end;
+		
+		private final int chunkSize;
+		
+		public BatchTask(ChunkProcessor<I, O> processor, List<I> values, O [] ret, int start, int end, int chunkSize) {
+			this.processor = processor;
+			this.values = values;
+			this.ret = ret;
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= chunkSize) {
+				try {
+					List<O> out = processor.process(values.subList(start, end));
+					for (int i = 0; i < out.size(); i++) {
+						ret[start + i] = out.get(i);
+					}
+				} catch (StringObfuscatorException e) {
+					throw new BatchException(e);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				BatchTask<I, O> left = new BatchTask<I, O>(processor, values, ret, start, middle, chunkSize);
+				BatchTask<I, O> right = new BatchTask<I, O>(processor, values, ret, middle, end, chunkSize);
+				// Unlike invokeAll(), both halves must finish before a failure is
+				// propagated, otherwise the caller could shred the results while
+				// the other half is still writing into them
+				right.fork();
+				RuntimeException failure = null;
+				try {
+					left.invoke();
+				} catch (RuntimeException e) {
+					failure = e;
+				}
+				try {
+					right.join();
+				} catch (RuntimeException e) {
+					if (failure == null) {
+						failure = e;
+					}
+				}
+				if (failure != null) {
+					throw failure;
+				}
+			}
+		}
+	}
+}
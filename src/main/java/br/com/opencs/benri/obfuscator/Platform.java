@@ -0,0 +1,141 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class isolates the internals of the obfuscators that can take
+ * advantage of newer versions of the JVM. This is the Java 8 version; the
+ * library is packaged as a multi-release JAR and the JVM picks the versions
+ * found in <code>META-INF/versions/11</code> and
+ * <code>META-INF/versions/21</code> when they are available.
+ * 
+ * <p>All versions of this class must have exactly the same methods.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+final class Platform {
+	
+	/**
+	 * The feature version of the JVM this version of the class was written for.
+	 */
+	static final int VERSION = 8;
+	
+	private Platform() {
+	}
+	
+	/**
+	 * Source of the seeds of the per-thread instances. It is used only once
+	 * per instance.
+	 */
+	private static final SecureRandom SEEDER = new SecureRandom();
+	
+	/**
+	 * Size of the seed of the per-thread instances in bytes.
+	 */
+	private static final int SEED_SIZE = 32;
+	
+	/**
+	 * Never holds a reference. It is compared with the objects passed to
+	 * {@link #reachabilityFence(Object)}; the JIT cannot prove that the
+	 * comparison is false, thus it keeps them alive up to that point.
+	 */
+	private static volatile Object fence;
+	
+	/**
+	 * Creates a new {@link SecureRandom} to be used by a single thread. On
+	 * Java 8, the default instance on Linux is <code>NativePRNG</code>, whose
+	 * instances share a single global lock, thus this version uses
+	 * <code>SHA1PRNG</code> instances that are seeded once from the default
+	 * instance and never touch it again.
+	 * 
+	 * @return The new instance.
+	 */
+	static SecureRandom newSecureRandom() {
+		SecureRandom random;
+		try {
+			random = SecureRandom.getInstance("SHA1PRNG");
+		} catch (GeneralSecurityException e) {
+			return new SecureRandom();
+		}
+		byte [] seed = new byte[SEED_SIZE];
+		SEEDER.nextBytes(seed);
+		random.setSeed(seed);
+		Shredder.shred(seed);
+		return random;
+	}
+	
+	/**
+	 * Verifies if the current thread is a virtual thread. Virtual threads
+	 * should not keep expensive objects in thread locals.
+	 * 
+	 * @return true if the current thread is virtual.
+	 */
+	static boolean isVirtualThread() {
+		return false;
+	}
+	
+	/**
+	 * Verifies if ChaCha20-Poly1305 is supported by the current JVM.
+	 * 
+	 * @return true if it is supported.
+	 */
+	static boolean isChaChaSupported() {
+		try {
+			Cipher.getInstance(CipherFormat.CHACHA_TRANSFORMATION);
+			return true;
+		} catch (GeneralSecurityException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Ensures that the given object is strongly reachable up to this call,
+	 * even if it is not used by the rest of the calling method. This version
+	 * emulates <code>Reference.reachabilityFence()</code>, which is available
+	 * since Java 9.
+	 * 
+	 * @param o The object.
+	 */
+	static void reachabilityFence(Object o) {
+		if (fence == o) {
+			fence = null;
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This {@link IVGenerator} keeps a bounded ring of pre-generated IVs that is
+ * refilled by a daemon thread. It is useful when the {@link SecureRandom}
+ * provider may stall while waiting for entropy, as this cost is moved out of
+ * the thread that calls the obfuscator.
+ * 
+ * <p>The ring is a single preallocated array with one slot per IV. The refill
+ * thread publishes the slots in sequence and the callers claim them with a
+ * compare-and-set on the next sequence number, thus the hot path never locks
+ * nor allocates. If the ring is empty, the IV is generated inline by a
+ * fallback generator and the underflow counter is incremented. IVs with a
+ * size other than the one configured for this instance are always generated
+ * by the fallback generator.</p>
+ * 
+ * <p>The counters exposed by this class can be used to size the ring. A
+ * growing number of underflows means that the ring is too small or the
+ * refill thread is unable to keep up with the demand.</p>
+ * 
+ * <p>This class is thread safe. The refill thread is stopped by
+ * {@link #close()}. It holds only a weak reference to this instance, thus it
+ * also stops by itself shortly after an instance that was never closed
+ * becomes unreachable.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class PrefetchIVGenerator implements IVGenerator, Closeable {
+
+	/**
+	 * Default size of the IVs. It matches the size of the IV used by
+	 * {@link StringObfuscatorImpl}.
+	 */
+	public static final int DEFAULT_IV_SIZE = 16;
+
+	/**
+	 * Maximum time the refill thread sleeps while the ring is full.
+	 */
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final Ring ring;
+	
+	private final IVGenerator fallback;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder underflows = new LongAdder();
+
+	private final Thread refillThread;
+
+	/**
+	 * Creates a new instance of this class that generates 16-byte IVs.
+	 * 
+	 * @param depth The number of IVs in the ring.
+	 */
+	public PrefetchIVGenerator(int depth) {
+		this(depth, DEFAULT_IV_SIZE, new DefaultIVGenerator());
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param depth The number of IVs in the ring.
+	 * @param ivSize The size of the IVs in bytes.
+	 * @param fallback The generator used when the ring is empty.
+	 */
+	public PrefetchIVGenerator(int depth, int ivSize, IVGenerator fallback) {
+		if (depth <= 0) {
+			throw new IllegalArgumentException("The depth must be positive.");
+		}
+		this.fallback = fallback;
+		this.ring = new Ring(depth, ivSize);
+		this.refillThread = new Thread(new Refill(this, ring), "PrefetchIVGenerator-refill");
+		this.refillThread.setDaemon(true);
+		this.refillThread.start();
+	}
+	
+	@Override
+	public void generate(byte[] iv, int offset, int size) {
+		if (size == ring.ivSize) {
+			if (ring.take(iv, offset)) {
+				hits.increment();
+				consumed(ring.available());
+				return;
+			}
+			underflows.increment();
+			LockSupport.unpark(refillThread);
+		}
+		fallback.generate(iv, offset, size);
+	}
+	
+	/**
+	 * Called by the callers after an IV is taken. It wakes up the refill
+	 * thread once the ring drops to half of its depth, so it is not woken up
+	 * on every call. It is also woken up on every underflow.
+	 * 
+	 * @param available The number of IVs left in the ring.
+	 */
+	private void consumed(long available) {
+		if (available == ring.depth / 2) {
+			LockSupport.unpark(refillThread);
+		}
+	}
+
+	/**
+	 * Returns the maximum number of IVs kept in the ring.
+	 * 
+	 * @return The depth of the ring.
+	 */
+	public int getDepth() {
+		return ring.depth;
+	}
+	
+	/**
+	 * Returns the number of IVs currently available in the ring.
+	 * 
+	 * @return The number of IVs available.
+	 */
+	public int getAvailable() {
+		return (int)ring.available();
+	}
+
+	/**
+	 * Returns the number of IVs generated by the refill thread so far.
+	 * 
+	 * @return The number of refills.
+	 */
+	public long getRefillCount() {
+		return ring.tail.get();
+	}
+	
+	/**
+	 * Returns the number of IVs taken from the ring so far.
+	 * 
+	 * @return The number of hits.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+	
+	/**
+	 * Returns the number of times the ring was found empty and the IV had to be
+	 * generated inline.
+	 * 
+	 * @return The number of underflows.
+	 */
+	public long getUnderflowCount() {
+		return underflows.sum();
+	}
+	
+	/**
+	 * Returns the refill thread.
+	 * 
+	 * @return The refill thread.
+	 */
+	Thread getRefillThread() {
+		return refillThread;
+	}
+	
+	/**
+	 * Stops the refill thread. Once closed, all IVs are generated by the fallback
+	 * generator after the remaining IVs in the ring are consumed.
+	 */
+	@Override
+	public void close() {
+		ring.closed = true;
+		LockSupport.unpark(refillThread);
+	}
+	
+	/**
+	 * The ring of IVs. It is shared by the generator and its refill thread.
+	 * The slots from head (inclusive) to tail (exclusive) hold IVs ready to be
+	 * taken. Only the refill thread advances the tail, while the callers
+	 * advance the head.
+	 */
+	private static final class Ring {
+		
+		private final int depth;
+		
+		private final int ivSize;
+		
+		private final byte [] slots;
+		
+		private final AtomicLong head = new AtomicLong();
+		
+		private final AtomicLong tail = new AtomicLong();
+		
+		private volatile boolean closed;
+		
+		Ring(int depth, int ivSize) {
+			this.depth = depth;
+			this.ivSize = ivSize;
+			this.slots = new byte[depth * ivSize];
+		}
+		
+		long available() {
+			return tail.get() - head.get();
+		}
+		
+		/**
+		 * Copies the next IV into the given array. The slot is copied before it
+		 * is claimed; the refill thread cannot overwrite it until the head moves
+		 * past it, thus a successful claim means that the copy is intact.
+		 * Otherwise another caller took it first and the next one is tried.
+		 * 
+		 * @param iv The destination array.
+		 * @param offset The offset of the IV in the destination array.
+		 * @return false if the ring is empty.
+		 */
+		boolean take(byte [] iv, int offset) {
+			while (true) {
+				long h = head.get();
+				if (h >= tail.get()) {
+					return false;
+				}
+				System.arraycopy(slots, (int)(h % depth) * ivSize, iv, offset, ivSize);
+				if (head.compareAndSet(h, h + 1)) {
+					return true;
+				}
+			}
+		}
+		
+		/**
+		 * Publishes the given IV in the next free slot. It must be called by the
+		 * refill thread only.
+		 * 
+		 * @param iv The IV.
+		 * @return false if the ring is full.
+		 */
+		boolean put(byte [] iv) {
+			long t = tail.get();
+			if (t - head.get() >= depth) {
+				return false;
+			}
+			System.arraycopy(iv, 0, slots, (int)(t % depth) * ivSize, ivSize);
+			tail.set(t + 1);
+			return true;
+		}
+	}
+	
+	/**
+	 * The refill task. It refers to the generator through a weak reference,
+	 * so an abandoned generator can still be collected; the task ends when it
+	 * is closed or collected.
+	 */
+	private static final class Refill implements Runnable {
+		
+		private final WeakReference<PrefetchIVGenerator> owner;
+		
+		private final Ring ring;
+		
+		Refill(PrefetchIVGenerator owner, Ring ring) {
+			this.owner = new WeakReference<PrefetchIVGenerator>(owner);
+			this.ring = ring;
+		}
+		
+		@Override
+		public void run() {
+			SecureRandom random = new SecureRandom();
+			byte [] iv = new byte[ring.ivSize];
+			while (!ring.closed && (owner.get() != null)) {
+				random.nextBytes(iv);
+				while (!ring.put(iv)) {
+					LockSupport.parkNanos(this, IDLE_NANOS);
+					if (ring.closed || (owner.get() == null)) {
+						return;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,412 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class re-encrypts large amounts of obfuscated values from one
+ * obfuscator to another, usually when the key or the password is rotated.
+ * 
+ * <p>The values are read from the source in batches that are deobfuscated and
+ * obfuscated again in parallel by a {@link ForkJoinPool}. At most two batches
+ * per worker are in flight at any time, thus the memory usage is bounded
+ * regardless of the size of the dataset. The results are delivered to the
+ * sink in the caller thread, in the same order of the source, and each
+ * intermediate plaintext is shredded as soon as it is obfuscated again.</p>
+ * 
+ * <p>Empty values are copied unchanged, thus blank lines of line oriented
+ * files are preserved. The rotation stops at the first value that cannot be
+ * deobfuscated.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is thread safe as long as both obfuscators are thread safe.
+ * The sink and the progress listener are always called by the thread that
+ * called {@code rotate()}.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class RotationEngine {
+	
+	/**
+	 * The default number of values per batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	
+	/**
+	 * Receives the rotated values.
+	 */
+	public interface Sink {
+		
+		/**
+		 * Receives a rotated value.
+		 * 
+		 * @param index The index of the value in the source.
+		 * @param value The value obfuscated by the target obfuscator.
+		 * @throws IOException If the value cannot be stored.
+		 */
+		public void accept(long index, String value) throws IOException;
+	}
+	
+	/**
+	 * Receives the progress of the rotation.
+	 */
+	public interface ProgressListener {
+		
+		/**
+		 * Called after each batch is delivered to the sink.
+		 * 
+		 * @param processed The number of values processed so far.
+		 * @param elapsedNanos The elapsed time since the start, in nanoseconds.
+		 */
+		public void progress(long processed, long elapsedNanos);
+	}
+	
+	/**
+	 * The statistics of a rotation.
+	 */
+	public static final class Stats {
+		
+		private final long count;
+		
+		private final long elapsedNanos;
+		
+		Stats(long count, long elapsedNanos) {
+			this.count = count;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * Returns the number of values processed.
+		 * 
+		 * @return The number of values.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the elapsed time.
+		 * 
+		 * @return The elapsed time in nanoseconds.
+		 */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+		
+		/**
+		 * Returns the throughput.
+		 * 
+		 * @return The number of values processed per second.
+		 */
+		public double getThroughput() {
+			return (elapsedNanos > 0) ? count * 1e9 / elapsedNanos : 0;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%d values in %.3f s (%.1f values/s)", count, elapsedNanos / 1e9, getThroughput());
+		}
+	}
+	
+	private final StringObfuscator source;
+	
+	private final StringObfuscator target;
+	
+	private final ForkJoinPool pool;
+	
+	private final int batchSize;
+	
+	private volatile ProgressListener listener;
+	
+	/**
+	 * Creates a new instance of this class that uses the common pool and the
+	 * default batch size.
+	 * 
+	 * @param source The obfuscator of the current values.
+	 * @param target The obfuscator of the new values.
+	 */
+	public RotationEngine(StringObfuscator source, StringObfuscator target) {
+		this(source, target, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param source The obfuscator of the current values.
+	 * @param target The obfuscator of the new values.
+	 * @param pool The pool used to execute the tasks.
+	 * @param batchSize The number of values per batch.
+	 */
+	public RotationEngine(StringObfuscator source, StringObfuscator target, ForkJoinPool pool, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be positive.");
+		}
+		this.source = source;
+		this.target = target;
+		this.pool = pool;
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * Sets the progress listener.
+	 * 
+	 * @param listener The listener or null to disable the progress report.
+	 */
+	public void setProgressListener(ProgressListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Rotates all values from the given iterator.
+	 * 
+	 * @param values The current values.
+	 * @param sink The sink of the new values.
+	 * @return The statistics of the rotation.
+	 * @throws StringObfuscatorException If a value cannot be rotated.
+	 * @throws IOException If the sink fails.
+	 */
+	public Stats rotate(Iterator<String> values, Sink sink) throws StringObfuscatorException, IOException {
+		long start = System.nanoTime();
+		int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+		ArrayDeque<Future<String []>> pending = new ArrayDeque<Future<String []>>(maxInFlight);
+		long read = 0;
+		long written = 0;
+		try {
+			while (true) {
+				while ((pending.size() < maxInFlight) && values.hasNext()) {
+					String [] batch = new String[batchSize];
+					int n = 0;
+					while ((n < batchSize) && values.hasNext()) {
+						batch[n++] = values.next();
+					}
+					pending.add(pool.submit(new BatchTask(batch, n, read)));
+					read += n;
+				}
+				Future<String []> next = pending.poll();
+				if (next == null) {
+					break;
+				}
+				for (String value: await(next)) {
+					sink.accept(written++, value);
+				}
+				ProgressListener l = listener;
+				if (l != null) {
+					l.progress(written, System.nanoTime() - start);
+				}
+			}
+		} finally {
+			for (Future<String []> f: pending) {
+				f.cancel(true);
+			}
+		}
+		return new Stats(written, System.nanoTime() - start);
+	}
+	
+	/**
+	 * Rotates a line oriented file. Each line holds one value and each rotated
+	 * value is written in its own line, terminated by '\n'. Neither stream is
+	 * closed by this method.
+	 * 
+	 * @param in The current values.
+	 * @param out The new values.
+	 * @return The statistics of the rotation.
+	 * @throws StringObfuscatorException If a value cannot be rotated.
+	 * @throws IOException In case of I/O error.
+	 */
+	public Stats rotate(BufferedReader in, final Writer out) throws StringObfuscatorException, IOException {
+		try {
+			return rotate(new LineIterator(in), new Sink() {
+				@Override
+				public void accept(long index, String value) throws IOException {
+					out.write(value);
+					out.write('\n');
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Rotates a line oriented file encoded in UTF-8.
+	 * 
+	 * @param in The file with the current values.
+	 * @param out The file that will receive the new values.
+	 * @return The statistics of the rotation.
+	 * @throws StringObfuscatorException If a value cannot be rotated.
+	 * @throws IOException In case of I/O error.
+	 */
+	public Stats rotate(Path in, Path out) throws StringObfuscatorException, IOException {
+		try (BufferedReader reader = Files.newBufferedReader(in, StandardCharsets.UTF_8);
+				Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+			return rotate(reader, writer);
+		}
+	}
+	
+	private static String [] await(Future<String []> future) throws StringObfuscatorException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StringObfuscatorException("Interrupted.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof BatchException) {
+				throw ((BatchException)cause).getCause();
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			} else {
+				throw new StringObfuscatorException(cause.getMessage(), cause);
+			}
+		}
+	}
+	
+	/**
+	 * Wraps the exceptions thrown by the tasks.
+	 */
+	private static class BatchException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public BatchException(StringObfuscatorException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized StringObfuscatorException getCause() {
+			return (StringObfuscatorException)super.getCause();
+		}
+	}
+	
+	/**
+	 * Rotates a single batch.
+	 */
+	private class BatchTask extends RecursiveTask<String []> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final String [] values;
+		
+		private final int size;
+		
+		private final long first;
+		
+		public BatchTask(String [] values, int size, long first) {
+			this.values = values;
+			this.size = size;
+			this.first = first;
+		}
+
+		@Override
+		protected String[] compute() {
+			String [] ret = new String[size];
+			for (int i = 0; i < size; i++) {
+				String value = values[i];
+				if (value.isEmpty()) {
+					ret[i] = value;
+					continue;
+				}
+				char [] plain = null;
+				try {
+					plain = source.deobfuscate(value);
+					ret[i] = target.obfuscate(plain);
+				} catch (StringObfuscatorException e) {
+					throw new BatchException(new StringObfuscatorException("Unable to rotate the value " + (first + i) + ".", e));
+				} finally {
+					Shredder.shred(plain);
+				}
+			}
+			return ret;
+		}
+	}
+	
+	/**
+	 * Iterates over the lines of a reader.
+	 */
+	private static class LineIterator implements Iterator<String> {
+		
+		private final BufferedReader in;
+		
+		private String next;
+		
+		private boolean done;
+		
+		public LineIterator(BufferedReader in) {
+			this.in = in;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if ((next == null) && !done) {
+				try {
+					next = in.readLine();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				done = (next == null);
+			}
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String ret = next;
+			next = null;
+			return ret;
+		}
+	}
+}
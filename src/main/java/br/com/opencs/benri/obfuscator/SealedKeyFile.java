@@ -0,0 +1,309 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This class reads and writes sealed key files. A sealed key file holds a key
+ * already derived from the password, encrypted with AES-256-GCM under a
+ * separate key encryption key (KEK). Loading it skips the expensive key
+ * derivation performed by {@link StringObfuscatorImpl}, thus it is useful for
+ * short lived processes that start often.
+ * 
+ * <h2>File format</h2>
+ * 
+ * <pre>
+ * magic   : 4 bytes, always "BKF1" in ASCII
+ * iv      : 16 bytes
+ * key     : encrypted key material (32 bytes for AES-256)
+ * tag     : 16 bytes
+ * </pre>
+ * 
+ * <p>The magic is used as the additional authenticated data, thus any change
+ * to the file is detected. The KEK is usually kept inside a key store (see
+ * {@link #loadKEK(File, String, char[], String, char[])}) and the files can
+ * be created at build or deploy time with {@link SealedKeyTool}.</p>
+ * 
+ * <p>The key file must be protected just like the password itself because
+ * anyone with access to the file and to the KEK can recover the key. Because
+ * of that, {@link #save(File, byte[], int, char[], SecretKey)} creates the
+ * file readable and writable only by its owner (rw-------) on file systems
+ * that support POSIX permissions. On other file systems, it only removes the
+ * read and write permissions of the other users on a best effort basis, thus
+ * the directory that holds the file must be protected accordingly.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public final class SealedKeyFile {
+	
+	/**
+	 * The magic of the sealed key file. Always "BKF1".
+	 */
+	public static final String MAGIC = "BKF1";
+	
+	private static final byte [] MAGIC_BYTES = MAGIC.getBytes(StandardCharsets.US_ASCII);
+	private static final int IV_SIZE = 16;
+	private static final int TAG_SIZE = 128;
+	private static final int MAX_FILE_SIZE = 1024;
+	private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+	
+	private SealedKeyFile() {
+	}
+	
+	/**
+	 * Writes a sealed key file with the given key.
+	 * 
+	 * @param out The output stream. It is not closed by this method.
+	 * @param key The key to be sealed.
+	 * @param kek The key encryption key. It must be an AES key.
+	 * @throws IOException In case of I/O error.
+	 * @throws GeneralSecurityException If the encryption fails.
+	 */
+	public static void write(OutputStream out, SecretKey key, SecretKey kek) throws IOException, GeneralSecurityException {
+		byte [] raw = key.getEncoded();
+		byte [] sealed = null;
+		try {
+			byte [] iv = new byte[IV_SIZE];
+			new SecureRandom().nextBytes(iv);
+			Cipher cipher = Cipher.getInstance(StringObfuscatorImpl.CIPHER_ALG_FULL);
+			cipher.init(Cipher.ENCRYPT_MODE, kek, new GCMParameterSpec(TAG_SIZE, iv));
+			cipher.updateAAD(MAGIC_BYTES);
+			sealed = cipher.doFinal(raw);
+			out.write(MAGIC_BYTES);
+			out.write(iv);
+			out.write(sealed);
+			out.flush();
+		} finally {
+			Shredder.shred(raw);
+			Shredder.shred(sealed);
+		}
+	}
+
+	/**
+	 * Derives the key from the PBE parameters and writes it into a sealed key
+	 * file. The key is the same derived by
+	 * {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], int, char[])}.
+	 * 
+	 * @param out The output stream. It is not closed by this method.
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @param kek The key encryption key. It must be an AES key.
+	 * @throws IOException In case of I/O error.
+	 * @throws GeneralSecurityException If the key derivation or the encryption fails.
+	 */
+	public static void write(OutputStream out, byte [] salt, int iterations, char [] password, SecretKey kek) throws IOException, GeneralSecurityException {
+		byte [] raw = null;
+		DestroyableSecretKey key = null;
+		try {
+			raw = StringObfuscatorImpl.generateKey(salt, iterations, password, StringObfuscatorImpl.CIPHER_KEY_SIZE);
+			key = new DestroyableSecretKey(raw, StringObfuscatorImpl.CIPHER_ALG);
+			write(out, key, kek);
+		} finally {
+			Shredder.shred(raw);
+			if (key != null) {
+				key.destroy();
+			}
+		}
+	}
+	
+	/**
+	 * Reads the key from a sealed key file.
+	 * 
+	 * @param in The input stream. It is not closed by this method.
+	 * @param kek The key encryption key.
+	 * @return The key. It can be destroyed by the caller once it is no longer
+	 * necessary.
+	 * @throws IOException In case of I/O error.
+	 * @throws StringObfuscatorException If the file is invalid or the KEK is wrong.
+	 */
+	public static SecretKey read(InputStream in, SecretKey kek) throws IOException, StringObfuscatorException {
+		byte [] file = readAll(in);
+		byte [] raw = null;
+		try {
+			if (file.length <= MAGIC_BYTES.length + IV_SIZE + TAG_SIZE / 8) {
+				throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+			}
+			for (int i = 0; i < MAGIC_BYTES.length; i++) {
+				if (file[i] != MAGIC_BYTES[i]) {
+					throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+				}
+			}
+			Cipher cipher = Cipher.getInstance(StringObfuscatorImpl.CIPHER_ALG_FULL);
+			cipher.init(Cipher.DECRYPT_MODE, kek, new GCMParameterSpec(TAG_SIZE, file, MAGIC_BYTES.length, IV_SIZE));
+			cipher.updateAAD(MAGIC_BYTES);
+			int offset = MAGIC_BYTES.length + IV_SIZE;
+			raw = cipher.doFinal(file, offset, file.length - offset);
+			return new DestroyableSecretKey(raw, StringObfuscatorImpl.CIPHER_ALG);
+		} catch (AEADBadTagException e) {
+			throw new StringObfuscatorException(FailureReason.AUTHENTICATION, "Invalid format/key.");
+		} catch (GeneralSecurityException e) {
+			throw new StringObfuscatorException(e.getMessage(), e);
+		} finally {
+			Shredder.shred(file);
+			Shredder.shred(raw);
+		}
+	}
+	
+	/**
+	 * Writes a sealed key file with the key derived from the PBE parameters.
+	 * The file is created with owner only permissions (rw-------) when the
+	 * file system supports POSIX permissions. If it already exists, its
+	 * permissions are restricted before the key is written.
+	 * 
+	 * @param file The file.
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @param kek The key encryption key. It must be an AES key.
+	 * @throws IOException In case of I/O error.
+	 * @throws GeneralSecurityException If the key derivation or the encryption fails.
+	 */
+	public static void save(File file, byte [] salt, int iterations, char [] password, SecretKey kek) throws IOException, GeneralSecurityException {
+		try (OutputStream out = createPrivate(file.toPath())) {
+			write(out, salt, iterations, password, kek);
+		}
+	}
+	
+	/**
+	 * Creates or truncates the given file, making it accessible only by its
+	 * owner.
+	 * 
+	 * @param path The path of the file.
+	 * @return The output stream.
+	 * @throws IOException In case of I/O error.
+	 */
+	private static OutputStream createPrivate(Path path) throws IOException {
+		Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			if (Files.exists(path)) {
+				// The attribute below only applies to new files
+				Files.setPosixFilePermissions(path, OWNER_ONLY);
+			}
+			return Channels.newOutputStream(Files.newByteChannel(path, options,
+					PosixFilePermissions.asFileAttribute(OWNER_ONLY)));
+		} else {
+			OutputStream out = Channels.newOutputStream(Files.newByteChannel(path, options));
+			File file = path.toFile();
+			file.setReadable(false, false);
+			file.setWritable(false, false);
+			file.setReadable(true, true);
+			file.setWritable(true, true);
+			return out;
+		}
+	}
+	
+	/**
+	 * Creates a new obfuscator with the key stored in a sealed key file.
+	 * 
+	 * @param file The file.
+	 * @param kek The key encryption key.
+	 * @return The new obfuscator.
+	 * @throws IOException In case of I/O error.
+	 * @throws StringObfuscatorException If the file is invalid or the KEK is wrong.
+	 */
+	public static StringObfuscatorImpl load(File file, SecretKey kek) throws IOException, StringObfuscatorException {
+		try (InputStream in = new FileInputStream(file)) {
+			return new StringObfuscatorImpl(read(in, kek));
+		}
+	}
+	
+	/**
+	 * Loads the key encryption key from a key store.
+	 * 
+	 * @param keyStore The key store file.
+	 * @param type The type of the key store, for example "PKCS12".
+	 * @param storePassword The password of the key store.
+	 * @param alias The alias of the key.
+	 * @param keyPassword The password of the key.
+	 * @return The key encryption key.
+	 * @throws IOException In case of I/O error.
+	 * @throws GeneralSecurityException If the key store cannot be loaded or the
+	 * key is not a secret key.
+	 */
+	public static SecretKey loadKEK(File keyStore, String type, char [] storePassword, String alias, char [] keyPassword) throws IOException, GeneralSecurityException {
+		KeyStore ks = KeyStore.getInstance(type);
+		try (InputStream in = new FileInputStream(keyStore)) {
+			ks.load(in, storePassword);
+		}
+		Key key = ks.getKey(alias, keyPassword);
+		if (!(key instanceof SecretKey)) {
+			throw new GeneralSecurityException("The key '" + alias + "' is not a secret key.");
+		}
+		return (SecretKey)key;
+	}
+	
+	private static byte [] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+		byte [] buff = new byte[128];
+		try {
+			int r;
+			while ((r = in.read(buff)) >= 0) {
+				out.write(buff, 0, r);
+				if (out.size() > MAX_FILE_SIZE) {
+					throw new IOException("The key file is too large.");
+				}
+			}
+			return out.toByteArray();
+		} finally {
+			Shredder.shred(buff);
+		}
+	}
+}
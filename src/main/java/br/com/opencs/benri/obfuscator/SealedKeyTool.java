@@ -0,0 +1,165 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.io.BufferedReader;
+import java.io.Console;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+import javax.crypto.SecretKey;
+
+import br.com.opencs.benri.util.Shredder;
+
+/**
+ * This is the command line tool that creates sealed key files (see
+ * {@link SealedKeyFile}) at build or deploy time. Usage:
+ * 
+ * <pre>
+ * java -cp benri.jar br.com.opencs.benri.obfuscator.SealedKeyTool \
+ *     -keystore &lt;file&gt; [-storetype PKCS12] -alias &lt;alias&gt; \
+ *     -salt &lt;base64&gt; [-iterations 10000] -out &lt;file&gt;
+ * </pre>
+ * 
+ * <p>The password of the key store and the PBE password are read from the
+ * console or, if there is no console, from the standard input, one per line.
+ * The KEK is expected to be protected by the password of the key store, as
+ * usual for PKCS12 key stores.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public final class SealedKeyTool {
+	
+	private static final String USAGE = "Usage: SealedKeyTool -keystore <file> [-storetype PKCS12] -alias <alias> "
+			+ "-salt <base64> [-iterations 10000] -out <file>";
+	
+	private SealedKeyTool() {
+	}
+	
+	public static void main(String[] args) {
+		Console console = System.console();
+		BufferedReader in = null;
+		if (console == null) {
+			in = new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()));
+		}
+		System.exit(run(args, in, System.err));
+	}
+	
+	/**
+	 * Executes the tool.
+	 * 
+	 * @param args The arguments.
+	 * @param in The source of the passwords. If null, they are read from the console.
+	 * @param err The output of the messages.
+	 * @return The exit code.
+	 */
+	static int run(String [] args, BufferedReader in, PrintStream err) {
+		String keyStore = null;
+		String storeType = "PKCS12";
+		String alias = null;
+		byte [] salt = null;
+		int iterations = 10000;
+		String out = null;
+		try {
+			for (int i = 0; i < args.length; i += 2) {
+				if (i + 1 >= args.length) {
+					throw new IllegalArgumentException("Missing value for " + args[i] + ".");
+				}
+				String value = args[i + 1];
+				switch (args[i]) {
+				case "-keystore":
+					keyStore = value;
+					break;
+				case "-storetype":
+					storeType = value;
+					break;
+				case "-alias":
+					alias = value;
+					break;
+				case "-salt":
+					salt = Base64.getDecoder().decode(value);
+					break;
+				case "-iterations":
+					iterations = Integer.parseInt(value);
+					break;
+				case "-out":
+					out = value;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+				}
+			}
+			if ((keyStore == null) || (alias == null) || (salt == null) || (out == null)) {
+				throw new IllegalArgumentException("Missing required option.");
+			}
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return 2;
+		}
+		
+		char [] storePassword = null;
+		char [] password = null;
+		try {
+			storePassword = readPassword(in, "Key store password: ");
+			password = readPassword(in, "Password: ");
+			if ((storePassword == null) || (password == null)) {
+				err.println("Unable to read the passwords.");
+				return 2;
+			}
+			SecretKey kek = SealedKeyFile.loadKEK(new File(keyStore), storeType, storePassword, alias, storePassword);
+			SealedKeyFile.save(new File(out), salt, iterations, password, kek);
+			return 0;
+		} catch (IOException | GeneralSecurityException e) {
+			err.println("Unable to create the key file: " + e.getMessage());
+			return 1;
+		} finally {
+			Shredder.shred(storePassword);
+			Shredder.shred(password);
+		}
+	}
+	
+	private static char [] readPassword(BufferedReader in, String prompt) throws IOException {
+		if (in == null) {
+			return System.console().readPassword("%s", prompt);
+		} else {
+			String line = in.readLine();
+			return (line != null) ? line.toCharArray() : null;
+		}
+	}
+}
@@ -31,6 +31,11 @@
  */
 package br.com.opencs.benri.obfuscator;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import br.com.opencs.benri.util.Shredder;
+
 /**
  * This is the interface shared by all String obfuscators implemented by
  * this library.
@@ -57,4 +62,53 @@ public interface StringObfuscator {
 	 * @throws StringObfuscatorException In case of error.
 	 */	
 	public char [] deobfuscate(String obfuscated) throws StringObfuscatorException;
+
+	/**
+	 * Obfuscates a batch of strings. The default implementation just calls
+	 * {@link #obfuscate(char[])} for each value but implementations are
+	 * encouraged to amortize the setup costs across the batch.
+	 * 
+	 * @param values The original strings.
+	 * @return The obfuscated strings in the same order.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public default List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		List<String> ret = new ArrayList<String>(values.size());
+		for (char [] value: values) {
+			ret.add(obfuscate(value));
+		}
+		return ret;
+	}
+
+	/**
+	 * Deobfuscates a batch of strings. The default implementation just calls
+	 * {@link #deobfuscate(String)} for each value but implementations are
+	 * encouraged to amortize the setup costs across the batch.
+	 * 
+	 * <p>If any of the values fails, all values already deobfuscated are
+	 * shredded before the exception is thrown.</p>
+	 * 
+	 * @param values The obfuscated strings.
+	 * @return The original strings in the same order.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public default List<char[]> deobfuscateAll(List<String> values) throws StringObfuscatorException {
+		List<char[]> ret = new ArrayList<char[]>(values.size());
+		boolean success = false;
+		try {
+			for (String value: values) {
+				ret.add(deobfuscate(value));
+			}
+			success = true;
+			return ret;
+		} finally {
+			if (!success) {
+				for (char [] value: ret) {
+					Shredder.shred(value);
+				}
+			}
+		}
+	}
 }
@@ -33,6 +33,7 @@ package br.com.opencs.benri.obfuscator;
 
 /**
  * This is the base exception used to report all errors generated by this package.
+ * The cause of the error is classified by {@link #getReason()}.
  * 
  * @author Fabio Jun Takada Chino
  * @since 2021.06.28
@@ -40,25 +41,62 @@ package br.com.opencs.benri.obfuscator;
 public class StringObfuscatorException extends Exception {
 
 	private static final long serialVersionUID = 1L;
+	
+	private final FailureReason reason;
 
 	public StringObfuscatorException() {
 		super();
+		this.reason = FailureReason.OTHER;
 	}
 
 	public StringObfuscatorException(String message, Throwable cause, boolean enableSuppression,
 			boolean writableStackTrace) {
 		super(message, cause, enableSuppression, writableStackTrace);
+		this.reason = FailureReason.OTHER;
 	}
 
 	public StringObfuscatorException(String message, Throwable cause) {
-		super(message, cause);
+		this(FailureReason.OTHER, message, cause);
 	}
 
 	public StringObfuscatorException(String message) {
-		super(message);
+		this(FailureReason.OTHER, message);
 	}
 
 	public StringObfuscatorException(Throwable cause) {
 		super(cause);
+		this.reason = FailureReason.OTHER;
+	}
+
+	/**
+	 * @param reason The reason of the failure.
+	 * @param message The message.
+	 * @since 2026.10.17
+	 */
+	public StringObfuscatorException(FailureReason reason, String message) {
+		super(message);
+		this.reason = reason;
+	}
+
+	/**
+	 * @param reason The reason of the failure.
+	 * @param message The message.
+	 * @param cause The cause.
+	 * @since 2026.10.17
+	 */
+	public StringObfuscatorException(FailureReason reason, String message, Throwable cause) {
+		super(message, cause);
+		this.reason = reason;
+	}
+	
+	/**
+	 * Returns the reason of the failure.
+	 * 
+	 * @return The reason. It is {@link FailureReason#OTHER} if the reason is
+	 * not known.
+	 * @since 2026.10.17
+	 */
+	public FailureReason getReason() {
+		return reason;
 	}
 }
@@ -0,0 +1,364 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import br.com.opencs.benri.util.Shredder;
+import br.com.opencs.benri.util.UTF8;
+
+/**
+ * This class creates instances of {@link StringObfuscatorImpl} and caches
+ * their derived keys, thus all modules of the application that use the same
+ * salt, number of iterations and password share the same obfuscator and pay
+ * the cost of the key derivation only once.
+ * 
+ * <p>The cache is indexed by the salt, the number of iterations and a
+ * fingerprint of the password. The fingerprint is computed with HMAC-SHA256
+ * using a random key that never leaves the instance, thus the cache never
+ * holds the password itself or a value that could be used to test password
+ * guesses outside of the process.</p>
+ * 
+ * <p>The obfuscators are kept by weak references. Once an obfuscator is no
+ * longer used by the application, its entry is evicted and its key material
+ * is shredded. Because of that, the obfuscators returned by this class should
+ * be kept by the caller as long as they are needed. The streams, readers and
+ * writers created by an obfuscator keep it reachable until they are no longer
+ * used themselves.</p>
+ * 
+ * <p>Only the key held by the obfuscator is shredded. Each thread that used
+ * the obfuscator also has its own {@link javax.crypto.Cipher}, which holds
+ * the expanded key internally. The JCE has no way to scrub it. Those ciphers
+ * stay in the thread local maps of their threads until the stale entries
+ * are purged by the JVM or the threads end, so the eviction does not remove
+ * every copy of the key from the memory.</p>
+ * 
+ * <p>The key derivation can also run in background using
+ * {@link #getAsync(byte[], int, char[])} or
+ * {@link #getLazy(byte[], int, char[])}, thus the initialization of the
+ * application is not delayed by it.</p>
+ * 
+ * <h2>Thread safety</h2>
+ * 
+ * <p>This class is thread safe. The derivation of distinct keys may run in
+ * parallel while concurrent requests for the same key wait for a single
+ * derivation.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class StringObfuscatorFactory {
+	
+	private static final StringObfuscatorFactory DEFAULT = new StringObfuscatorFactory();
+	
+	private static final String FINGERPRINT_ALG = "HmacSHA256";
+	
+	private static final int LOCK_STRIPES = 32;
+	
+	private final ConcurrentHashMap<CacheKey, Entry> cache = new ConcurrentHashMap<CacheKey, Entry>();
+	
+	private final ReferenceQueue<StringObfuscatorImpl> queue = new ReferenceQueue<StringObfuscatorImpl>();
+	
+	private final ReentrantLock [] locks = new ReentrantLock[LOCK_STRIPES];
+	
+	private final byte [] fingerprintKey = new byte[32];
+	
+	private final KeyDerivationFunction kdf;
+	
+	/**
+	 * Creates a new instance of this class. Most applications should use the
+	 * shared instance returned by {@link #getDefault()}.
+	 */
+	public StringObfuscatorFactory() {
+		this(StringObfuscatorImpl.DEFAULT_KDF);
+	}
+
+	/**
+	 * Creates a new instance of this class with a custom key derivation
+	 * function.
+	 * 
+	 * @param kdf The key derivation function. It must be thread safe.
+	 */
+	public StringObfuscatorFactory(KeyDerivationFunction kdf) {
+		this.kdf = kdf;
+		new SecureRandom().nextBytes(fingerprintKey);
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+	
+	/**
+	 * Returns the process wide instance of this class.
+	 * 
+	 * @return The default instance.
+	 */
+	public static StringObfuscatorFactory getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the obfuscator for the given parameters. By default, it sets the
+	 * number of iterations to 10,000, just like
+	 * {@link StringObfuscatorImpl#StringObfuscatorImpl(byte[], char[])}.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param password The PBE password.
+	 * @return The shared obfuscator.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 */
+	public StringObfuscatorImpl get(byte [] salt, char [] password) throws StringObfuscatorException, GeneralSecurityException {
+		return get(salt, 10000, password);
+	}
+
+	/**
+	 * Returns the obfuscator for the given parameters. The key is derived only
+	 * if there is no live obfuscator for the same parameters.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @return The shared obfuscator.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 */
+	public StringObfuscatorImpl get(byte [] salt, int iterations, char [] password) throws StringObfuscatorException, GeneralSecurityException {
+		CacheKey cacheKey = new CacheKey(salt, iterations, fingerprint(password));
+		expunge();
+		
+		// Fast path
+		StringObfuscatorImpl ret = lookup(cacheKey);
+		if (ret != null) {
+			return ret;
+		}
+		
+		ReentrantLock lock = locks[(cacheKey.hashCode() & 0x7FFFFFFF) % locks.length];
+		lock.lock();
+		try {
+			ret = lookup(cacheKey);
+			if (ret == null) {
+				byte [] raw = null;
+				try {
+					raw = kdf.deriveKey(salt, iterations, password, StringObfuscatorImpl.CIPHER_KEY_SIZE);
+					DestroyableSecretKey key = new DestroyableSecretKey(raw, StringObfuscatorImpl.CIPHER_ALG);
+					ret = new StringObfuscatorImpl(key);
+					Entry old = cache.put(cacheKey, new Entry(ret, cacheKey, key, queue));
+					if (old != null) {
+						old.destroy();
+					}
+				} finally {
+					Shredder.shred(raw);
+				}
+			}
+			return ret;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the obfuscator for the given parameters, deriving its key in
+	 * background using the common {@link ForkJoinPool}. The derivations of
+	 * distinct keys run in parallel.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password. It is copied, thus the caller may shred it
+	 * as soon as this method returns.
+	 * @return The future that provides the shared obfuscator.
+	 */
+	public CompletableFuture<StringObfuscatorImpl> getAsync(byte [] salt, int iterations, char [] password) {
+		return getAsync(salt, iterations, password, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the obfuscator for the given parameters, deriving its key in
+	 * background using the given executor.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password. It is copied, thus the caller may shred it
+	 * as soon as this method returns.
+	 * @param executor The executor that will run the key derivation.
+	 * @return The future that provides the shared obfuscator.
+	 */
+	public CompletableFuture<StringObfuscatorImpl> getAsync(byte [] salt, int iterations, char [] password, Executor executor) {
+		final byte [] saltCopy = salt.clone();
+		final char [] passwordCopy = password.clone();
+		final CompletableFuture<StringObfuscatorImpl> ret = new CompletableFuture<StringObfuscatorImpl>();
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						ret.complete(get(saltCopy, iterations, passwordCopy));
+					} catch (Throwable e) {
+						ret.completeExceptionally(e);
+					} finally {
+						Shredder.shred(passwordCopy);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			Shredder.shred(passwordCopy);
+			ret.completeExceptionally(e);
+		}
+		return ret;
+	}
+	
+	/**
+	 * Returns an obfuscator that derives its key in background and blocks only
+	 * on its first use. It is useful to start the key derivation as early as
+	 * possible without delaying the initialization of the application.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password. It is copied, thus the caller may shred it
+	 * as soon as this method returns.
+	 * @return The lazy obfuscator.
+	 */
+	public LazyStringObfuscator getLazy(byte [] salt, int iterations, char [] password) {
+		return new LazyStringObfuscator(getAsync(salt, iterations, password));
+	}
+	
+	/**
+	 * Returns the number of keys currently cached.
+	 * 
+	 * @return The number of entries.
+	 */
+	public int size() {
+		expunge();
+		return cache.size();
+	}
+	
+	private StringObfuscatorImpl lookup(CacheKey cacheKey) {
+		Entry e = cache.get(cacheKey);
+		return (e != null) ? e.get() : null;
+	}
+	
+	/**
+	 * Evicts the entries of the obfuscators that are no longer used and shreds
+	 * their keys.
+	 */
+	private void expunge() {
+		Object ref;
+		while ((ref = queue.poll()) != null) {
+			Entry e = (Entry)ref;
+			cache.remove(e.cacheKey, e);
+			e.destroy();
+		}
+	}
+	
+	private byte [] fingerprint(char [] password) throws GeneralSecurityException {
+		byte [] tmp = new byte[password.length * UTF8.MAX_BYTES_PER_CHAR];
+		try {
+			int size = UTF8.encode(password, 0, password.length, tmp, 0);
+			Mac mac = Mac.getInstance(FINGERPRINT_ALG);
+			mac.init(new SecretKeySpec(fingerprintKey, FINGERPRINT_ALG));
+			mac.update(tmp, 0, size);
+			return mac.doFinal();
+		} finally {
+			Shredder.shred(tmp);
+		}
+	}
+
+	/**
+	 * The key of the cache.
+	 */
+	private static final class CacheKey {
+		
+		private final byte [] salt;
+		
+		private final int iterations;
+		
+		private final byte [] fingerprint;
+		
+		private final int hash;
+		
+		public CacheKey(byte [] salt, int iterations, byte [] fingerprint) {
+			this.salt = salt.clone();
+			this.iterations = iterations;
+			this.fingerprint = fingerprint;
+			this.hash = (Arrays.hashCode(salt) * 31 + iterations) * 31 + Arrays.hashCode(fingerprint);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey other = (CacheKey)obj;
+			return (iterations == other.iterations) && Arrays.equals(salt, other.salt) &&
+					Arrays.equals(fingerprint, other.fingerprint);
+		}
+	}
+	
+	/**
+	 * The entry of the cache. It holds the key material strongly and the
+	 * obfuscator weakly.
+	 */
+	private static final class Entry extends WeakReference<StringObfuscatorImpl> {
+		
+		private final CacheKey cacheKey;
+		
+		private final DestroyableSecretKey key;
+
+		public Entry(StringObfuscatorImpl referent, CacheKey cacheKey, DestroyableSecretKey key,
+				ReferenceQueue<? super StringObfuscatorImpl> q) {
+			super(referent, q);
+			this.cacheKey = cacheKey;
+			this.key = key;
+		}
+		
+		public void destroy() {
+			key.destroy();
+		}
+	}
+}
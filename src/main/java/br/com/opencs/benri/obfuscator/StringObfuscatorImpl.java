@@ -31,22 +31,31 @@
  */
 package br.com.opencs.benri.obfuscator;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
-import java.security.SecureRandom;
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 
 import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
+import br.com.opencs.benri.util.Base64URL;
 import br.com.opencs.benri.util.Shredder;
+import br.com.opencs.benri.util.UTF8;
 
 /**
  * This class implements a very simple String obfuscator loosely based on the
@@ -77,12 +86,53 @@ import br.com.opencs.benri.util.Shredder;
  * distinct application, thus the reveal of those values for a given application
  * will not immediately compromise other applications.</p>
  * 
+ * <h2>Allocation free obfuscation</h2>
+ * 
+ * <p>The methods {@code obfuscateTo()} write the obfuscated string directly into
+ * a caller supplied array, {@link StringBuilder} or {@link Appendable}. Combined
+ * with the work buffers kept per thread, they avoid all allocations besides
+ * the ones performed by the cryptographic provider. The methods
+ * {@link #outputLength(int)} and {@link #maxOutputLength(int)} can be used to
+ * size the output.</p>
+ * 
+ * <p>In the same way, {@link #deobfuscateInto(CharSequence, char[])} writes the
+ * plaintext directly into a caller supplied array and
+ * {@link #withPlaintext(String, CharConsumer)} lends a buffer that is shredded
+ * as soon as the callback returns, thus the plaintext never spreads across
+ * short lived arrays.</p>
+ * 
+ * <h2>Binary format</h2>
+ * 
+ * <p>Values that are stored as binary data can use {@link #seal(byte[])} and
+ * {@link #open(byte[])} (or their {@link ByteBuffer} counterparts) instead. They
+ * skip the Base64 encoding and produce exactly the obfuscated string decoded
+ * from Base64, thus both formats can be converted into each other.</p>
+ * 
+ * <h2>Large payloads</h2>
+ * 
+ * <p>Large payloads can be obfuscated using the streams created by
+ * {@link #createOutputStream(OutputStream)} and {@link #createInputStream(InputStream)}
+ * (or their {@link Writer}/{@link Reader} counterparts). They use a segmented
+ * format that requires a constant amount of memory regardless of the size of
+ * the payload.</p>
+ * 
  * <h2>Performance</h2>
  * 
  * <p>The obfuscation and deobfuscation operations are very fast and can be used
  * repeatedly with no problems. However, the initialization procedure (constructor)
  * can be very slow. Because of that, it is strongly recommended to avoid the
- * construction of this class as much as possible.</p>
+ * construction of this class as much as possible. {@link StringObfuscatorFactory}
+ * can be used to share the instances (and their derived keys) among all modules
+ * of the application.</p>
+ * 
+ * <p>Each thread that uses an instance of this class keeps its own {@link Cipher}
+ * instance bound to the key of this instance. It is only re-initialized with a new
+ * IV on each call, thus avoiding the provider lookup and the key schedule.</p>
+ * 
+ * <p>The IVs are generated by an {@link IVGenerator}. The default one,
+ * {@link DefaultIVGenerator}, keeps one {@link java.security.SecureRandom} per
+ * thread, thus concurrent calls to {@link #obfuscate(char[])} never contend for a
+ * shared lock.</p>
  * 
  * <h2>Thread safety</h2>
  * 
@@ -99,16 +149,45 @@ public class StringObfuscatorImpl implements StringObfuscator {
 	public static final String HEADER = "GCM1";
 	
 	private static final Charset CHARSET = Charset.forName("utf-8");
-	private static final int TAG_SIZE = 128;
-	private static final int CIPHER_KEY_SIZE = 256;
+	static final int CIPHER_KEY_SIZE = 256;
 	private static final int CIPHER_BLOCK_SIZE = 128;
-	private static final String PBE_ALG = "PBKDF2WithHmacSHA256";
-	private static final String CIPHER_ALG = "AES";
-	private static final String CIPHER_ALG_FULL = CIPHER_ALG + "/GCM/PKCS5Padding";
+	static final String CIPHER_ALG = "AES";
+	static final String CIPHER_ALG_FULL = CIPHER_ALG + "/GCM/NoPadding";
+	private static final int IV_SIZE = CIPHER_BLOCK_SIZE / 8;
+	static final IVGenerator DEFAULT_IV_GENERATOR = new DefaultIVGenerator();
+	static final KeyDerivationFunction DEFAULT_KDF = new JCEKeyDerivationFunction();
+	
+	/**
+	 * Size, in bytes or characters, from which the strings are encoded and
+	 * decoded by {@link java.util.Base64}. Recent JVMs vectorize it, thus
+	 * for large values it is faster than {@link Base64URL} despite the
+	 * temporary arrays. Those arrays hold only the obfuscated value.
+	 */
+	static final int JDK_CODEC_THRESHOLD = 512;
+	private static final Base64.Encoder PADDED_ENCODER = Base64.getUrlEncoder();
+	private static final Base64.Encoder UNPADDED_ENCODER = Base64.getUrlEncoder().withoutPadding();
 
 	private SecretKey cipherKey;
 	
-	private SecureRandom random = new SecureRandom();
+	/**
+	 * Cipher instances and work buffers bound to the current thread. They are
+	 * reused by all operations performed by the thread and the cipher is
+	 * re-initialized with the new parameters on each call. The ciphers keep
+	 * the expanded key, which cannot be scrubbed, until they are collected.
+	 */
+	private final Workspaces workspaces;
+	
+	private final IVGenerator ivGenerator;
+	
+	/**
+	 * The format written by this instance.
+	 */
+	private final CipherFormat format;
+	
+	/**
+	 * The format that is also accepted by this instance, if any.
+	 */
+	private final CipherFormat legacyFormat;
 	
 	/**
 	 * Creates a new instance of this class. By default, it sets the number of iterations to 10,000.
@@ -132,22 +211,124 @@ public class StringObfuscatorImpl implements StringObfuscator {
 	 * @throws GeneralSecurityException If the encryption operations are not supported.
 	 */
 	public StringObfuscatorImpl(byte [] salt, int iterations, char [] password) throws StringObfuscatorException, GeneralSecurityException {
-		generateKeys(salt, iterations, password);
+		this(salt, iterations, password, DEFAULT_IV_GENERATOR);
 	}
 
-	private byte [] createIv() {
-		byte [] salt = new byte[CIPHER_BLOCK_SIZE / 8];
-		synchronized (random) {
-			random.nextBytes(salt);
+	/**
+	 * Creates a new instance of this class with a custom IV generator.
+	 * 
+	 * @param salt The PBE salt. It is recommended to have at least 32 bytes.
+	 * @param iterations The number of iterations for PBE. Set it to a higher value to make the password derivation more expensive. 
+	 * @param password The PBE password. It should be as long as possible.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 * @since 2026.10.17
+	 */
+	public StringObfuscatorImpl(byte [] salt, int iterations, char [] password, IVGenerator ivGenerator) throws StringObfuscatorException, GeneralSecurityException {
+		this(salt, iterations, password, ivGenerator, DEFAULT_KDF);
+	}
+
+	/**
+	 * Creates a new instance of this class with a custom IV generator and a
+	 * custom key derivation function.
+	 * 
+	 * @param salt The PBE salt. It is recommended to have at least 32 bytes.
+	 * @param iterations The number of iterations for PBE. Set it to a higher value to make the password derivation more expensive. 
+	 * @param password The PBE password. It should be as long as possible.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @param kdf The key derivation function. The other constructors use
+	 * {@link JCEKeyDerivationFunction}; {@link PBKDF2HmacSHA256} can be used here
+	 * when no JCA provider of PBKDF2WithHmacSHA256 is available.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 * @since 2026.10.17
+	 */
+	public StringObfuscatorImpl(byte [] salt, int iterations, char [] password, IVGenerator ivGenerator, KeyDerivationFunction kdf) throws StringObfuscatorException, GeneralSecurityException {
+		this(salt, iterations, password, ivGenerator, kdf, CipherFormat.GCM1);
+	}
+
+	/**
+	 * Creates a new instance of this class that writes the given format.
+	 * 
+	 * @param salt The PBE salt.
+	 * @param iterations The number of iterations for PBE.
+	 * @param password The PBE password.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @param kdf The key derivation function.
+	 * @param format The format.
+	 * @throws StringObfuscatorException In case of errors in the initialization.
+	 * @throws GeneralSecurityException If the encryption operations are not supported.
+	 */
+	StringObfuscatorImpl(byte [] salt, int iterations, char [] password, IVGenerator ivGenerator, KeyDerivationFunction kdf, CipherFormat format) throws StringObfuscatorException, GeneralSecurityException {
+		this.ivGenerator = ivGenerator;
+		this.format = format;
+		this.legacyFormat = format.legacy();
+		this.workspaces = new Workspaces(format);
+		generateKeys(salt, iterations, password, kdf);
+	}
+
+	/**
+	 * Creates a new instance of this class with an already derived key. It
+	 * skips the slow key derivation performed by the other constructors.
+	 * 
+	 * @param key The AES key with {@value #CIPHER_KEY_SIZE} bits.
+	 * @since 2026.10.17
+	 */
+	public StringObfuscatorImpl(SecretKey key) {
+		this(key, DEFAULT_IV_GENERATOR);
+	}
+
+	/**
+	 * Creates a new instance of this class with an already derived key and a
+	 * custom IV generator. It skips the slow key derivation performed by the
+	 * other constructors.
+	 * 
+	 * @param key The AES key with {@value #CIPHER_KEY_SIZE} bits.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @since 2026.10.17
+	 */
+	public StringObfuscatorImpl(SecretKey key, IVGenerator ivGenerator) {
+		this(key, ivGenerator, CipherFormat.GCM1);
+	}
+
+	/**
+	 * Creates a new instance of this class that writes the given format. See
+	 * {@link CipherFormat} for details.
+	 * 
+	 * @param key The AES key with {@value #CIPHER_KEY_SIZE} bits.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @param format The format.
+	 */
+	StringObfuscatorImpl(SecretKey key, IVGenerator ivGenerator, CipherFormat format) {
+		this(key, ivGenerator, format, new Workspaces(format));
+	}
+
+	/**
+	 * Creates a new instance of this class that shares the per-thread
+	 * workspaces with other instances.
+	 * 
+	 * @param key The AES key with {@value #CIPHER_KEY_SIZE} bits.
+	 * @param ivGenerator The IV generator. It must be thread safe.
+	 * @param format The format.
+	 * @param workspaces The workspaces. They must have been created for the same format.
+	 */
+	StringObfuscatorImpl(SecretKey key, IVGenerator ivGenerator, CipherFormat format, Workspaces workspaces) {
+		if (workspaces.format != format) {
+			throw new IllegalArgumentException("The workspaces belong to another format.");
 		}
-		return salt;
+		this.ivGenerator = ivGenerator;
+		this.cipherKey = key;
+		this.format = format;
+		this.legacyFormat = format.legacy();
+		this.workspaces = workspaces;
 	}
-	
-	private void generateKeys(byte [] salt, int iterations, char [] password) throws GeneralSecurityException {
+
+	private void generateKeys(byte [] salt, int iterations, char [] password, KeyDerivationFunction kdf) throws GeneralSecurityException {
 		byte [] key = null;
 		
 		try {
-			key = generateKey(salt, iterations, password, CIPHER_KEY_SIZE);
+			key = kdf.deriveKey(salt, iterations, password, CIPHER_KEY_SIZE);
 			cipherKey = new SecretKeySpec(key, CIPHER_ALG);
 		} finally {
 			Shredder.shred(key);
@@ -155,7 +336,9 @@ public class StringObfuscatorImpl implements StringObfuscator {
 	}
 
 	/**
-	 * Generates a key material using the PBE parameters.
+	 * Generates a key material using the PBE parameters and the default key
+	 * derivation function, {@link JCEKeyDerivationFunction}, thus the
+	 * configured JCA provider is always honored.
 	 * 
 	 * @param salt The salt.
 	 * @param iterations The number of iterations.
@@ -165,77 +348,956 @@ public class StringObfuscatorImpl implements StringObfuscator {
 	 * @throws GeneralSecurityException In case of error.
 	 */
 	protected static byte[] generateKey(byte [] salt, int iterations, char [] password, int keySize) throws GeneralSecurityException {
-		SecretKeyFactory generator = SecretKeyFactory.getInstance(PBE_ALG);
-		PBEKeySpec params = new PBEKeySpec(password, salt, iterations, keySize);
-		
-		SecretKey key = generator.generateSecret(params);
+		return DEFAULT_KDF.deriveKey(salt, iterations, password, keySize);
+	}
+	
+	/**
+	 * Decodes the plaintext inside the work buffer into a new char array.
+	 * 
+	 * @param ws The workspace.
+	 * @param size The size of the plaintext inside the work buffer.
+	 * @return The plaintext characters.
+	 */
+	private char[] toChars(Workspace ws, int size) {
+		char [] tmp = ws.plain(size);
+		int n = ws.decode(ws.buffer, 0, size, tmp, 0, tmp.length);
+		try {
+			return Arrays.copyOf(tmp, n);
+		} finally {
+			Shredder.shred(tmp, 0, n);
+		}
+	}
+	
+	/**
+	 * Returns the workspace bound to the current thread. It avoids the
+	 * cost of the provider lookup on every call. Furthermore, while the key
+	 * does not change, the provider is able to skip the key schedule on each
+	 * initialization. Shared workspaces pay for it whenever the thread switches
+	 * from one instance to another.
+	 * 
+	 * @return The workspace for the current thread.
+	 * @throws GeneralSecurityException If the cipher is not supported.
+	 */
+	private Workspace getWorkspace() throws GeneralSecurityException {
+		return workspaces.get();
+	}
+	
+	/**
+	 * Initializes the cipher of the workspace with the key of this instance.
+	 * Once the cipher is initialized, the key is no longer needed by the
+	 * current operation.
+	 * 
+	 * <p>This instance may become unreachable while one of its methods is
+	 * still running, as the JIT is free to drop <code>this</code> after its
+	 * last use. When it is cached by {@link StringObfuscatorFactory}, that
+	 * would allow its key to be destroyed before the cipher is initialized,
+	 * thus a reachability fence keeps it alive until then.</p>
+	 */
+	private void initCipher(Workspace ws, CipherFormat f, boolean cipher, byte [] iv, int offset) throws GeneralSecurityException {
+		try {
+			ws.cipher.init(cipher?Cipher.ENCRYPT_MODE:Cipher.DECRYPT_MODE, cipherKey, f.parameters(iv, offset));
+		} catch (InvalidKeyException e) {
+			// ChaCha20-Poly1305 refuses to be initialized twice in a row with the
+			// same nonce, even to decrypt the same value again
+			if (cipher || !f.transformation.equals(CipherFormat.CHACHA_TRANSFORMATION)) {
+				throw e;
+			}
+			ws.cipher = Cipher.getInstance(f.transformation);
+			ws.cipher.init(Cipher.DECRYPT_MODE, cipherKey, f.parameters(iv, offset));
+		} finally {
+			Platform.reachabilityFence(this);
+		}
+		if (f.aad) {
+			ws.cipher.updateAAD(f.binaryHeader);
+		}
+	}
+	
+	/**
+	 * Selects the format of the given string. It is always the format of this
+	 * instance unless the string is in the legacy format.
+	 * 
+	 * @param obfuscated The obfuscated string.
+	 * @return The format.
+	 */
+	private CipherFormat selectFormat(CharSequence obfuscated) {
+		if ((legacyFormat != null) && legacyFormat.matches(obfuscated)) {
+			return legacyFormat;
+		}
+		return format;
+	}
 
-		return key.getEncoded();
+	/**
+	 * Selects the format of the given binary value.
+	 * 
+	 * @param first The first byte of the binary value.
+	 * @return The format.
+	 */
+	private CipherFormat selectFormat(byte first) {
+		if ((legacyFormat != null) && (legacyFormat.binaryHeader[0] == first)) {
+			return legacyFormat;
+		}
+		return format;
 	}
 	
-	private byte[] toBytes(char [] value) {
-		return CHARSET.encode(CharBuffer.wrap(value)).array();
+	private static StringObfuscatorException toException(GeneralSecurityException e) {
+		if (e instanceof AEADBadTagException) {
+			return new StringObfuscatorException(FailureReason.AUTHENTICATION, "Invalid format/key.");
+		} else {
+			return new StringObfuscatorException(e.getMessage(), e);
+		}
 	}
 	
-	private char[] fromBytes(byte [] value, int offset, int count) {
-		ByteBuffer buff = ByteBuffer.wrap(value);
-		buff.position(offset);
-		buff.limit(offset + count);
-		CharBuffer ret = CHARSET.decode(buff);
+	private static void checkHeader(CipherFormat f, byte [] sealed, int offset, int size) throws StringObfuscatorException {
+		if (size < f.sealedSize(0)) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		for (int i = 0; i < f.binaryHeader.length; i++) {
+			if (sealed[offset + i] != f.binaryHeader[i]) {
+				throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+			}
+		}
+	}
+
+	/**
+	 * Seals the given value into the binary format.
+	 * 
+	 * @param ws The workspace.
+	 * @param value The value.
+	 * @param offset The offset of the value.
+	 * @param size The size of the value.
+	 * @param out The output buffer. It must have at least {@link CipherFormat#sealedSize(int)} bytes.
+	 * @param outOffset The offset of the output.
+	 * @return The number of bytes written.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	private int seal(Workspace ws, byte [] value, int offset, int size, byte [] out, int outOffset) throws GeneralSecurityException {
+		byte [] header = format.binaryHeader;
+		System.arraycopy(header, 0, out, outOffset, header.length);
+		ivGenerator.generate(out, outOffset + header.length, format.ivSize);
+		initCipher(ws, format, true, out, outOffset + header.length);
+		ws.cipher.doFinal(value, offset, size, out, outOffset + header.length + format.ivSize);
+		return format.sealedSize(size);
+	}
+
+	private byte [] seal(Workspace ws, byte [] value, int offset, int size) throws GeneralSecurityException {
+		byte [] full = new byte[format.sealedSize(size)];
+		seal(ws, value, offset, size, full, 0);
+		return full;
+	}
+	
+	/**
+	 * Opens the given sealed value into the work buffer of the workspace.
+	 * 
+	 * @param ws The workspace.
+	 * @param sealed The sealed value.
+	 * @param offset The offset of the sealed value.
+	 * @param size The size of the sealed value.
+	 * @return The size of the plaintext inside the work buffer. It must be shredded by the caller.
+	 * @throws StringObfuscatorException If the format is invalid.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	private int open(Workspace ws, byte [] sealed, int offset, int size) throws StringObfuscatorException, GeneralSecurityException {
+		if (size < 1) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		CipherFormat f = selectFormat(sealed[offset]);
+		checkHeader(f, sealed, offset, size);
+		return openBody(ws, f, sealed, offset + f.binaryHeader.length, size - f.binaryHeader.length);
+	}
+	
+	/**
+	 * Opens the body (IV, ciphertext and tag) of a sealed value into the work
+	 * buffer of the workspace.
+	 * 
+	 * @param ws The workspace.
+	 * @param f The format.
+	 * @param body The body.
+	 * @param offset The offset of the body.
+	 * @param size The size of the body.
+	 * @return The size of the plaintext inside the work buffer. It must be shredded by the caller.
+	 * @throws StringObfuscatorException If the format is invalid.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	private int openBody(Workspace ws, CipherFormat f, byte [] body, int offset, int size) throws StringObfuscatorException, GeneralSecurityException {
+		if (size < f.ivSize + f.tagSize / 8) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		int encSize = size - f.ivSize;
+		initCipher(ws, f, false, body, offset);
+		return ws.cipher.doFinal(body, offset + f.ivSize, encSize, ws.buffer(encSize), 0);
+	}
+
+	/**
+	 * Obfuscates the value into the char buffer of the workspace.
+	 * 
+	 * @param ws The workspace.
+	 * @param value The value.
+	 * @return The number of characters written into the char buffer.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	private int obfuscateTo(Workspace ws, char [] value) throws GeneralSecurityException {
+		int sealedSize = sealTo(ws, value);
+		// The padding, if not used by the format, is simply ignored
+		Base64URL.encode(ws.sealed, 0, sealedSize, ws.chars(Base64URL.encodedLength(sealedSize)), 0);
+		return format.textLength(sealedSize);
+	}
+
+	/**
+	 * Seals the value into the sealed buffer of the workspace.
+	 * 
+	 * @param ws The workspace.
+	 * @param value The value.
+	 * @return The number of bytes written into the sealed buffer.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	private int sealTo(Workspace ws, char [] value) throws GeneralSecurityException {
+		int size = 0;
 		try {
-			return ret.array().clone();
+			size = ws.encode(value);
+			int sealedSize = format.sealedSize(size);
+			seal(ws, ws.buffer, 0, size, ws.sealed(sealedSize), 0);
+			return sealedSize;
 		} finally {
-			Shredder.shred(ret);
+			Shredder.shred(ws.buffer, 0, size);
 		}
 	}
+
+	private String obfuscate(Workspace ws, char [] value) throws GeneralSecurityException {
+		int sealedSize = sealTo(ws, value);
+		if (sealedSize >= JDK_CODEC_THRESHOLD) {
+			Base64.Encoder encoder = format.padded ? PADDED_ENCODER : UNPADDED_ENCODER;
+			return encoder.encodeToString(Arrays.copyOf(ws.sealed, sealedSize));
+		}
+		Base64URL.encode(ws.sealed, 0, sealedSize, ws.chars(Base64URL.encodedLength(sealedSize)), 0);
+		return new String(ws.chars, 0, format.textLength(sealedSize));
+	}
 	
-	private Cipher createCipher(boolean cipher, byte [] iv, int offset, int count) throws GeneralSecurityException {
-		Cipher c = Cipher.getInstance(CIPHER_ALG_FULL);
-		GCMParameterSpec params = new GCMParameterSpec(TAG_SIZE, iv, offset, count);
-		c.init(cipher?Cipher.ENCRYPT_MODE:Cipher.DECRYPT_MODE, cipherKey, params);
-		return c;
+	/**
+	 * Opens the given obfuscated string into the work buffer of the workspace.
+	 * The Base64 body is decoded directly from the string, right after the header,
+	 * into a reusable buffer. Large strings are decoded by {@link java.util.Base64}
+	 * instead (see {@link #JDK_CODEC_THRESHOLD}).
+	 * 
+	 * @param ws The workspace.
+	 * @param obfuscated The obfuscated string.
+	 * @return The size of the plaintext inside the work buffer. It must be shredded by the caller.
+	 * @throws StringObfuscatorException If the format is invalid.
+	 * @throws GeneralSecurityException In case of error.
+	 */
+	private int open(Workspace ws, CharSequence obfuscated) throws StringObfuscatorException, GeneralSecurityException {
+		CipherFormat f = selectFormat(obfuscated);
+		if (!f.matches(obfuscated)) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		int headerLength = f.header.length();
+		int length = obfuscated.length() - headerLength;
+		int size;
+		byte [] body;
+		if ((length >= JDK_CODEC_THRESHOLD) && (obfuscated instanceof String)) {
+			// Characters outside Latin-1 become '?', which is rejected by the decoder
+			ByteBuffer text = ByteBuffer.wrap(((String)obfuscated).getBytes(StandardCharsets.ISO_8859_1), headerLength, length);
+			ByteBuffer decoded = Base64.getUrlDecoder().decode(text);
+			size = decoded.remaining();
+			body = decoded.array();
+		} else {
+			size = Base64URL.decodedLength(obfuscated, headerLength, length);
+			body = ws.sealed(size);
+			Base64URL.decode(obfuscated, headerLength, length, body, 0);
+		}
+		
+		// The rest of the binary header (key id, etc), if any, is not part of the string header
+		int extra = f.binaryHeader.length - f.headerSize;
+		if (size < extra) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		for (int i = 0; i < extra; i++) {
+			if (body[i] != f.binaryHeader[f.headerSize + i]) {
+				throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+			}
+		}
+		return openBody(ws, f, body, extra, size - extra);
 	}
 	
+	private char [] deobfuscate(Workspace ws, String obfuscated) throws StringObfuscatorException, GeneralSecurityException {
+		int size = 0;
+		try {
+			size = open(ws, obfuscated);
+			return toChars(ws, size);
+		} finally {
+			Shredder.shred(ws.buffer, 0, size);
+		}
+	}
 
 	public String obfuscate(char [] value)  throws StringObfuscatorException{
-		byte [] iv = createIv();
-		byte [] raw = null;
-		
 		try {
-			Cipher c = createCipher(true, iv, 0, iv.length);
-			raw = toBytes(value);
-			byte [] enc = c.doFinal(raw);
-			byte [] full = new byte[iv.length + enc.length];
-			System.arraycopy(iv, 0, full, 0, iv.length);
-			System.arraycopy(enc, 0, full, iv.length, enc.length);
-			return HEADER + Base64.getUrlEncoder().encodeToString(full);
+			return obfuscate(getWorkspace(), value);
 		} catch (GeneralSecurityException e) {
-			throw new StringObfuscatorException(e.getMessage(), e);
+			throw toException(e);
+		}
+	}
+	
+	public char [] deobfuscate(String obfuscated) throws StringObfuscatorException {
+		try {
+			return deobfuscate(getWorkspace(), obfuscated);
+		} catch (IllegalArgumentException e) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.", e);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		}
+	}
+	
+	/**
+	 * Deobfuscates the string directly into the given array. The plaintext is
+	 * never copied into any other char array.
+	 * 
+	 * @param obfuscated The obfuscated string.
+	 * @param dest The destination array. Its length in characters never needs to
+	 * be larger than the length of the obfuscated string.
+	 * @return The number of characters written.
+	 * @throws StringObfuscatorException In case of error or if the destination is too small.
+	 * @since 2026.10.17
+	 */
+	public int deobfuscateInto(CharSequence obfuscated, char [] dest) throws StringObfuscatorException {
+		return deobfuscateInto(obfuscated, dest, 0);
+	}
+
+	/**
+	 * Deobfuscates the string directly into the given array. The plaintext is
+	 * never copied into any other char array.
+	 * 
+	 * @param obfuscated The obfuscated string.
+	 * @param dest The destination array.
+	 * @param offset The offset in the destination array.
+	 * @return The number of characters written.
+	 * @throws StringObfuscatorException In case of error or if the destination is too small.
+	 * @since 2026.10.17
+	 */
+	public int deobfuscateInto(CharSequence obfuscated, char [] dest, int offset) throws StringObfuscatorException {
+		Workspace ws = null;
+		int size = 0;
+		try {
+			ws = getWorkspace();
+			size = open(ws, obfuscated);
+			int n = ws.decode(ws.buffer, 0, size, dest, offset, dest.length - offset);
+			if (n < 0) {
+				throw new StringObfuscatorException(FailureReason.BUFFER_TOO_SMALL, "Output buffer too small.");
+			}
+			return n;
+		} catch (IllegalArgumentException e) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.", e);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
 		} finally {
-			Shredder.shred(raw);
+			if (ws != null) {
+				Shredder.shred(ws.buffer, 0, size);
+			}
 		}
 	}
 	
+	/**
+	 * Deobfuscates the string into a buffer borrowed from the calling thread
+	 * and passes it to the consumer. The buffer is shredded as soon as the
+	 * consumer returns, thus the consumer must not keep any reference to it.
+	 * 
+	 * @param obfuscated The obfuscated string.
+	 * @param consumer The consumer of the plaintext.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public void withPlaintext(String obfuscated, CharConsumer consumer) throws StringObfuscatorException {
+		Workspace ws = null;
+		char [] buff = null;
+		int n = 0;
+		try {
+			ws = getWorkspace();
+			int size = 0;
+			try {
+				size = open(ws, obfuscated);
+				buff = ws.borrow(size);
+				n = ws.decode(ws.buffer, 0, size, buff, 0, buff.length);
+			} finally {
+				Shredder.shred(ws.buffer, 0, size);
+			}
+			consumer.accept(buff, 0, n);
+		} catch (IllegalArgumentException e) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.", e);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		} finally {
+			if (buff != null) {
+				Shredder.shred(buff, 0, n);
+				ws.release(buff);
+			}
+		}
+	}
 
-	public char [] deobfuscate(String obfuscated) throws StringObfuscatorException {
-		if (!obfuscated.startsWith(HEADER)) {
-			throw new StringObfuscatorException("Invalid format.");
+	/**
+	 * Returns the length of the obfuscated string for a given plaintext size.
+	 * 
+	 * @param size The size of the plaintext encoded in UTF-8, in bytes.
+	 * @return The length of the obfuscated string.
+	 * @since 2026.10.17
+	 */
+	public static int outputLength(int size) {
+		return Base64URL.encodedLength(sealedLength(size));
+	}
+
+	/**
+	 * Returns the maximum length of the obfuscated string for a given
+	 * number of characters. It can be used to size the buffers passed to
+	 * {@link #obfuscateTo(char[], char[], int)}.
+	 * 
+	 * @param length The number of characters of the plaintext.
+	 * @return The maximum length of the obfuscated string.
+	 * @since 2026.10.17
+	 */
+	public static int maxOutputLength(int length) {
+		return outputLength(length * UTF8.MAX_BYTES_PER_CHAR);
+	}
+
+	/**
+	 * Obfuscates the string into the given char array. Once the work buffers
+	 * of the calling thread are large enough, this method does not allocate
+	 * any memory besides the one allocated by the cryptographic provider.
+	 * 
+	 * @param value The original string.
+	 * @param out The output array.
+	 * @param offset The offset in the output array.
+	 * @return The number of characters written.
+	 * @throws StringObfuscatorException In case of error or if the output is too small.
+	 * @since 2026.10.17
+	 */
+	public int obfuscateTo(char [] value, char [] out, int offset) throws StringObfuscatorException {
+		int expected = format.textLength(format.sealedSize(UTF8.encodedLength(value, 0, value.length)));
+		if (out.length - offset < expected) {
+			throw new StringObfuscatorException(FailureReason.BUFFER_TOO_SMALL, "Output buffer too small.");
 		}
-		byte [] dec = null;
 		try {
-			byte [] bin = Base64.getUrlDecoder().decode(obfuscated);
-			Cipher c = createCipher(false, bin, 3, CIPHER_BLOCK_SIZE / 8);
-			int encOffset = CIPHER_BLOCK_SIZE / 8 + 3;
-			dec = c.doFinal(bin, encOffset, bin.length - encOffset);
-			return fromBytes(dec, 0, dec.length);			
+			Workspace ws = getWorkspace();
+			int size = obfuscateTo(ws, value);
+			System.arraycopy(ws.chars, 0, out, offset, size);
+			return size;
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		}
+	}
+
+	/**
+	 * Obfuscates the string and appends the result to the given
+	 * {@link StringBuilder}. Once the work buffers of the calling thread are
+	 * large enough, this method does not allocate any memory besides the one
+	 * allocated by the cryptographic provider and the growth of the builder.
+	 * 
+	 * @param value The original string.
+	 * @param out The output.
+	 * @return The number of characters appended.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public int obfuscateTo(char [] value, StringBuilder out) throws StringObfuscatorException {
+		try {
+			Workspace ws = getWorkspace();
+			int size = obfuscateTo(ws, value);
+			out.append(ws.chars, 0, size);
+			return size;
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		}
+	}
+
+	/**
+	 * Obfuscates the string and appends the result to the given
+	 * {@link Appendable}. The sealed value is encoded directly into the output,
+	 * one character at a time, thus no intermediate string is created.
+	 * 
+	 * @param value The original string.
+	 * @param out The output.
+	 * @return The number of characters appended.
+	 * @throws StringObfuscatorException In case of error.
+	 * @throws IOException If the output fails.
+	 * @since 2026.10.17
+	 */
+	public int obfuscateTo(char [] value, Appendable out) throws StringObfuscatorException, IOException {
+		try {
+			Workspace ws = getWorkspace();
+			int sealedSize = sealTo(ws, value);
+			return Base64URL.encode(ws.sealed, 0, sealedSize, out, format.padded);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		}
+	}
+	
+	/**
+	 * Returns the size of the binary format (GCM1) for a given plaintext size.
+	 * 
+	 * @param size The size of the plaintext in bytes.
+	 * @return The size of the sealed value in bytes.
+	 * @since 2026.10.17
+	 */
+	public static int sealedLength(int size) {
+		return CipherFormat.GCM1.sealedSize(size);
+	}
+	
+	/**
+	 * Seals the given value into the binary format. The binary format is
+	 * equivalent to the obfuscated string decoded from Base64, thus a value
+	 * sealed by this method can be converted to the string format and vice versa.
+	 * 
+	 * @param value The value to be sealed.
+	 * @return The sealed value.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public byte [] seal(byte [] value) throws StringObfuscatorException {
+		try {
+			return seal(getWorkspace(), value, 0, value.length);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		}
+	}
+
+	/**
+	 * Seals the given characters into the binary format. The characters are
+	 * encoded in UTF-8 before the encryption.
+	 * 
+	 * @param value The value to be sealed.
+	 * @return The sealed value.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public byte [] seal(char [] value) throws StringObfuscatorException {
+		Workspace ws = null;
+		int size = 0;
+		try {
+			ws = getWorkspace();
+			size = ws.encode(value);
+			return seal(ws, ws.buffer, 0, size);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		} finally {
+			if (ws != null) {
+				Shredder.shred(ws.buffer, 0, size);
+			}
+		}
+	}
+	
+	/**
+	 * Seals the remaining contents of the input buffer into the output buffer.
+	 * Both buffers may be direct buffers. On success, the position of the input
+	 * buffer is set to its limit and the position of the output buffer is
+	 * advanced by the number of bytes written. On failure, the positions of
+	 * both buffers are left unchanged.
+	 * 
+	 * @param in The input buffer.
+	 * @param out The output buffer. It must have at least
+	 * {@link #sealedLength(int)} bytes remaining.
+	 * @return The number of bytes written into the output buffer.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public int seal(ByteBuffer in, ByteBuffer out) throws StringObfuscatorException {
+		int size = format.sealedSize(in.remaining());
+		if (out.remaining() < size) {
+			throw new StringObfuscatorException(FailureReason.BUFFER_TOO_SMALL, "Output buffer too small.");
+		}
+		int inPosition = in.position();
+		int outPosition = out.position();
+		try {
+			Workspace ws = getWorkspace();
+			ivGenerator.generate(ws.iv, 0, format.ivSize);
+			initCipher(ws, format, true, ws.iv, 0);
+			out.put(format.binaryHeader);
+			out.put(ws.iv, 0, format.ivSize);
+			ws.cipher.doFinal(in, out);
+			return size;
+		} catch (GeneralSecurityException e) {
+			in.position(inPosition);
+			out.position(outPosition);
+			throw toException(e);
+		}
+	}
+	
+	/**
+	 * Opens the value sealed by {@link #seal(byte[])}.
+	 * 
+	 * @param sealed The sealed value.
+	 * @return The original value.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public byte [] open(byte [] sealed) throws StringObfuscatorException {
+		Workspace ws = null;
+		int size = 0;
+		try {
+			ws = getWorkspace();
+			size = open(ws, sealed, 0, sealed.length);
+			return Arrays.copyOf(ws.buffer, size);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		} finally {
+			if (ws != null) {
+				Shredder.shred(ws.buffer, 0, size);
+			}
+		}
+	}
+
+	/**
+	 * Opens the value sealed by {@link #seal(char[])}.
+	 * 
+	 * @param sealed The sealed value.
+	 * @return The original characters.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public char [] openChars(byte [] sealed) throws StringObfuscatorException {
+		Workspace ws = null;
+		int size = 0;
+		try {
+			ws = getWorkspace();
+			size = open(ws, sealed, 0, sealed.length);
+			return toChars(ws, size);
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		} finally {
+			if (ws != null) {
+				Shredder.shred(ws.buffer, 0, size);
+			}
+		}
+	}
+	
+	/**
+	 * Opens the remaining contents of the input buffer into the output buffer.
+	 * Both buffers may be direct buffers. On success, the position of the input
+	 * buffer is set to its limit and the position of the output buffer is
+	 * advanced by the number of bytes written. On failure, the positions of
+	 * both buffers are left unchanged.
+	 * 
+	 * @param in The input buffer.
+	 * @param out The output buffer.
+	 * @return The number of bytes written into the output buffer.
+	 * @throws StringObfuscatorException In case of error.
+	 * @since 2026.10.17
+	 */
+	public int open(ByteBuffer in, ByteBuffer out) throws StringObfuscatorException {
+		if (!in.hasRemaining()) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		CipherFormat f = selectFormat(in.get(in.position()));
+		if (in.remaining() < f.sealedSize(0)) {
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+		}
+		if (out.remaining() < in.remaining() - f.sealedSize(0)) {
+			throw new StringObfuscatorException(FailureReason.BUFFER_TOO_SMALL, "Output buffer too small.");
+		}
+		int start = in.position();
+		try {
+			Workspace ws = getWorkspace();
+			for (int i = 0; i < f.binaryHeader.length; i++) {
+				if (in.get() != f.binaryHeader[i]) {
+					throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+				}
+			}
+			in.get(ws.iv, 0, f.ivSize);
+			initCipher(ws, f, false, ws.iv, 0);
+			return ws.cipher.doFinal(in, out);
+		} catch (GeneralSecurityException e) {
+			in.position(start);
+			throw toException(e);
+		} catch (StringObfuscatorException e) {
+			in.position(start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates a new output stream that obfuscates all data written to it into
+	 * the given stream using the segmented format described in
+	 * {@link ObfuscatingOutputStream}. It uses the default segment size.
+	 * 
+	 * @param out The stream that will receive the obfuscated data.
+	 * @return The new output stream. It must be closed at the end.
+	 * @throws IOException In case of error.
+	 * @since 2026.10.17
+	 */
+	public ObfuscatingOutputStream createOutputStream(OutputStream out) throws IOException {
+		return createOutputStream(out, ObfuscatingOutputStream.DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Creates a new output stream that obfuscates all data written to it into
+	 * the given stream using the segmented format described in
+	 * {@link ObfuscatingOutputStream}.
+	 * 
+	 * @param out The stream that will receive the obfuscated data.
+	 * @param segmentSize The size of the segments in bytes. Each stream keeps
+	 * two buffers of about this size.
+	 * @return The new output stream. It must be closed at the end.
+	 * @throws IOException In case of error.
+	 * @since 2026.10.17
+	 */
+	public ObfuscatingOutputStream createOutputStream(OutputStream out, int segmentSize) throws IOException {
+		return new ObfuscatingOutputStream(out, this, cipherKey, ivGenerator, segmentSize);
+	}
+
+	/**
+	 * Creates a new input stream that deobfuscates the data produced by
+	 * {@link #createOutputStream(OutputStream)}.
+	 * 
+	 * @param in The stream that contains the obfuscated data.
+	 * @return The new input stream.
+	 * @throws IOException In case of error.
+	 * @since 2026.10.17
+	 */
+	public DeobfuscatingInputStream createInputStream(InputStream in) throws IOException {
+		return new DeobfuscatingInputStream(in, this, cipherKey);
+	}
+
+	/**
+	 * Creates a new writer that obfuscates all characters written to it. The
+	 * characters are encoded as UTF-8 and written using
+	 * {@link #createOutputStream(OutputStream)}.
+	 * 
+	 * @param out The stream that will receive the obfuscated data.
+	 * @return The new writer. It must be closed at the end.
+	 * @throws IOException In case of error.
+	 * @since 2026.10.17
+	 */
+	public Writer createWriter(OutputStream out) throws IOException {
+		return new OutputStreamWriter(createOutputStream(out), CHARSET);
+	}
+
+	/**
+	 * Creates a new reader that deobfuscates the characters written by
+	 * {@link #createWriter(OutputStream)}.
+	 * 
+	 * @param in The stream that contains the obfuscated data.
+	 * @return The new reader.
+	 * @throws IOException In case of error.
+	 * @since 2026.10.17
+	 */
+	public Reader createReader(InputStream in) throws IOException {
+		return new InputStreamReader(createInputStream(in), CHARSET);
+	}
+
+	/**
+	 * Obfuscates all values using the same cipher and work buffers.
+	 */
+	@Override
+	public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+		List<String> ret = new ArrayList<String>(values.size());
+		try {
+			Workspace ws = getWorkspace();
+			for (char [] value: values) {
+				ret.add(obfuscate(ws, value));
+			}
+			return ret;
+		} catch (GeneralSecurityException e) {
+			throw toException(e);
+		}
+	}
+
+	/**
+	 * Deobfuscates all values using the same cipher and work buffers. If any of
+	 * the values fails, all values already deobfuscated are shredded.
+	 */
+	@Override
+	public List<char[]> deobfuscateAll(List<String> values) throws StringObfuscatorException {
+		List<char[]> ret = new ArrayList<char[]>(values.size());
+		boolean success = false;
+		try {
+			Workspace ws = getWorkspace();
+			for (String value: values) {
+				ret.add(deobfuscate(ws, value));
+			}
+			success = true;
+			return ret;
 		} catch (IllegalArgumentException e) {
-			throw new StringObfuscatorException("Invalid format.", e);
-		} catch (AEADBadTagException e) {
-			throw new StringObfuscatorException("Invalid format/key.");
+			throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.", e);
 		} catch (GeneralSecurityException e) {
-			throw new StringObfuscatorException(e.getMessage(), e);			
+			throw toException(e);
 		} finally {
-			Shredder.shred(dec);
+			if (!success) {
+				for (char [] value: ret) {
+					Shredder.shred(value);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The workspaces of the threads that use one or more instances of this
+	 * class. Each instance has its own by default. Instances that write the
+	 * same format may share them, so each thread keeps a single cipher and a
+	 * single set of buffers for all of them; the cipher is initialized with the
+	 * key of the calling instance on every operation anyway.
+	 */
+	static final class Workspaces {
+		
+		private final CipherFormat format;
+		
+		private final ThreadLocal<Workspace> local = new ThreadLocal<Workspace>();
+		
+		/**
+		 * Creates a new instance of this class.
+		 * 
+		 * @param format The format of the instances that will use it.
+		 */
+		Workspaces(CipherFormat format) {
+			this.format = format;
+		}
+		
+		Workspace get() throws GeneralSecurityException {
+			Workspace ws = local.get();
+			if (ws == null) {
+				ws = new Workspace(Cipher.getInstance(format.transformation));
+				local.set(ws);
+			}
+			return ws;
+		}
+	}
+	
+	/**
+	 * This class holds the objects reused by all operations performed by a
+	 * given thread.
+	 */
+	private static class Workspace {
+		
+		private Cipher cipher;
+		
+		private final byte [] iv = new byte[IV_SIZE];
+		
+		private byte [] buffer = new byte[0];
+		
+		private byte [] sealed = new byte[0];
+		
+		private char [] chars = new char[0];
+		
+		private char [] plain = new char[0];
+		
+		private char [] lent = new char[0];
+		
+		private boolean borrowed;
+		
+		public Workspace(Cipher cipher) {
+			this.cipher = cipher;
+		}
+		
+		/**
+		 * Returns the work buffer with at least the given size. When it
+		 * grows, the old buffer is shredded.
+		 * 
+		 * @param size The minimum size.
+		 * @return The work buffer.
+		 */
+		public byte [] buffer(int size) {
+			if (buffer.length < size) {
+				Shredder.shred(buffer);
+				buffer = new byte[size];
+			}
+			return buffer;
+		}
+
+		/**
+		 * Returns the buffer used to hold the sealed values with at least the
+		 * given size.
+		 * 
+		 * @param size The minimum size.
+		 * @return The buffer.
+		 */
+		public byte [] sealed(int size) {
+			if (sealed.length < size) {
+				sealed = new byte[size];
+			}
+			return sealed;
+		}
+
+		/**
+		 * Returns the buffer used to hold the obfuscated strings with at least
+		 * the given size.
+		 * 
+		 * @param size The minimum size.
+		 * @return The buffer.
+		 */
+		public char [] chars(int size) {
+			if (chars.length < size) {
+				chars = new char[size];
+			}
+			return chars;
+		}
+		
+		/**
+		 * Returns the buffer used to hold the plaintext characters with at
+		 * least the given size. When it grows, the old buffer is shredded.
+		 * 
+		 * @param size The minimum size.
+		 * @return The buffer.
+		 */
+		public char [] plain(int size) {
+			if (plain.length < size) {
+				Shredder.shred(plain);
+				plain = new char[size];
+			}
+			return plain;
+		}
+
+		/**
+		 * Borrows the char buffer lent to the callers with at least the given
+		 * size. If it is already borrowed (nested calls), a new array is
+		 * returned instead.
+		 * 
+		 * @param size The minimum size.
+		 * @return The buffer.
+		 */
+		public char [] borrow(int size) {
+			if (borrowed) {
+				return new char[size];
+			}
+			if (lent.length < size) {
+				Shredder.shred(lent);
+				lent = new char[size];
+			}
+			borrowed = true;
+			return lent;
+		}
+
+		/**
+		 * Releases the buffer returned by {@link #borrow(int)}.
+		 * 
+		 * @param buff The buffer.
+		 */
+		public void release(char [] buff) {
+			if (buff == lent) {
+				borrowed = false;
+			}
+		}
+		
+		/**
+		 * Decodes the UTF-8 value into the given char array.
+		 * 
+		 * @param src The source.
+		 * @param offset The offset of the source.
+		 * @param size The size of the source.
+		 * @param dst The destination.
+		 * @param dstOffset The offset of the destination.
+		 * @param dstSize The space available in the destination.
+		 * @return The number of characters written or -1 if the destination is too small.
+		 */
+		public int decode(byte [] src, int offset, int size, char [] dst, int dstOffset, int dstSize) {
+			int n = UTF8.decode(src, offset, size, dst, dstOffset, dstSize);
+			if (n < 0) {
+				Shredder.shred(dst, dstOffset, dstSize);
+			}
+			return n;
+		}
+		
+		/**
+		 * Encodes the given value in UTF-8 into the work buffer.
+		 * 
+		 * @param value The value to be encoded.
+		 * @return The number of bytes written into the work buffer.
+		 */
+		public int encode(char [] value) {
+			return UTF8.encode(value, 0, value.length, buffer(value.length * UTF8.MAX_BYTES_PER_CHAR), 0);
 		}
 	}
 }
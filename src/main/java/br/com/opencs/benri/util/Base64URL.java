@@ -0,0 +1,323 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.util;
+
+import java.io.IOException;
+
+/**
+ * This class implements the Base64 encoding with the URL and file name safe
+ * alphabet defined by RFC 4648. Unlike {@link java.util.Base64}, it works
+ * directly with caller supplied buffers and {@link CharSequence}s, thus no
+ * memory is allocated by the encoding or the decoding. The decoder looks up
+ * the characters without branches and validates each group of 4 characters
+ * with a single test.
+ * 
+ * <p>The output is always padded, thus it is fully compatible with
+ * {@link java.util.Base64#getUrlEncoder()}. The decoder accepts the same inputs
+ * accepted by {@link java.util.Base64#getUrlDecoder()}, with or without the
+ * padding.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class Base64URL {
+	
+	private static final char [] ALPHABET = 
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+	
+	private static final char PADDING = '=';
+	
+	/**
+	 * Maps each Latin-1 character into its value or -1 if it is invalid.
+	 */
+	private static final int [] DECODING = new int[256];
+	
+	static {
+		for (int i = 0; i < DECODING.length; i++) {
+			DECODING[i] = -1;
+		}
+		for (int i = 0; i < ALPHABET.length; i++) {
+			DECODING[ALPHABET[i]] = i;
+		}
+	}
+
+	/**
+	 * Returns the size of the encoded data.
+	 * 
+	 * @param size The size of the data in bytes.
+	 * @return The number of characters required to encode it.
+	 */
+	public static int encodedLength(int size) {
+		return ((size + 2) / 3) * 4;
+	}
+
+	/**
+	 * Returns the size of the encoded data without the padding.
+	 * 
+	 * @param size The size of the data in bytes.
+	 * @return The number of characters required to encode it without the padding.
+	 */
+	public static int unpaddedLength(int size) {
+		return (size * 8 + 5) / 6;
+	}
+
+	/**
+	 * Encodes the given data into a char array.
+	 * 
+	 * @param src The data to be encoded.
+	 * @param offset The offset of the data.
+	 * @param size The size of the data.
+	 * @param dst The destination array. It must have at least
+	 * {@link #encodedLength(int)} characters after dstOffset.
+	 * @param dstOffset The offset in the destination array.
+	 * @return The number of characters written.
+	 */
+	public static int encode(byte [] src, int offset, int size, char [] dst, int dstOffset) {
+		int d = dstOffset;
+		int end = offset + (size / 3) * 3;
+		int s = offset;
+		while (s < end) {
+			int v = ((src[s] & 0xFF) << 16) | ((src[s + 1] & 0xFF) << 8) | (src[s + 2] & 0xFF);
+			dst[d] = ALPHABET[v >>> 18];
+			dst[d + 1] = ALPHABET[(v >>> 12) & 0x3F];
+			dst[d + 2] = ALPHABET[(v >>> 6) & 0x3F];
+			dst[d + 3] = ALPHABET[v & 0x3F];
+			s += 3;
+			d += 4;
+		}
+		switch (offset + size - s) {
+		case 1:
+			{
+				int v = (src[s] & 0xFF) << 16;
+				dst[d] = ALPHABET[v >>> 18];
+				dst[d + 1] = ALPHABET[(v >>> 12) & 0x3F];
+				dst[d + 2] = PADDING;
+				dst[d + 3] = PADDING;
+				d += 4;
+			}
+			break;
+		case 2:
+			{
+				int v = ((src[s] & 0xFF) << 16) | ((src[s + 1] & 0xFF) << 8);
+				dst[d] = ALPHABET[v >>> 18];
+				dst[d + 1] = ALPHABET[(v >>> 12) & 0x3F];
+				dst[d + 2] = ALPHABET[(v >>> 6) & 0x3F];
+				dst[d + 3] = PADDING;
+				d += 4;
+			}
+			break;
+		}
+		return d - dstOffset;
+	}
+	
+	/**
+	 * Encodes the given data into an {@link Appendable}. It appends one
+	 * character at a time, thus no memory is allocated by this method.
+	 * 
+	 * @param src The data to be encoded.
+	 * @param offset The offset of the data.
+	 * @param size The size of the data.
+	 * @param dst The destination.
+	 * @return The number of characters written.
+	 * @throws IOException If the destination fails.
+	 */
+	public static int encode(byte [] src, int offset, int size, Appendable dst) throws IOException {
+		return encode(src, offset, size, dst, true);
+	}
+	
+	/**
+	 * Encodes the given data into an {@link Appendable}, with or without the
+	 * padding. It appends one character at a time, thus no memory is allocated
+	 * by this method.
+	 * 
+	 * @param src The data to be encoded.
+	 * @param offset The offset of the data.
+	 * @param size The size of the data.
+	 * @param dst The destination.
+	 * @param padded If true, the padding is appended.
+	 * @return The number of characters written.
+	 * @throws IOException If the destination fails.
+	 * @since 2026.10.17
+	 */
+	public static int encode(byte [] src, int offset, int size, Appendable dst, boolean padded) throws IOException {
+		int end = offset + size;
+		for (int s = offset; s < end; s += 3) {
+			int remaining = end - s;
+			int v = (src[s] & 0xFF) << 16;
+			if (remaining > 1) {
+				v |= (src[s + 1] & 0xFF) << 8;
+			}
+			if (remaining > 2) {
+				v |= src[s + 2] & 0xFF;
+			}
+			dst.append(ALPHABET[v >>> 18]);
+			dst.append(ALPHABET[(v >>> 12) & 0x3F]);
+			if (remaining > 1) {
+				dst.append(ALPHABET[(v >>> 6) & 0x3F]);
+			} else if (padded) {
+				dst.append(PADDING);
+			}
+			if (remaining > 2) {
+				dst.append(ALPHABET[v & 0x3F]);
+			} else if (padded) {
+				dst.append(PADDING);
+			}
+		}
+		return padded ? encodedLength(size) : unpaddedLength(size);
+	}
+	
+	private static int padding(CharSequence src, int offset, int length) {
+		int pad = 0;
+		while ((pad < 2) && (pad < length) && (src.charAt(offset + length - 1 - pad) == PADDING)) {
+			pad++;
+		}
+		return pad;
+	}
+
+	/**
+	 * Returns the size of the decoded data.
+	 * 
+	 * @param src The encoded data.
+	 * @param offset The offset of the encoded data.
+	 * @param length The length of the encoded data.
+	 * @return The number of bytes of the decoded data.
+	 * @throws IllegalArgumentException If the length or the padding is invalid.
+	 */
+	public static int decodedLength(CharSequence src, int offset, int length) {
+		int pad = padding(src, offset, length);
+		if ((pad > 0) && ((length % 4) != 0)) {
+			throw new IllegalArgumentException("Invalid padding.");
+		}
+		int n = length - pad;
+		switch (n % 4) {
+		case 0:
+			return (n / 4) * 3;
+		case 2:
+			return (n / 4) * 3 + 1;
+		case 3:
+			return (n / 4) * 3 + 2;
+		default:
+			throw new IllegalArgumentException("Invalid length.");
+		}
+	}
+	
+	/**
+	 * Returns the 6-bit value of the given character.
+	 * 
+	 * @param c The character.
+	 * @return The value or -1 if the character is not part of the alphabet.
+	 */
+	public static int valueOf(char c) {
+		return lookup(c);
+	}
+	
+	/**
+	 * Returns the 6-bit value of the given character without branches. The
+	 * characters above U+00FF have their sign bit forced to 1.
+	 * 
+	 * @param c The character.
+	 * @return The value or a negative value if the character is not part of the alphabet.
+	 */
+	private static int lookup(char c) {
+		return DECODING[c & 0xFF] | ((0xFF - c) >> 31);
+	}
+	
+	/**
+	 * Combines 4 values into a 24-bit word. Invalid characters have negative
+	 * values that make the whole word negative, thus the caller checks the
+	 * validity of the whole group at once.
+	 */
+	private static int word(char c0, char c1, char c2, char c3) {
+		return (lookup(c0) << 18) | (lookup(c1) << 12) | (lookup(c2) << 6) | lookup(c3);
+	}
+	
+	private static int check(int v) {
+		if (v < 0) {
+			throw new IllegalArgumentException("Invalid character.");
+		}
+		return v;
+	}
+	
+	/**
+	 * Writes the last partial group. The missing characters are replaced by
+	 * 'A', whose value is 0.
+	 */
+	private static void decodeTail(int n, char c0, char c1, char c2, byte [] dst, int d) {
+		switch (n) {
+		case 2:
+			dst[d] = (byte)(check(word(c0, c1, 'A', 'A')) >> 16);
+			break;
+		case 3:
+			{
+				int v = check(word(c0, c1, c2, 'A'));
+				dst[d] = (byte)(v >> 16);
+				dst[d + 1] = (byte)(v >> 8);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Decodes the given data into a byte array.
+	 * 
+	 * @param src The encoded data.
+	 * @param offset The offset of the encoded data.
+	 * @param length The length of the encoded data.
+	 * @param dst The destination array. It must have at least
+	 * {@link #decodedLength(CharSequence, int, int)} bytes after dstOffset.
+	 * @param dstOffset The offset in the destination array.
+	 * @return The number of bytes written.
+	 * @throws IllegalArgumentException If the encoded data is invalid.
+	 */
+	public static int decode(CharSequence src, int offset, int length, byte [] dst, int dstOffset) {
+		int size = decodedLength(src, offset, length);
+		int n = length - padding(src, offset, length);
+		int s = offset;
+		int end = offset + (n / 4) * 4;
+		int d = dstOffset;
+		
+		// Each group of 4 characters becomes a 24-bit word
+		while (s < end) {
+			int v = check(word(src.charAt(s), src.charAt(s + 1), src.charAt(s + 2), src.charAt(s + 3)));
+			dst[d] = (byte)(v >> 16);
+			dst[d + 1] = (byte)(v >> 8);
+			dst[d + 2] = (byte)v;
+			s += 4;
+			d += 3;
+		}
+		int rest = n % 4;
+		if (rest > 1) {
+			decodeTail(rest, src.charAt(s), src.charAt(s + 1), (rest > 2) ? src.charAt(s + 2) : 'A', dst, d);
+		}
+		return size;
+	}
+}
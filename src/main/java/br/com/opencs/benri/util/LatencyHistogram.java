@@ -0,0 +1,209 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class implements a lock-free histogram of latencies with logarithmic
+ * buckets, in the spirit of HdrHistogram. Each power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is reported
+ * with a relative error of at most 1/{@value #SUB_BUCKETS} (about 3%) while
+ * the whole range of positive <code>long</code> values fits in a fixed array
+ * of {@value #BUCKETS} counters.
+ * 
+ * <p>Recording a value is a single atomic increment, thus this class can be
+ * updated by many threads at the same time without locks. The read methods
+ * work on a snapshot of the counters and may miss values recorded while
+ * they run.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public final class LatencyHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 5;
+	
+	/**
+	 * Number of linear sub-buckets of each power of two.
+	 */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	
+	/**
+	 * Total number of buckets.
+	 */
+	public static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	
+	private final LongAdder total = new LongAdder();
+	
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * Returns the index of the bucket of the given value.
+	 * 
+	 * @param value The value. Negative values are treated as 0.
+	 * @return The index of the bucket.
+	 */
+	static int getBucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return value < 0 ? 0 : (int)value;
+		}
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int)((value >>> shift) - SUB_BUCKETS);
+	}
+	
+	/**
+	 * Returns the lowest value of the given bucket.
+	 * 
+	 * @param bucket The index of the bucket.
+	 * @return The lowest value.
+	 */
+	static long getLowestValue(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+		return ((long)(SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1)))) << shift;
+	}
+
+	/**
+	 * Returns the highest value of the given bucket.
+	 * 
+	 * @param bucket The index of the bucket.
+	 * @return The highest value.
+	 */
+	static long getHighestValue(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+		return getLowestValue(bucket) + (1L << shift) - 1;
+	}
+	
+	/**
+	 * Records a value.
+	 * 
+	 * @param value The value, usually in nanoseconds. Negative values are
+	 * recorded as 0.
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(getBucket(value));
+		total.add(value);
+		long current = max.get();
+		while ((value > current) && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+	
+	/**
+	 * Returns the number of recorded values.
+	 * 
+	 * @return The number of values.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the largest recorded value.
+	 * 
+	 * @return The largest value or 0 if no value was recorded.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the mean of the recorded values.
+	 * 
+	 * @return The mean or 0 if no value was recorded.
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0.0 : (double)total.sum() / count;
+	}
+	
+	/**
+	 * Returns the value at the given percentile. The value is the highest
+	 * value of the bucket that contains the percentile, so it is never lower
+	 * than the exact value.
+	 * 
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return The value or 0 if no value was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if ((percentile < 0) || (percentile > 100)) {
+			throw new IllegalArgumentException("Invalid percentile.");
+		}
+		long [] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long)Math.ceil(count * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return Math.min(getHighestValue(i), getMax());
+			}
+		}
+		return getMax();
+	}
+	
+	/**
+	 * Clears all recorded values. Values recorded concurrently with this
+	 * method may be partially cleared.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		total.reset();
+		max.set(0);
+	}
+}
@@ -57,6 +57,23 @@ public class Shredder {
 		}
 	}
 
+	/**
+	 * This method shreds a region of a given byte array. It
+	 * does nothing if value is null.
+	 * 
+	 * @param value The array to be shredded.
+	 * @param offset The offset of the region.
+	 * @param size The size of the region.
+	 * @since 2026.10.17
+	 */
+	public static void shred(byte [] value, int offset, int size) {
+		if (value != null) {
+			for (int i = offset; i < offset + size; i++) {
+				value[i] = (byte)0;
+			}
+		}
+	}
+
 	/**
 	 * This method shreds the contents of a given char array. It
 	 * does nothing if value is null.
@@ -71,6 +88,23 @@ public class Shredder {
 		}
 	}
 
+	/**
+	 * This method shreds a region of a given char array. It
+	 * does nothing if value is null.
+	 * 
+	 * @param value The array to be shredded.
+	 * @param offset The offset of the region.
+	 * @param size The size of the region.
+	 * @since 2026.10.17
+	 */
+	public static void shred(char [] value, int offset, int size) {
+		if (value != null) {
+			for (int i = offset; i < offset + size; i++) {
+				value[i] = (char)0;
+			}
+		}
+	}
+
 	/**
 	 * This method shreds the contents of a given byte buffer. It
 	 * does nothing if value is null.
@@ -0,0 +1,263 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.util;
+
+/**
+ * This class implements a UTF-8 transcoder that works directly with caller
+ * supplied arrays. It has a fast path for ASCII characters and does not
+ * allocate any memory, thus it is suitable to encode and decode secrets without
+ * leaving copies behind.
+ * 
+ * <p>Invalid inputs are handled in the same way as the default behavior of
+ * {@link java.nio.charset.StandardCharsets#UTF_8}: unpaired surrogates are
+ * encoded as '?' and malformed sequences are decoded as U+FFFD. The number
+ * of U+FFFD follows the JDK, which mostly applies the "maximal subpart" rule
+ * of Unicode with one exception: a well formed 3-byte sequence that encodes
+ * a surrogate (ED A0 80 to ED BF BF) becomes a single U+FFFD instead of one
+ * per byte. The tests compare both behaviors with the JDK.</p>
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+public class UTF8 {
+	
+	/**
+	 * The maximum number of bytes required to encode a single char.
+	 */
+	public static final int MAX_BYTES_PER_CHAR = 3;
+	
+	private static final char REPLACEMENT = '\uFFFD';
+
+	/**
+	 * Returns the exact number of bytes required to encode the given characters.
+	 * 
+	 * @param src The characters.
+	 * @param offset The offset.
+	 * @param length The number of characters.
+	 * @return The number of bytes.
+	 */
+	public static int encodedLength(char [] src, int offset, int length) {
+		int end = offset + length;
+		int size = length;
+		for (int i = offset; i < end; i++) {
+			char c = src[i];
+			if (c >= 0x80) {
+				if (c < 0x800) {
+					size++;
+				} else if (Character.isHighSurrogate(c) && (i + 1 < end) && Character.isLowSurrogate(src[i + 1])) {
+					// 2 chars, 4 bytes
+					size += 2;
+					i++;
+				} else if (Character.isSurrogate(c)) {
+					// Replaced by '?'
+				} else {
+					size += 2;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Encodes the given characters. The destination must have at least
+	 * {@link #encodedLength(char[], int, int)} bytes (or
+	 * length * {@link #MAX_BYTES_PER_CHAR}) after dstOffset.
+	 * 
+	 * @param src The characters.
+	 * @param offset The offset.
+	 * @param length The number of characters.
+	 * @param dst The destination.
+	 * @param dstOffset The offset of the destination.
+	 * @return The number of bytes written.
+	 */
+	public static int encode(char [] src, int offset, int length, byte [] dst, int dstOffset) {
+		int end = offset + length;
+		int i = offset;
+		int d = dstOffset;
+		
+		// ASCII fast path
+		int asciiEnd = Math.min(end, offset + (dst.length - dstOffset));
+		while ((i < asciiEnd) && (src[i] < 0x80)) {
+			dst[d++] = (byte)src[i++];
+		}
+		
+		while (i < end) {
+			char c = src[i++];
+			if (c < 0x80) {
+				dst[d++] = (byte)c;
+			} else if (c < 0x800) {
+				dst[d++] = (byte)(0xC0 | (c >> 6));
+				dst[d++] = (byte)(0x80 | (c & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && (i < end) && Character.isLowSurrogate(src[i])) {
+					int cp = Character.toCodePoint(c, src[i++]);
+					dst[d++] = (byte)(0xF0 | (cp >> 18));
+					dst[d++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+					dst[d++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+					dst[d++] = (byte)(0x80 | (cp & 0x3F));
+				} else {
+					dst[d++] = (byte)'?';
+				}
+			} else {
+				dst[d++] = (byte)(0xE0 | (c >> 12));
+				dst[d++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+				dst[d++] = (byte)(0x80 | (c & 0x3F));
+			}
+		}
+		return d - dstOffset;
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * Decodes the given bytes. The decoded value never has more characters
+	 * than the number of bytes, thus a destination with at least length
+	 * characters is always large enough.
+	 * 
+	 * @param src The bytes.
+	 * @param offset The offset.
+	 * @param length The number of bytes.
+	 * @param dst The destination.
+	 * @param dstOffset The offset of the destination.
+	 * @param dstLength The space available in the destination.
+	 * @return The number of characters written or -1 if the destination is too small.
+	 * In this case, the contents of the destination are undefined and should be
+	 * shredded.
+	 */
+	public static int decode(byte [] src, int offset, int length, char [] dst, int dstOffset, int dstLength) {
+		int end = offset + length;
+		int dstEnd = dstOffset + dstLength;
+		int i = offset;
+		int d = dstOffset;
+		
+		// ASCII fast path
+		int asciiEnd = Math.min(end, offset + dstLength);
+		while ((i < asciiEnd) && (src[i] >= 0)) {
+			dst[d++] = (char)src[i++];
+		}
+		
+		while (i < end) {
+			if (d == dstEnd) {
+				return -1;
+			}
+			int b = src[i];
+			if (b >= 0) {
+				dst[d++] = (char)b;
+				i++;
+			} else if ((b & 0xE0) == 0xC0) {
+				// 2 bytes
+				if ((b & 0xFF) < 0xC2 || (i + 1 >= end) || !isContinuation(src[i + 1])) {
+					dst[d++] = REPLACEMENT;
+					i++;
+				} else {
+					dst[d++] = (char)(((b & 0x1F) << 6) | (src[i + 1] & 0x3F));
+					i += 2;
+				}
+			} else if ((b & 0xF0) == 0xE0) {
+				// 3 bytes
+				int n = validPrefix3(src, i, end);
+				if (n < 3) {
+					dst[d++] = REPLACEMENT;
+					i += n;
+				} else {
+					char c = (char)(((b & 0x0F) << 12) | ((src[i + 1] & 0x3F) << 6) | (src[i + 2] & 0x3F));
+					dst[d++] = Character.isSurrogate(c) ? REPLACEMENT : c;
+					i += 3;
+				}
+			} else if ((b & 0xF8) == 0xF0) {
+				// 4 bytes
+				int n = validPrefix4(src, i, end);
+				if (n < 4) {
+					dst[d++] = REPLACEMENT;
+					i += n;
+				} else {
+					if (d + 1 == dstEnd) {
+						return -1;
+					}
+					int cp = ((b & 0x07) << 18) | ((src[i + 1] & 0x3F) << 12) | 
+							((src[i + 2] & 0x3F) << 6) | (src[i + 3] & 0x3F);
+					dst[d++] = Character.highSurrogate(cp);
+					dst[d++] = Character.lowSurrogate(cp);
+					i += 4;
+				}
+			} else {
+				dst[d++] = REPLACEMENT;
+				i++;
+			}
+		}
+		return d - dstOffset;
+	}
+	
+	/**
+	 * Returns the number of bytes of a valid 3-byte sequence. It rejects
+	 * overlong encodings. Encoded surrogates are rejected by the caller as a
+	 * whole sequence.
+	 */
+	private static int validPrefix3(byte [] src, int i, int end) {
+		if ((i + 1 >= end) || !isContinuation(src[i + 1])) {
+			return 1;
+		}
+		int b0 = src[i] & 0xFF;
+		int b1 = src[i + 1] & 0xFF;
+		if ((b0 == 0xE0) && (b1 < 0xA0)) {
+			return 1;
+		}
+		if ((i + 2 >= end) || !isContinuation(src[i + 2])) {
+			return 2;
+		}
+		return 3;
+	}
+
+	/**
+	 * Returns the number of bytes of a valid 4-byte sequence. It rejects
+	 * overlong encodings and code points above U+10FFFF.
+	 */
+	private static int validPrefix4(byte [] src, int i, int end) {
+		int b0 = src[i] & 0xFF;
+		if ((b0 > 0xF4) || (i + 1 >= end) || !isContinuation(src[i + 1])) {
+			return 1;
+		}
+		int b1 = src[i + 1] & 0xFF;
+		if (((b0 == 0xF0) && (b1 < 0x90)) || ((b0 == 0xF4) && (b1 >= 0x90))) {
+			return 1;
+		}
+		if ((i + 2 >= end) || !isContinuation(src[i + 2])) {
+			return 2;
+		}
+		if ((i + 3 >= end) || !isContinuation(src[i + 3])) {
+			return 3;
+		}
+		return 4;
+	}
+}
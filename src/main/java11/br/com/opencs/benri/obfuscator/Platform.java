@@ -0,0 +1,75 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Open Communications Security 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * Neither the name of the copyright holder nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package br.com.opencs.benri.obfuscator;
+
+import java.lang.ref.Reference;
+import java.security.DrbgParameters;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * This is the Java 11 version of the platform internals. It creates
+ * independent DRBG instances instead of the default
+ * <code>NativePRNG</code>, whose instances share a single global lock, and
+ * knows that ChaCha20-Poly1305 is always available.
+ * 
+ * @author Fabio Jun Takada Chino
+ * @since 2026.10.17
+ */
+final class Platform {
+	
+	static final int VERSION = 11;
+	
+	private Platform() {
+	}
+	
+	static SecureRandom newSecureRandom() {
+		try {
+			return SecureRandom.getInstance("DRBG",
+					DrbgParameters.instantiation(256, DrbgParameters.Capability.NONE, null));
+		} catch (GeneralSecurityException e) {
+			return new SecureRandom();
+		}
+	}
+	
+	static boolean isVirtualThread() {
+		return false;
+	}
+	
+	static boolean isChaChaSupported() {
+		return true;
+	}
+	
+	static void reachabilityFence(Object o) {
+		Reference.reachabilityFence(o);
+	}
+}
@@ -0,0 +1,120 @@
+package br.com.opencs.benri;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class loader that resolves the library classes the same way a JVM of a
+ * given version resolves them inside the multi-release JAR. It is used to
+ * run the tests against every variant that the current JVM can execute,
+ * since the tests themselves run against the base classes.
+ */
+public class MultiReleaseClassLoader extends ClassLoader {
+	
+	private static final String PACKAGE = "br.com.opencs.benri.";
+	
+	private final List<File> roots = new ArrayList<File>();
+	
+	public MultiReleaseClassLoader(int version) {
+		super(MultiReleaseClassLoader.class.getClassLoader());
+		File base = getClassesDir();
+		for (int v = version; v > 8; v--) {
+			File dir = getVersionDir(base, v);
+			if (dir.isDirectory()) {
+				roots.add(dir);
+			}
+		}
+		roots.add(base);
+	}
+	
+	/**
+	 * Returns the versions that must be tested in this JVM: 8 plus every
+	 * versioned directory that the current JVM is able to load.
+	 */
+	public static List<Integer> getVersions() {
+		List<Integer> versions = new ArrayList<Integer>();
+		versions.add(8);
+		File base = getClassesDir();
+		int current = getCurrentVersion();
+		for (int v = 9; v <= current; v++) {
+			if (getVersionDir(base, v).isDirectory()) {
+				versions.add(v);
+			}
+		}
+		return versions;
+	}
+	
+	public static int getCurrentVersion() {
+		String spec = System.getProperty("java.specification.version");
+		if (spec.startsWith("1.")) {
+			spec = spec.substring(2);
+		}
+		return Integer.parseInt(spec);
+	}
+	
+	private static File getVersionDir(File base, int version) {
+		return new File(base, "META-INF/versions/" + version);
+	}
+	
+	private static File getClassesDir() {
+		try {
+			return new File(br.com.opencs.benri.util.Shredder.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> c = findLoadedClass(name);
+			if ((c == null) && name.startsWith(PACKAGE)) {
+				c = findLocalClass(name);
+			}
+			if (c == null) {
+				return super.loadClass(name, resolve);
+			}
+			if (resolve) {
+				resolveClass(c);
+			}
+			return c;
+		}
+	}
+	
+	private Class<?> findLocalClass(String name) throws ClassNotFoundException {
+		String path = name.replace('.', '/') + ".class";
+		for (File root: roots) {
+			File f = new File(root, path);
+			if (f.isFile()) {
+				try {
+					byte [] b = readAll(f);
+					return defineClass(name, b, 0, b.length);
+				} catch (IOException e) {
+					throw new ClassNotFoundException(name, e);
+				}
+			}
+		}
+		return null;
+	}
+	
+	private static byte [] readAll(File f) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		InputStream in = new FileInputStream(f);
+		try {
+			byte [] buff = new byte[4096];
+			int r;
+			while ((r = in.read(buff)) > 0) {
+				out.write(buff, 0, r);
+			}
+		} finally {
+			in.close();
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,125 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class ChaChaStringObfuscatorTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	private static SecretKey key(int seed) {
+		byte [] k = new byte[32];
+		k[0] = (byte)seed;
+		return new SecretKeySpec(k, "AES");
+	}
+	
+	@Test
+	public void testObfuscate() throws Exception {
+		assumeTrue(ChaChaStringObfuscator.isSupported());
+		ChaChaStringObfuscator o = new ChaChaStringObfuscator(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		for (int len = 0; len < 100; len++) {
+			char [] value = new char[len];
+			Arrays.fill(value, 'x');
+			String s = o.obfuscate(value);
+			assertTrue(s.startsWith(ChaChaStringObfuscator.HEADER));
+			assertArrayEquals(value, o.deobfuscate(s));
+		}
+		byte [] value = "value".getBytes(StandardCharsets.UTF_8);
+		assertArrayEquals(value, o.open(o.seal(value)));
+		
+		// Wrong key and other formats
+		try {
+			new ChaChaStringObfuscator(key(1)).deobfuscate(o.obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+		try {
+			o.deobfuscate(new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD).obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+		
+		// Tampered header
+		String s = o.obfuscate(SAMPLE_PASSWORD);
+		// The same value can be deobfuscated repeatedly
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(s));
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(s));
+		try {
+			o.deobfuscate("CCP2" + s.substring(4));
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testAdaptive() throws Exception {
+		AdaptiveStringObfuscator a = new AdaptiveStringObfuscator(key(1));
+		assertNotNull(a.getEngine());
+		// The benchmark runs only once per JVM
+		assertSame(a.getEngine(), new AdaptiveStringObfuscator(key(2)).getEngine());
+		assertArrayEquals(SAMPLE_PASSWORD, a.deobfuscate(a.obfuscate(SAMPLE_PASSWORD)));
+		
+		AdaptiveStringObfuscator forced = new AdaptiveStringObfuscator(key(1), AdaptiveStringObfuscator.Engine.AES_GCM);
+		assertEquals(AdaptiveStringObfuscator.Engine.AES_GCM, forced.getEngine());
+		String gcm = forced.obfuscate(SAMPLE_PASSWORD);
+		assertTrue(gcm.startsWith(StringObfuscatorImpl.HEADER));
+		assertArrayEquals(SAMPLE_PASSWORD, a.deobfuscate(gcm));
+		
+		// The raw key is never used directly
+		try {
+			new StringObfuscatorImpl(key(1)).deobfuscate(gcm);
+			fail();
+		} catch (StringObfuscatorException e) {}
+		try {
+			a.deobfuscate(new StringObfuscatorImpl(key(1)).obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+		StringObfuscatorImpl aesSubkey = new StringObfuscatorImpl(
+				KeyHierarchy.hkdf(key(1), null, AdaptiveStringObfuscator.AES_GCM_KEY_INFO, "AES"));
+		assertArrayEquals(SAMPLE_PASSWORD, aesSubkey.deobfuscate(gcm));
+		
+		if (ChaChaStringObfuscator.isSupported()) {
+			forced = new AdaptiveStringObfuscator(key(1), AdaptiveStringObfuscator.Engine.CHACHA20_POLY1305);
+			String chacha = forced.obfuscate(SAMPLE_PASSWORD);
+			assertTrue(chacha.startsWith(ChaChaStringObfuscator.HEADER));
+			assertArrayEquals(SAMPLE_PASSWORD, a.deobfuscate(chacha));
+			assertArrayEquals(SAMPLE_PASSWORD, forced.deobfuscate(gcm));
+			
+			// Each algorithm has its own subkey
+			try {
+				new ChaChaStringObfuscator(KeyHierarchy.hkdf(key(1), null, AdaptiveStringObfuscator.AES_GCM_KEY_INFO, "AES")).deobfuscate(chacha);
+				fail();
+			} catch (StringObfuscatorException e) {}
+			assertArrayEquals(SAMPLE_PASSWORD, new ChaChaStringObfuscator(KeyHierarchy.hkdf(key(1), null,
+					AdaptiveStringObfuscator.CHACHA20_POLY1305_KEY_INFO, "AES")).deobfuscate(chacha));
+		} else {
+			assertEquals(AdaptiveStringObfuscator.Engine.AES_GCM, a.getEngine());
+		}
+	}
+	
+	@Test
+	public void testAdaptivePassword() throws Exception {
+		AdaptiveStringObfuscator a = new AdaptiveStringObfuscator(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		String obfuscated = a.obfuscate(SAMPLE_PASSWORD);
+		
+		// The caller's keys are never destroyed
+		DestroyableSecretKey master = AdaptiveStringObfuscator.deriveKey(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		AdaptiveStringObfuscator b = new AdaptiveStringObfuscator(master);
+		assertFalse(master.isDestroyed());
+		assertArrayEquals(SAMPLE_PASSWORD, b.deobfuscate(obfuscated));
+		master.destroy();
+		assertArrayEquals(SAMPLE_PASSWORD, b.deobfuscate(obfuscated));
+	}
+}
@@ -0,0 +1,133 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class CompactStringObfuscatorTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	private static SecretKey key(int seed) {
+		byte [] k = new byte[32];
+		k[0] = (byte)seed;
+		return new SecretKeySpec(k, "AES");
+	}
+	
+	@Test
+	public void testObfuscate() throws Exception {
+		for (int tagSize: new int[] {128, 120, 112, 96}) {
+			for (int keyId = 0; keyId <= CompactStringObfuscator.MAX_KEY_ID; keyId++) {
+				CompactStringObfuscator o = new CompactStringObfuscator(key(1), keyId, tagSize, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+				for (int len = 0; len < 40; len++) {
+					char [] value = new char[len];
+					for (int i = 0; i < len; i++) {
+						value[i] = (char)('a' + i % 26);
+					}
+					String s = o.obfuscate(value);
+					assertNotEquals('G', s.charAt(0));
+					assertEquals(-1, s.indexOf('='));
+					assertEquals(CompactStringObfuscator.outputLength(len, tagSize), s.length());
+					assertEquals(keyId, CompactStringObfuscator.getKeyId(s));
+					assertArrayEquals(value, o.deobfuscate(s));
+				}
+			}
+		}
+		// Smaller than GCM1
+		assertEquals(60, CompactStringObfuscator.outputLength(16, 128));
+		assertEquals(55, CompactStringObfuscator.outputLength(16, 96));
+		assertEquals(68, StringObfuscatorImpl.outputLength(16));
+	}
+	
+	@Test
+	public void testCompatibility() throws Exception {
+		CompactStringObfuscator o = new CompactStringObfuscator(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		StringObfuscatorImpl old = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		
+		// GCM1 values are still accepted
+		String legacy = old.obfuscate(SAMPLE_PASSWORD);
+		assertEquals(-1, CompactStringObfuscator.getKeyId(legacy));
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(legacy));
+		assertArrayEquals(SAMPLE_PASSWORD, o.openChars(old.seal(SAMPLE_PASSWORD)));
+		
+		// But GCM1 does not accept GCM2
+		try {
+			old.deobfuscate(o.obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testHeaderAuthenticated() throws Exception {
+		CompactStringObfuscator o1 = new CompactStringObfuscator(key(1), 1, 96, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		CompactStringObfuscator o2 = new CompactStringObfuscator(key(1), 2, 96, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		CompactStringObfuscator o3 = new CompactStringObfuscator(key(1), 1, 128, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		String s = o1.obfuscate(SAMPLE_PASSWORD);
+		try {
+			o2.deobfuscate(s);
+			fail();
+		} catch (StringObfuscatorException e) {}
+		try {
+			o3.deobfuscate(s);
+			fail();
+		} catch (StringObfuscatorException e) {}
+		
+		// Changing the key id in the binary form is detected
+		byte [] sealed = o1.seal(SAMPLE_PASSWORD);
+		sealed[0] ^= 3;
+		try {
+			o2.open(sealed);
+			fail();
+		} catch (StringObfuscatorException e) {}
+		
+		// Invalid values
+		for (String v: new String[] {"", "g", "gA", "!!!!", s.substring(0, 10)}) {
+			try {
+				o1.deobfuscate(v);
+				fail(v);
+			} catch (StringObfuscatorException e) {}
+		}
+	}
+	
+	@Test
+	public void testBinary() throws Exception {
+		CompactStringObfuscator o = new CompactStringObfuscator(key(3), 5, 112, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		byte [] value = "value".getBytes(StandardCharsets.UTF_8);
+		byte [] sealed = o.seal(value);
+		assertEquals(CompactStringObfuscator.sealedLength(value.length, 112), sealed.length);
+		assertArrayEquals(value, o.open(sealed));
+		
+		// String and binary forms are interchangeable
+		String s = Base64.getUrlEncoder().withoutPadding().encodeToString(sealed);
+		assertArrayEquals("value".toCharArray(), o.deobfuscate(s));
+		
+		ByteBuffer in = ByteBuffer.allocateDirect(100);
+		ByteBuffer out = ByteBuffer.allocateDirect(100);
+		in.put(value).flip();
+		assertEquals(sealed.length, o.seal(in, out));
+		out.flip();
+		ByteBuffer plain = ByteBuffer.allocate(100);
+		assertEquals(value.length, o.open(out, plain));
+		
+		// Invalid tag size and key id
+		try {
+			new CompactStringObfuscator(key(3), 16, 128, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+			fail();
+		} catch (IllegalArgumentException e) {}
+		try {
+			new CompactStringObfuscator(key(3), 0, 64, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+			fail();
+		} catch (IllegalArgumentException e) {}
+	}
+}
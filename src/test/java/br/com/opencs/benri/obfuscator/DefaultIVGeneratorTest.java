@@ -0,0 +1,99 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class DefaultIVGeneratorTest {
+
+	@Test
+	public void testGenerate() {
+		DefaultIVGenerator g = new DefaultIVGenerator();
+		byte [] iv1 = new byte[16];
+		byte [] iv2 = new byte[16];
+		
+		g.generate(iv1, 0, iv1.length);
+		g.generate(iv2, 0, iv2.length);
+		assertFalse(Arrays.equals(iv1, iv2));
+		assertFalse(Arrays.equals(new byte[16], iv1));
+	}
+
+	@Test
+	public void testGenerateOffset() {
+		DefaultIVGenerator g = new DefaultIVGenerator();
+		byte [] iv = new byte[20];
+		
+		g.generate(iv, 2, 16);
+		assertArrayEquals(new byte[2], Arrays.copyOfRange(iv, 0, 2));
+		assertArrayEquals(new byte[2], Arrays.copyOfRange(iv, 18, 20));
+		assertFalse(Arrays.equals(new byte[16], Arrays.copyOfRange(iv, 2, 18)));
+	}
+	
+	@Test
+	public void testGenerateMultiThread() throws Exception {
+		final DefaultIVGenerator g = new DefaultIVGenerator();
+		final Set<String> ivs = Collections.synchronizedSet(new HashSet<String>());
+		
+		Thread [] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					byte [] iv = new byte[16];
+					for (int j = 0; j < 1000; j++) {
+						g.generate(iv, 0, iv.length);
+						ivs.add(Arrays.toString(iv));
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread t: threads) {
+			t.join();
+		}
+		assertEquals(4000, ivs.size());
+	}
+
+	private static long allocated(DefaultIVGenerator g, byte [] iv, int offset, int size, int count) {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		long start = bean.getThreadAllocatedBytes(id);
+		for (int i = 0; i < count; i++) {
+			g.generate(iv, offset, size);
+		}
+		return bean.getThreadAllocatedBytes(id) - start;
+	}
+	
+	@Test
+	public void testGenerateOffsetAllocation() {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		assumeTrue(bean.isThreadAllocatedMemorySupported());
+		bean.setThreadAllocatedMemoryEnabled(true);
+		
+		DefaultIVGenerator g = new DefaultIVGenerator();
+		byte [] iv = new byte[16];
+		byte [] sealed = new byte[64];
+		int count = 10000;
+		for (int i = 0; i < 3; i++) {
+			allocated(g, iv, 0, iv.length, count);
+			allocated(g, sealed, 4, iv.length, count);
+		}
+		// The slice must cost the same as the whole array. Whatever the
+		// SecureRandom allocates is present in both.
+		long whole = allocated(g, iv, 0, iv.length, count);
+		long slice = allocated(g, sealed, 4, iv.length, count);
+		assertTrue(whole + " < " + slice, slice < whole + count * 8);
+	}
+}
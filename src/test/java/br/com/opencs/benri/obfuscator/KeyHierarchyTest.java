@@ -0,0 +1,145 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class KeyHierarchyTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	private static byte [] hex(String s) {
+		byte [] ret = new byte[s.length() / 2];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = (byte)Integer.parseInt(s.substring(i * 2, i * 2 + 2), 16);
+		}
+		return ret;
+	}
+	
+	@Test
+	public void testHKDF() throws Exception {
+		// RFC 5869, test case 1
+		byte [] ikm = hex("0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b");
+		byte [] salt = hex("000102030405060708090a0b0c");
+		byte [] info = hex("f0f1f2f3f4f5f6f7f8f9");
+		byte [] prk = KeyHierarchy.hkdfExtract(salt, ikm);
+		assertArrayEquals(hex("077709362c2e32df0ddc3f0dc47bba6390b6c73bb50f9c3122ec844ad7c2b3e5"), prk);
+		byte [] okm = KeyHierarchy.hkdfExpand(new SecretKeySpec(prk, "HmacSHA256"), info, 42);
+		assertArrayEquals(hex("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf34007208d5b887185865"), okm);
+	}
+	
+	@Test
+	public void testGet() throws Exception {
+		KeyHierarchy h = new KeyHierarchy(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		StringObfuscatorImpl a = h.get("tenant-a");
+		StringObfuscatorImpl b = h.get("tenant-b");
+		assertSame(a, h.get("tenant-a"));
+		assertEquals(2, h.size());
+		assertFalse(Arrays.equals(h.deriveKey("tenant-a"), h.deriveKey("tenant-b")));
+		
+		// Subkeys are isolated
+		String obfuscated = a.obfuscate(SAMPLE_PASSWORD);
+		assertArrayEquals(SAMPLE_PASSWORD, a.deobfuscate(obfuscated));
+		try {
+			b.deobfuscate(obfuscated);
+			fail();
+		} catch (StringObfuscatorException e) {}
+		
+		// Same master key, same subkeys
+		KeyHierarchy h2 = new KeyHierarchy(new SecretKeySpec(StringObfuscatorImpl.generateKey(SAMPLE_SALT, 1000, SAMPLE_PASSWORD, 256), "AES"));
+		assertArrayEquals(SAMPLE_PASSWORD, h2.get("tenant-a").deobfuscate(obfuscated));
+		
+		h.destroy();
+		assertEquals(0, h.size());
+		try {
+			h.get("tenant-a");
+			fail();
+		} catch (IllegalStateException e) {}
+		// Already returned obfuscators are still usable
+		assertArrayEquals(SAMPLE_PASSWORD, a.deobfuscate(obfuscated));
+	}
+	
+	@Test
+	public void testBounded() throws Exception {
+		KeyHierarchy h = new KeyHierarchy(new SecretKeySpec(new byte[32], "AES"), 16, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		for (int i = 0; i < 100; i++) {
+			StringObfuscatorImpl o = h.get("tenant-" + i);
+			assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(o.obfuscate(SAMPLE_PASSWORD)));
+		}
+		assertEquals(16, h.size());
+		
+		// Evicted contexts get the same key again
+		String obfuscated = h.get("tenant-0").obfuscate(SAMPLE_PASSWORD);
+		for (int i = 1; i < 100; i++) {
+			h.get("tenant-" + i);
+		}
+		assertArrayEquals(SAMPLE_PASSWORD, h.get("tenant-0").deobfuscate(obfuscated));
+	}
+	
+	@Test
+	public void testLeastRecentlyUsed() throws Exception {
+		KeyHierarchy h = new KeyHierarchy(new SecretKeySpec(new byte[32], "AES"), 16, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		StringObfuscatorImpl first = h.get("tenant-0");
+		StringObfuscatorImpl second = h.get("tenant-1");
+		for (int i = 2; i < 16; i++) {
+			h.get("tenant-" + i);
+		}
+		Thread.sleep(1);
+		assertSame(first, h.get("tenant-0"));
+		// tenant-1 is now the least recently used
+		h.get("tenant-16");
+		assertEquals(16, h.size());
+		assertSame(first, h.get("tenant-0"));
+		assertNotSame(second, h.get("tenant-1"));
+	}
+	
+	@Test
+	public void testSharedWorkspace() throws Exception {
+		final KeyHierarchy h = new KeyHierarchy(new SecretKeySpec(new byte[32], "AES"), 16, StringObfuscatorImpl.DEFAULT_IV_GENERATOR);
+		final String [] obfuscated = new String[4];
+		for (int i = 0; i < obfuscated.length; i++) {
+			obfuscated[i] = h.get("tenant-" + i).obfuscate(SAMPLE_PASSWORD);
+		}
+		final Throwable [] errors = new Throwable[4];
+		Thread [] threads = new Thread[errors.length];
+		for (int t = 0; t < threads.length; t++) {
+			final int id = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						// Switches the context on every call
+						for (int i = 0; i < 200; i++) {
+							int c = (i + id) % obfuscated.length;
+							StringObfuscatorImpl o = h.get("tenant-" + c);
+							assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(obfuscated[c]));
+							assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(o.obfuscate(SAMPLE_PASSWORD)));
+							try {
+								o.deobfuscate(obfuscated[(c + 1) % obfuscated.length]);
+								fail();
+							} catch (StringObfuscatorException e) {}
+						}
+					} catch (Throwable e) {
+						errors[id] = e;
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].join();
+			assertNull(errors[t]);
+		}
+	}
+}
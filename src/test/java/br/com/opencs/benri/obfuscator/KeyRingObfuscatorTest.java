@@ -0,0 +1,164 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+import br.com.opencs.benri.util.Base64URL;
+
+public class KeyRingObfuscatorTest {
+
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+	
+	private static SecretKey key(int seed) {
+		byte [] k = new byte[32];
+		k[0] = (byte)seed;
+		return new SecretKeySpec(k, "AES");
+	}
+	
+	@Test
+	public void testRotation() throws Exception {
+		Map<Integer, SecretKey> keys = new HashMap<Integer, SecretKey>();
+		keys.put(1, key(1));
+		KeyRingObfuscator r1 = new KeyRingObfuscator(keys, 1);
+		String v1 = r1.obfuscate(SAMPLE_PASSWORD);
+		assertTrue(v1.startsWith(KeyRingObfuscator.HEADER));
+		assertEquals(1, KeyRingObfuscator.getKeyId(v1));
+		
+		keys.put(200, key(200));
+		KeyRingObfuscator r2 = new KeyRingObfuscator(keys, 200);
+		String v2 = r2.obfuscate(SAMPLE_PASSWORD);
+		assertEquals(200, KeyRingObfuscator.getKeyId(v2));
+		assertEquals(200, r2.getPrimaryKeyId());
+		assertArrayEquals(SAMPLE_PASSWORD, r2.deobfuscate(v1));
+		assertArrayEquals(SAMPLE_PASSWORD, r2.deobfuscate(v2));
+		
+		// Unknown key
+		try {
+			r1.deobfuscate(v2);
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals("Unknown key id 200.", e.getMessage());
+			assertEquals(FailureReason.UNKNOWN_KEY, e.getReason());
+		}
+		
+		// The key id is authenticated
+		keys.put(2, key(1));
+		KeyRingObfuscator r3 = new KeyRingObfuscator(keys, 2);
+		String v3 = r3.obfuscate(SAMPLE_PASSWORD);
+		assertEquals(2, KeyRingObfuscator.getKeyId(v3));
+		char [] tampered = v3.toCharArray();
+		// 2 -> 1: 000000|10 -> 000000|01
+		tampered[5] = ALPHABET.charAt(Base64URL.valueOf(tampered[5]) - 16);
+		assertEquals(1, KeyRingObfuscator.getKeyId(new String(tampered)));
+		try {
+			r3.deobfuscate(new String(tampered));
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testLegacy() throws Exception {
+		Map<Integer, SecretKey> keys = new HashMap<Integer, SecretKey>();
+		keys.put(0, key(0));
+		keys.put(1, key(1));
+		keys.put(2, key(2));
+		KeyRingObfuscator r = new KeyRingObfuscator(keys, 2);
+		
+		for (int i = 0; i < 3; i++) {
+			String v = new StringObfuscatorImpl(key(i)).obfuscate(SAMPLE_PASSWORD);
+			assertEquals(-1, KeyRingObfuscator.getKeyId(v));
+			assertArrayEquals(SAMPLE_PASSWORD, r.deobfuscate(v));
+		}
+		try {
+			r.deobfuscate(new StringObfuscatorImpl(key(3)).obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+		try {
+			r.deobfuscate("XXXX");
+			fail();
+		} catch (StringObfuscatorException e) {}
+		// Malformed values are rejected without trying the other keys
+		String v = new StringObfuscatorImpl(key(0)).obfuscate(SAMPLE_PASSWORD);
+		try {
+			r.deobfuscate(v.substring(0, StringObfuscatorImpl.HEADER.length()) + "!" + v.substring(StringObfuscatorImpl.HEADER.length() + 1));
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals(FailureReason.INVALID_FORMAT, e.getReason());
+		}
+		try {
+			r.deobfuscate(v.substring(0, StringObfuscatorImpl.HEADER.length() + 4));
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals(FailureReason.INVALID_FORMAT, e.getReason());
+		}
+		try {
+			r.deobfuscate(new StringObfuscatorImpl(key(3)).obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals(FailureReason.AUTHENTICATION, e.getReason());
+		}
+		
+		// The GCM1 obfuscator does not accept values with key id and vice versa
+		try {
+			new StringObfuscatorImpl(key(2)).deobfuscate(r.obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+		try {
+			r.get(2).deobfuscate(new StringObfuscatorImpl(key(2)).obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testKeyedBinary() throws Exception {
+		Map<Integer, SecretKey> keys = new HashMap<Integer, SecretKey>();
+		keys.put(7, key(7));
+		KeyRingObfuscator r = new KeyRingObfuscator(keys, 7);
+		StringObfuscatorImpl o = r.get(7);
+		assertNull(r.get(8));
+		assertNull(r.get(-1));
+		
+		byte [] sealed = o.seal(SAMPLE_PASSWORD);
+		assertEquals(StringObfuscatorImpl.sealedLength(8) + 1, sealed.length);
+		assertArrayEquals(SAMPLE_PASSWORD, o.openChars(sealed));
+		// Binary and string forms are interchangeable
+		String s = o.obfuscate(SAMPLE_PASSWORD);
+		assertEquals(Base64.getUrlEncoder().encodeToString(sealed).length(), s.length());
+		assertArrayEquals(SAMPLE_PASSWORD, o.openChars(Base64.getUrlDecoder().decode(s)));
+		
+		try {
+			new KeyRingObfuscator(keys, 1);
+			fail();
+		} catch (IllegalArgumentException e) {}
+		keys.put(256, key(1));
+		try {
+			new KeyRingObfuscator(keys, 7);
+			fail();
+		} catch (IllegalArgumentException e) {}
+		keys.remove(256);
+		keys.put(1, null);
+		try {
+			new KeyRingObfuscator(keys, 7);
+			fail();
+		} catch (IllegalArgumentException e) {}
+		keys.remove(1);
+		keys.put(null, key(1));
+		try {
+			new KeyRingObfuscator(keys, 7);
+			fail();
+		} catch (IllegalArgumentException e) {}
+	}
+}
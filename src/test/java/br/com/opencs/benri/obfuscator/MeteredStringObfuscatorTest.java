@@ -0,0 +1,241 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+import br.com.opencs.benri.obfuscator.ObfuscatorMetrics.Operation;
+
+public class MeteredStringObfuscatorTest {
+
+	private static final char [] SAMPLE = "The quick brown fox".toCharArray();
+	
+	private static SecretKey key(int seed) {
+		byte [] k = new byte[32];
+		k[0] = (byte)seed;
+		return new SecretKeySpec(k, "AES");
+	}
+	
+	private static FailureReason deobfuscate(StringObfuscator o, String value) {
+		try {
+			o.deobfuscate(value);
+			fail();
+			return null;
+		} catch (StringObfuscatorException e) {
+			return e.getReason();
+		}
+	}
+	
+	@Test
+	public void testSuccess() throws Exception {
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		MeteredStringObfuscator o = new MeteredStringObfuscator(new StringObfuscatorImpl(key(1)), metrics);
+		String v = o.obfuscate(SAMPLE);
+		assertArrayEquals(SAMPLE, o.deobfuscate(v));
+		List<String> all = o.obfuscateAll(Arrays.asList(SAMPLE, SAMPLE));
+		o.deobfuscateAll(all);
+		
+		// One sample per batch, plaintext bytes
+		assertEquals(2, metrics.getSuccessCount(Operation.OBFUSCATE));
+		assertEquals(2, metrics.getSuccessCount(Operation.DEOBFUSCATE));
+		assertEquals(3 * SAMPLE.length, metrics.getBytes(Operation.OBFUSCATE));
+		assertEquals(3 * SAMPLE.length, metrics.getBytes(Operation.DEOBFUSCATE));
+		assertEquals(0, metrics.getFailureCount(Operation.DEOBFUSCATE));
+		assertEquals(2, metrics.getLatency(Operation.OBFUSCATE).getCount());
+		assertTrue(metrics.getLatency(Operation.OBFUSCATE).getMax() > 0);
+		assertEquals(0, metrics.getSuccessCount(Operation.GENERATE_KEY));
+	}
+	
+	@Test
+	public void testPlaintextBytes() throws Exception {
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		MeteredStringObfuscator o = new MeteredStringObfuscator(new StringObfuscatorImpl(key(1)), metrics);
+		char [] value = "a\u00e7\u65e5\ud83d\ude00".toCharArray();
+		o.deobfuscate(o.obfuscate(value));
+		assertEquals(1 + 2 + 3 + 4, metrics.getBytes(Operation.OBFUSCATE));
+		assertEquals(1 + 2 + 3 + 4, metrics.getBytes(Operation.DEOBFUSCATE));
+	}
+	
+	@Test
+	public void testBatchDelegation() throws Exception {
+		final AtomicInteger single = new AtomicInteger();
+		final AtomicInteger batches = new AtomicInteger();
+		final StringObfuscatorImpl impl = new StringObfuscatorImpl(key(1));
+		StringObfuscator batching = new StringObfuscator() {
+			@Override
+			public String obfuscate(char[] value) throws StringObfuscatorException {
+				single.incrementAndGet();
+				return impl.obfuscate(value);
+			}
+
+			@Override
+			public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+				single.incrementAndGet();
+				return impl.deobfuscate(obfuscated);
+			}
+
+			@Override
+			public List<String> obfuscateAll(List<char[]> values) throws StringObfuscatorException {
+				batches.incrementAndGet();
+				return impl.obfuscateAll(values);
+			}
+
+			@Override
+			public List<char[]> deobfuscateAll(List<String> values) throws StringObfuscatorException {
+				batches.incrementAndGet();
+				return impl.deobfuscateAll(values);
+			}
+		};
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		MeteredStringObfuscator o = new MeteredStringObfuscator(batching, metrics);
+		List<String> all = o.obfuscateAll(Arrays.asList(SAMPLE, SAMPLE, SAMPLE));
+		assertEquals(3, o.deobfuscateAll(all).size());
+		try {
+			o.deobfuscateAll(Arrays.asList(all.get(0), "GCM1"));
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals(FailureReason.INVALID_FORMAT, e.getReason());
+		}
+		assertEquals(0, single.get());
+		assertEquals(3, batches.get());
+		assertEquals(1, metrics.getSuccessCount(Operation.OBFUSCATE));
+		assertEquals(1, metrics.getSuccessCount(Operation.DEOBFUSCATE));
+		assertEquals(1, metrics.getFailureCount(Operation.DEOBFUSCATE, FailureReason.INVALID_FORMAT));
+		assertEquals(2, metrics.getLatency(Operation.DEOBFUSCATE).getCount());
+		assertEquals(3 * SAMPLE.length, metrics.getBytes(Operation.DEOBFUSCATE));
+		
+		// Disabled
+		metrics.setEnabled(false);
+		o.obfuscateAll(Arrays.asList(SAMPLE));
+		assertEquals(4, batches.get());
+		assertEquals(0, single.get());
+	}
+	
+	@Test
+	public void testFailureReasons() throws Exception {
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		String v = new StringObfuscatorImpl(key(1)).obfuscate(SAMPLE);
+		MeteredStringObfuscator o = new MeteredStringObfuscator(new StringObfuscatorImpl(key(2)), metrics);
+		
+		// Wrong key
+		assertEquals(FailureReason.AUTHENTICATION, deobfuscate(o, v));
+		// Bad input
+		assertEquals(FailureReason.INVALID_FORMAT, deobfuscate(o, "GCM1"));
+		assertEquals(FailureReason.INVALID_FORMAT, deobfuscate(o, "XXXX" + v.substring(4)));
+		assertEquals(FailureReason.INVALID_FORMAT, deobfuscate(o, v.substring(0, 20)));
+		assertEquals(FailureReason.INVALID_FORMAT, deobfuscate(o, v.substring(0, v.length() - 2) + "!!"));
+		
+		assertEquals(1, metrics.getFailureCount(Operation.DEOBFUSCATE, FailureReason.AUTHENTICATION));
+		assertEquals(4, metrics.getFailureCount(Operation.DEOBFUSCATE, FailureReason.INVALID_FORMAT));
+		assertEquals(5, metrics.getFailureCount(Operation.DEOBFUSCATE));
+		assertEquals(0, metrics.getSuccessCount(Operation.DEOBFUSCATE));
+		assertEquals(5, metrics.getLatency(Operation.DEOBFUSCATE).getCount());
+		assertTrue(FailureReason.AUTHENTICATION.isKeyError());
+		assertTrue(!FailureReason.INVALID_FORMAT.isKeyError());
+	}
+	
+	@Test
+	public void testRuntimeException() throws Exception {
+		StringObfuscator broken = new StringObfuscator() {
+			@Override
+			public String obfuscate(char[] value) {
+				throw new IllegalStateException();
+			}
+
+			@Override
+			public char[] deobfuscate(String obfuscated) {
+				throw new IllegalStateException();
+			}
+
+			@Override
+			public List<String> obfuscateAll(List<char[]> values) {
+				throw new IllegalStateException();
+			}
+
+			@Override
+			public List<char[]> deobfuscateAll(List<String> values) {
+				throw new IllegalStateException();
+			}
+		};
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		MeteredStringObfuscator o = new MeteredStringObfuscator(broken, metrics);
+		try {
+			o.obfuscate(SAMPLE);
+			fail();
+		} catch (IllegalStateException e) {}
+		try {
+			o.deobfuscate("GCM1");
+			fail();
+		} catch (IllegalStateException e) {}
+		try {
+			o.obfuscateAll(Arrays.asList(SAMPLE));
+			fail();
+		} catch (IllegalStateException e) {}
+		try {
+			o.deobfuscateAll(Arrays.asList("GCM1"));
+			fail();
+		} catch (IllegalStateException e) {}
+		for (Operation op: new Operation[] {Operation.OBFUSCATE, Operation.DEOBFUSCATE}) {
+			assertEquals(2, metrics.getFailureCount(op, FailureReason.OTHER));
+			assertEquals(2, metrics.getFailureCount(op));
+			assertEquals(0, metrics.getSuccessCount(op));
+			assertEquals(2, metrics.getLatency(op).getCount());
+		}
+	}
+	
+	@Test
+	public void testDisabled() throws Exception {
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		metrics.setEnabled(false);
+		MeteredStringObfuscator o = new MeteredStringObfuscator(new StringObfuscatorImpl(key(1)), metrics);
+		String v = o.obfuscate(SAMPLE);
+		assertArrayEquals(SAMPLE, o.deobfuscate(v));
+		deobfuscate(o, "GCM1");
+		assertEquals(0, metrics.getSuccessCount(Operation.OBFUSCATE));
+		assertEquals(0, metrics.getSuccessCount(Operation.DEOBFUSCATE));
+		assertEquals(0, metrics.getFailureCount(Operation.DEOBFUSCATE));
+		assertEquals(0, metrics.getLatency(Operation.DEOBFUSCATE).getCount());
+		
+		metrics.setEnabled(true);
+		o.obfuscate(SAMPLE);
+		assertEquals(1, metrics.getSuccessCount(Operation.OBFUSCATE));
+		
+		metrics.reset();
+		assertEquals(0, metrics.getSuccessCount(Operation.OBFUSCATE));
+		assertEquals(0, metrics.getLatency(Operation.OBFUSCATE).getCount());
+		
+		// NOOP never records anything
+		MeteredStringObfuscator n = new MeteredStringObfuscator(new StringObfuscatorImpl(key(1)), ObfuscatorMetrics.NOOP);
+		assertArrayEquals(SAMPLE, n.deobfuscate(n.obfuscate(SAMPLE)));
+	}
+	
+	@Test
+	public void testGenerateKey() throws Exception {
+		DefaultObfuscatorMetrics metrics = new DefaultObfuscatorMetrics();
+		KeyDerivationFunction kdf = new MeteredKeyDerivationFunction(new PBKDF2HmacSHA256(), metrics);
+		byte [] salt = new byte[16];
+		StringObfuscatorImpl o = new StringObfuscatorImpl(salt, 1000, "password".toCharArray(), 
+				StringObfuscatorImpl.DEFAULT_IV_GENERATOR, kdf);
+		assertArrayEquals(SAMPLE, o.deobfuscate(o.obfuscate(SAMPLE)));
+		assertEquals(1, metrics.getSuccessCount(Operation.GENERATE_KEY));
+		assertEquals(32, metrics.getBytes(Operation.GENERATE_KEY));
+		
+		try {
+			kdf.deriveKey(salt, 0, "password".toCharArray(), 256);
+			fail();
+		} catch (Exception e) {
+		}
+		assertEquals(1, metrics.getFailureCount(Operation.GENERATE_KEY, FailureReason.OTHER));
+		assertEquals(2, metrics.getLatency(Operation.GENERATE_KEY).getCount());
+	}
+}
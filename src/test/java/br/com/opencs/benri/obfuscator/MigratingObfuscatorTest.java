@@ -0,0 +1,146 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class MigratingObfuscatorTest {
+
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	private static SecretKey key(int seed) {
+		byte [] k = new byte[32];
+		k[0] = (byte)seed;
+		return new SecretKeySpec(k, "AES");
+	}
+	
+	@Test
+	public void testMigration() throws Exception {
+		StringObfuscatorImpl old = new StringObfuscatorImpl(key(1));
+		Map<Integer, SecretKey> keys = new HashMap<Integer, SecretKey>();
+		keys.put(1, key(2));
+		keys.put(2, key(3));
+		KeyRingObfuscator ring1 = new KeyRingObfuscator(Collections.singletonMap(1, key(2)), 1);
+		KeyRingObfuscator ring2 = new KeyRingObfuscator(keys, 2);
+		
+		final Map<String, String> upgraded = new HashMap<String, String>();
+		MigratingObfuscator m = new MigratingObfuscator(ring2, Arrays.asList(old), new MigratingObfuscator.UpgradeListener() {
+			@Override
+			public void upgraded(String oldValue, String newValue) {
+				upgraded.put(oldValue, newValue);
+			}
+		});
+		assertEquals("GCK1:2", m.getCurrentVersion());
+		
+		String v1 = old.obfuscate(SAMPLE_PASSWORD);
+		String v2 = ring1.obfuscate(SAMPLE_PASSWORD);
+		String v3 = m.obfuscate(SAMPLE_PASSWORD);
+		assertEquals("GCM1", MigratingObfuscator.getVersion(v1));
+		assertEquals("GCK1:1", MigratingObfuscator.getVersion(v2));
+		assertEquals("GCK1:2", MigratingObfuscator.getVersion(v3));
+		assertEquals("GCM2:4", MigratingObfuscator.getVersion(
+				new CompactStringObfuscator(key(1), 4, 96, StringObfuscatorImpl.DEFAULT_IV_GENERATOR).obfuscate(SAMPLE_PASSWORD)));
+		
+		assertArrayEquals(SAMPLE_PASSWORD, m.deobfuscate(v1));
+		assertArrayEquals(SAMPLE_PASSWORD, m.deobfuscate(v2));
+		assertArrayEquals(SAMPLE_PASSWORD, m.deobfuscate(v3));
+		assertArrayEquals(SAMPLE_PASSWORD, m.deobfuscate(v3));
+		
+		assertEquals(2, upgraded.size());
+		assertNull(upgraded.get(v3));
+		assertEquals("GCK1:2", MigratingObfuscator.getVersion(upgraded.get(v1)));
+		assertArrayEquals(SAMPLE_PASSWORD, ring2.deobfuscate(upgraded.get(v1)));
+		assertArrayEquals(SAMPLE_PASSWORD, ring2.deobfuscate(upgraded.get(v2)));
+		
+		Map<String, Long> counts = m.getCounts();
+		assertEquals(Long.valueOf(1), counts.get("GCM1"));
+		assertEquals(Long.valueOf(1), counts.get("GCK1:1"));
+		assertEquals(Long.valueOf(2), counts.get("GCK1:2"));
+		assertEquals(2, m.getLegacyCount());
+		assertEquals(2, m.getUpgradeCount());
+		
+		// Explicit upgrade
+		assertSame(v3, m.upgrade(v3));
+		assertTrue(m.upgrade(v1).startsWith(KeyRingObfuscator.HEADER));
+		assertEquals(3, m.getUpgradeCount());
+		
+		// Unknown key
+		try {
+			m.deobfuscate(new StringObfuscatorImpl(key(9)).obfuscate(SAMPLE_PASSWORD));
+			fail();
+		} catch (StringObfuscatorException e) {}
+		assertEquals(3, m.getUpgradeCount());
+	}
+	
+	private static void assertSameFormatRotation(StringObfuscator old, StringObfuscator next, StringObfuscator other) throws Exception {
+		final Map<String, String> upgraded = new HashMap<String, String>();
+		MigratingObfuscator m = new MigratingObfuscator(next, Arrays.asList(old), new MigratingObfuscator.UpgradeListener() {
+			@Override
+			public void upgraded(String oldValue, String newValue) {
+				upgraded.put(oldValue, newValue);
+			}
+		});
+		String v1 = old.obfuscate(SAMPLE_PASSWORD);
+		String v2 = m.obfuscate(SAMPLE_PASSWORD);
+		assertEquals(m.getCurrentVersion(), MigratingObfuscator.getVersion(v1));
+		assertEquals(m.getCurrentVersion(), MigratingObfuscator.getVersion(v2));
+		
+		assertArrayEquals(SAMPLE_PASSWORD, m.deobfuscate(v1));
+		assertArrayEquals(SAMPLE_PASSWORD, m.deobfuscate(v2));
+		assertEquals(1, upgraded.size());
+		assertArrayEquals(SAMPLE_PASSWORD, next.deobfuscate(upgraded.get(v1)));
+		assertEquals(1, m.getLegacyCount());
+		assertEquals(1, m.getUpgradeCount());
+		
+		// Explicit upgrade
+		assertSame(v2, m.upgrade(v2));
+		String u1 = m.upgrade(v1);
+		assertNotEquals(v1, u1);
+		assertArrayEquals(SAMPLE_PASSWORD, next.deobfuscate(u1));
+		assertEquals(2, m.getUpgradeCount());
+		
+		// Neither the current nor the legacy key
+		String v3 = other.obfuscate(SAMPLE_PASSWORD);
+		for (int i = 0; i < 2; i++) {
+			try {
+				if (i == 0) {
+					m.deobfuscate(v3);
+				} else {
+					m.upgrade(v3);
+				}
+				fail();
+			} catch (StringObfuscatorException e) {
+				assertEquals(FailureReason.AUTHENTICATION, e.getReason());
+			}
+		}
+		assertEquals(2, m.getUpgradeCount());
+	}
+	
+	@Test
+	public void testSameFormatRotation() throws Exception {
+		assertSameFormatRotation(new StringObfuscatorImpl(key(1)), new StringObfuscatorImpl(key(2)),
+				new StringObfuscatorImpl(key(3)));
+	}
+	
+	@Test
+	public void testSameCompactKeyIdRotation() throws Exception {
+		IVGenerator iv = StringObfuscatorImpl.DEFAULT_IV_GENERATOR;
+		assertSameFormatRotation(new CompactStringObfuscator(key(1), 3, 96, iv),
+				new CompactStringObfuscator(key(2), 3, 96, iv),
+				new CompactStringObfuscator(key(3), 3, 96, iv));
+	}
+}
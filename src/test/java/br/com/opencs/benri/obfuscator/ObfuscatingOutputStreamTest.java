@@ -0,0 +1,189 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ObfuscatingOutputStreamTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	private static final int SEGMENT_SIZE = 64;
+	private static final int SEGMENT_OVERHEAD = 16;
+	
+	private static StringObfuscatorImpl obfuscator;
+	
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		obfuscator = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+	}
+
+	private static byte [] randomBytes(int size) {
+		byte [] tmp = new byte[size];
+		new Random(size).nextBytes(tmp);
+		return tmp;
+	}
+	
+	private static byte [] obfuscate(byte [] data, boolean singleBytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObfuscatingOutputStream o = obfuscator.createOutputStream(out, SEGMENT_SIZE)) {
+			if (singleBytes) {
+				for (byte b: data) {
+					o.write(b);
+				}
+			} else {
+				o.write(data, 0, data.length / 2);
+				o.flush();
+				o.write(data, data.length / 2, data.length - data.length / 2);
+			}
+		}
+		return out.toByteArray();
+	}
+	
+	private static byte [] deobfuscate(byte [] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = obfuscator.createInputStream(new ByteArrayInputStream(data))) {
+			byte [] buff = new byte[37];
+			int n;
+			while ((n = in.read(buff)) >= 0) {
+				out.write(buff, 0, n);
+			}
+		}
+		return out.toByteArray();
+	}
+	
+	private static void assertInvalid(byte [] data) {
+		try {
+			deobfuscate(data);
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getCause() instanceof StringObfuscatorException);
+		}
+	}
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		for (int size: new int[] {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 3 * SEGMENT_SIZE, 1000}) {
+			byte [] data = randomBytes(size);
+			byte [] enc = obfuscate(data, false);
+			int segments = Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+			assertEquals(ObfuscatingOutputStream.HEADER_SIZE + size + segments * SEGMENT_OVERHEAD, enc.length);
+			assertArrayEquals(data, deobfuscate(enc));
+			assertArrayEquals(data, deobfuscate(obfuscate(data, true)));
+		}
+	}
+
+	@Test
+	public void testReadSingleBytes() throws Exception {
+		byte [] data = randomBytes(200);
+		byte [] enc = obfuscate(data, false);
+		try (InputStream in = obfuscator.createInputStream(new ByteArrayInputStream(enc))) {
+			for (int i = 0; i < data.length; i++) {
+				assertEquals(data[i] & 0xFF, in.read());
+			}
+			assertEquals(-1, in.read());
+			assertEquals(-1, in.read());
+		}
+	}
+	
+	@Test
+	public void testTampering() throws Exception {
+		byte [] data = randomBytes(3 * SEGMENT_SIZE + 10);
+		byte [] enc = obfuscate(data, false);
+		int segment = SEGMENT_SIZE + SEGMENT_OVERHEAD;
+		
+		// Truncated at segment boundaries
+		assertInvalid(Arrays.copyOf(enc, ObfuscatingOutputStream.HEADER_SIZE));
+		assertInvalid(Arrays.copyOf(enc, ObfuscatingOutputStream.HEADER_SIZE + segment));
+		assertInvalid(Arrays.copyOf(enc, ObfuscatingOutputStream.HEADER_SIZE + 3 * segment));
+		assertInvalid(Arrays.copyOf(enc, enc.length - 1));
+		
+		// Extended
+		assertInvalid(Arrays.copyOf(enc, enc.length + 1));
+		
+		// Swapped segments
+		byte [] swapped = enc.clone();
+		System.arraycopy(enc, ObfuscatingOutputStream.HEADER_SIZE, swapped, ObfuscatingOutputStream.HEADER_SIZE + segment, segment);
+		System.arraycopy(enc, ObfuscatingOutputStream.HEADER_SIZE + segment, swapped, ObfuscatingOutputStream.HEADER_SIZE, segment);
+		assertInvalid(swapped);
+		
+		// Modified header and body
+		for (int i: new int[] {0, 5, 10, ObfuscatingOutputStream.HEADER_SIZE + 1, enc.length - 1}) {
+			byte [] modified = enc.clone();
+			modified[i]++;
+			assertInvalid(modified);
+		}
+	}
+	
+	@Test
+	public void testPerStreamSalt() throws Exception {
+		byte [] data = randomBytes(3 * SEGMENT_SIZE);
+		byte [] enc1 = obfuscate(data, false);
+		byte [] enc2 = obfuscate(data, false);
+		int saltOffset = ObfuscatingOutputStream.HEADER_SIZE - ObfuscatingOutputStream.SALT_SIZE;
+		assertFalse(Arrays.equals(
+				Arrays.copyOfRange(enc1, saltOffset, ObfuscatingOutputStream.HEADER_SIZE),
+				Arrays.copyOfRange(enc2, saltOffset, ObfuscatingOutputStream.HEADER_SIZE)));
+		// Same plaintext, counter and flag but different subkeys
+		assertFalse(Arrays.equals(
+				Arrays.copyOfRange(enc1, ObfuscatingOutputStream.HEADER_SIZE, enc1.length),
+				Arrays.copyOfRange(enc2, ObfuscatingOutputStream.HEADER_SIZE, enc2.length)));
+		assertArrayEquals(data, deobfuscate(enc1));
+		assertArrayEquals(data, deobfuscate(enc2));
+		
+		// The salt is bound to the segments
+		byte [] mixed = enc1.clone();
+		System.arraycopy(enc2, saltOffset, mixed, saltOffset, ObfuscatingOutputStream.SALT_SIZE);
+		assertInvalid(mixed);
+	}
+	
+	@Test
+	public void testWrongKey() throws Exception {
+		StringObfuscatorImpl other = new StringObfuscatorImpl(SAMPLE_SALT, 1001, SAMPLE_PASSWORD);
+		byte [] enc = obfuscate(randomBytes(10), false);
+		try {
+			other.createInputStream(new ByteArrayInputStream(enc)).read();
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getCause() instanceof StringObfuscatorException);
+		}
+	}
+	
+	@Test
+	public void testWriterReader() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			sb.append("line ").append(i).append(" ção 日本\n");
+		}
+		String text = sb.toString();
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (Writer w = obfuscator.createWriter(out)) {
+			w.write(text);
+		}
+		
+		StringBuilder ret = new StringBuilder();
+		try (Reader r = obfuscator.createReader(new ByteArrayInputStream(out.toByteArray()))) {
+			char [] buff = new char[1000];
+			int n;
+			while ((n = r.read(buff)) >= 0) {
+				ret.append(buff, 0, n);
+			}
+		}
+		assertEquals(text, ret.toString());
+	}
+}
@@ -0,0 +1,80 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.security.spec.InvalidKeySpecException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PBKDF2HmacSHA256Test {
+
+	private static final byte [] SAMPLE_SALT = {(byte)0x75, (byte)0xB9, (byte)0x1A, (byte)0x68, (byte)0x42, (byte)0xD2, (byte)0x19, (byte)0xF6};
+	
+	private static void assertSameAsJCE(byte [] salt, int iterations, char [] password, int keySize) throws Exception {
+		byte [] expected = new JCEKeyDerivationFunction().deriveKey(salt, iterations, password, keySize);
+		byte [] actual = new PBKDF2HmacSHA256().deriveKey(salt, iterations, password, keySize);
+		assertArrayEquals(expected, actual);
+	}
+	
+	@Test
+	public void testDeriveKey() throws Exception {
+		char [] password = "password".toCharArray();
+		
+		for (int iterations: new int[] {1, 2, 3, 1000}) {
+			assertSameAsJCE(SAMPLE_SALT, iterations, password, 256);
+		}
+		// Partial and multiple blocks
+		for (int keySize: new int[] {8, 128, 248, 264, 512, 768 + 8}) {
+			assertSameAsJCE(SAMPLE_SALT, 10, password, keySize);
+		}
+	}
+	
+	@Test
+	public void testDeriveKeyLengths() throws Exception {
+		Random random = new Random(1234);
+		
+		// Passwords around the HMAC block size and salts around the SHA-256 padding limits
+		for (int size = 1; size < 150; size++) {
+			char [] password = new char[size];
+			for (int i = 0; i < size; i++) {
+				password[i] = (char)(0x20 + random.nextInt(0x5F));
+			}
+			byte [] salt = new byte[size];
+			random.nextBytes(salt);
+			assertSameAsJCE(salt, 5, password, 256);
+		}
+	}
+	
+	@Test
+	public void testDeriveKeyNonASCII() throws Exception {
+		assertSameAsJCE(SAMPLE_SALT, 10, "sénha 日本 😀".toCharArray(), 256);
+		// Unpaired surrogates
+		assertSameAsJCE(SAMPLE_SALT, 10, "a\uD83Db\uDE00".toCharArray(), 256);
+	}
+	
+	@Test
+	public void testNotDefault() throws Exception {
+		// The default must go through the configured JCA provider
+		assertTrue(StringObfuscatorImpl.DEFAULT_KDF instanceof JCEKeyDerivationFunction);
+	}
+	
+	@Test
+	public void testDeriveKeyInvalid() throws Exception {
+		PBKDF2HmacSHA256 kdf = new PBKDF2HmacSHA256();
+		try {
+			kdf.deriveKey(SAMPLE_SALT, 0, "password".toCharArray(), 256);
+			fail();
+		} catch (InvalidKeySpecException e) {}
+		try {
+			kdf.deriveKey(SAMPLE_SALT, 1, "password".toCharArray(), 0);
+			fail();
+		} catch (InvalidKeySpecException e) {}
+		try {
+			kdf.deriveKey(SAMPLE_SALT, 1, "password".toCharArray(), 257);
+			fail();
+		} catch (InvalidKeySpecException e) {}
+	}
+}
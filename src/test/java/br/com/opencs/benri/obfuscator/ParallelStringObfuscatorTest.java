@@ -0,0 +1,119 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelStringObfuscatorTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	private static List<char[]> createValues(int count) {
+		List<char[]> values = new ArrayList<char[]>();
+		for (int i = 0; i < count; i++) {
+			values.add(("value " + i).toCharArray());
+		}
+		return values;
+	}
+	
+	@Test
+	public void testObfuscateDeobfuscate() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		ParallelStringObfuscator p = new ParallelStringObfuscator(o);
+		
+		assertArrayEquals(SAMPLE_PASSWORD, p.deobfuscate(p.obfuscate(SAMPLE_PASSWORD)));
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(p.obfuscate(SAMPLE_PASSWORD)));
+	}
+	
+	@Test
+	public void testObfuscateAllDeobfuscateAll() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ParallelStringObfuscator p = new ParallelStringObfuscator(o, pool, 16);
+			for (int count: new int[] {0, 1, 15, 16, 17, 1000}) {
+				List<char[]> values = createValues(count);
+				List<String> obfuscated = p.obfuscateAll(values);
+				assertEquals(count, obfuscated.size());
+				for (int i = 0; i < count; i++) {
+					assertArrayEquals(values.get(i), o.deobfuscate(obfuscated.get(i)));
+				}
+				List<char[]> deobfuscated = p.deobfuscateAll(obfuscated);
+				assertEquals(count, deobfuscated.size());
+				for (int i = 0; i < count; i++) {
+					assertArrayEquals(values.get(i), deobfuscated.get(i));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testDeobfuscateAllFailure() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		ParallelStringObfuscator p = new ParallelStringObfuscator(o, ForkJoinPool.commonPool(), 16);
+		List<String> obfuscated = new ArrayList<String>(p.obfuscateAll(createValues(1000)));
+		obfuscated.set(500, "GCM1invalid");
+		try {
+			p.deobfuscateAll(obfuscated);
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testDeobfuscateAllFailureWaitsForSlowChunks() throws Exception {
+		final List<char[]> produced = Collections.synchronizedList(new ArrayList<char[]>());
+		StringObfuscator slow = new StringObfuscator() {
+			@Override
+			public String obfuscate(char[] value) throws StringObfuscatorException {
+				return new String(value);
+			}
+
+			@Override
+			public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+				if (obfuscated.equals("bad")) {
+					throw new StringObfuscatorException(FailureReason.INVALID_FORMAT, "Invalid format.");
+				}
+				try {
+					Thread.sleep(200);
+				} catch (InterruptedException e) {
+					throw new StringObfuscatorException("Interrupted.", e);
+				}
+				char [] ret = obfuscated.toCharArray();
+				produced.add(ret);
+				return ret;
+			}
+		};
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ParallelStringObfuscator p = new ParallelStringObfuscator(slow, pool, 1);
+			List<String> values = new ArrayList<String>();
+			values.add("bad");
+			for (int i = 0; i < 7; i++) {
+				values.add("secret");
+			}
+			try {
+				p.deobfuscateAll(values);
+				fail();
+			} catch (StringObfuscatorException e) {
+				assertEquals(FailureReason.INVALID_FORMAT, e.getReason());
+			}
+			// Every value produced by the slow chunks must have been shredded
+			assertEquals(7, produced.size());
+			for (char [] value: produced) {
+				assertArrayEquals(new char[value.length], value);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import br.com.opencs.benri.MultiReleaseClassLoader;
+
+/**
+ * Runs the same checks against every variant of {@link Platform} found in
+ * the multi-release layout that the current JVM can load.
+ */
+public class PlatformTest {
+	
+	private static Class<?> load(int version, Class<?> c) throws Exception {
+		return new MultiReleaseClassLoader(version).loadClass(c.getName());
+	}
+	
+	private static Object call(Class<?> c, String name) throws Exception {
+		Method m = c.getDeclaredMethod(name);
+		m.setAccessible(true);
+		return m.invoke(null);
+	}
+	
+	private static int getVersion(Class<?> c) throws Exception {
+		java.lang.reflect.Field f = c.getDeclaredField("VERSION");
+		f.setAccessible(true);
+		return f.getInt(null);
+	}
+	
+	private static int expectedVersion(int version, List<Integer> versions) {
+		int expected = 8;
+		for (int v: versions) {
+			if ((v <= version) && (v == 8 || v == 11 || v == 21)) {
+				expected = v;
+			}
+		}
+		return expected;
+	}
+
+	@Test
+	public void testBaseVersion() throws Exception {
+		assertEquals(8, Platform.VERSION);
+	}
+	
+	@Test
+	public void testVariants() throws Exception {
+		List<Integer> versions = MultiReleaseClassLoader.getVersions();
+		for (int version: versions) {
+			Class<?> c = load(version, Platform.class);
+			assertEquals(expectedVersion(version, versions), getVersion(c));
+			
+			SecureRandom random = (SecureRandom)call(c, "newSecureRandom");
+			assertNotNull(random);
+			assertEquals(getVersion(c) >= 11 ? "DRBG" : "SHA1PRNG", random.getAlgorithm());
+			byte [] a = new byte[16];
+			byte [] b = new byte[16];
+			random.nextBytes(a);
+			random.nextBytes(b);
+			assertFalse(Arrays.equals(a, b));
+			
+			assertFalse((Boolean)call(c, "isVirtualThread"));
+			assertEquals(Platform.isChaChaSupported(), call(c, "isChaChaSupported"));
+			
+			Method fence = c.getDeclaredMethod("reachabilityFence", Object.class);
+			fence.setAccessible(true);
+			fence.invoke(null, new Object());
+			fence.invoke(null, (Object)null);
+		}
+	}
+	
+	@Test
+	public void testVirtualThreads() throws Exception {
+		Method start;
+		try {
+			start = Thread.class.getMethod("startVirtualThread", Runnable.class);
+		} catch (NoSuchMethodException e) {
+			return;
+		}
+		for (int version: MultiReleaseClassLoader.getVersions()) {
+			final Class<?> c = load(version, Platform.class);
+			final Class<?> g = Class.forName(DefaultIVGenerator.class.getName(), true, c.getClassLoader());
+			final Object gen = g.getConstructor().newInstance();
+			final Method generate = g.getMethod("generate", byte[].class, int.class, int.class);
+			final AtomicReference<Object> result = new AtomicReference<Object>();
+			final byte [][] ivs = new byte[2][16];
+			Thread t = (Thread)start.invoke(null, new Runnable() {
+				@Override
+				public void run() {
+					try {
+						result.set(call(c, "isVirtualThread"));
+						generate.invoke(gen, ivs[0], 0, 16);
+						generate.invoke(gen, ivs[1], 0, 16);
+					} catch (Exception e) {
+						result.set(e);
+					}
+				}
+			});
+			t.join();
+			assertEquals(getVersion(c) >= 21, result.get());
+			assertFalse(Arrays.equals(ivs[0], ivs[1]));
+		}
+	}
+	
+	@Test
+	public void testChaChaSupported() throws Exception {
+		assertEquals(Platform.isChaChaSupported(), ChaChaStringObfuscator.isSupported());
+		assertTrue(MultiReleaseClassLoader.getCurrentVersion() < 11 || Platform.isChaChaSupported());
+	}
+}
@@ -0,0 +1,136 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PrefetchIVGeneratorTest {
+	
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	
+	private static void waitFull(PrefetchIVGenerator g) throws InterruptedException {
+		for (int i = 0; (i < 1000) && (g.getAvailable() < g.getDepth()); i++) {
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	public void testGenerate() throws Exception {
+		try (PrefetchIVGenerator g = new PrefetchIVGenerator(8)) {
+			assertEquals(8, g.getDepth());
+			waitFull(g);
+			assertEquals(8, g.getAvailable());
+			
+			byte [] iv1 = new byte[16];
+			byte [] iv2 = new byte[16];
+			g.generate(iv1, 0, iv1.length);
+			g.generate(iv2, 0, iv2.length);
+			assertFalse(Arrays.equals(iv1, iv2));
+			assertEquals(2, g.getHitCount());
+			assertEquals(0, g.getUnderflowCount());
+			assertTrue(g.getRefillCount() >= 8);
+		}
+	}
+
+	@Test
+	public void testUnderflow() throws Exception {
+		PrefetchIVGenerator g = new PrefetchIVGenerator(4);
+		waitFull(g);
+		g.close();
+		
+		byte [] iv = new byte[20];
+		for (int i = 0; i < 10; i++) {
+			g.generate(iv, 2, 16);
+		}
+		assertArrayEquals(new byte[2], Arrays.copyOfRange(iv, 0, 2));
+		assertArrayEquals(new byte[2], Arrays.copyOfRange(iv, 18, 20));
+		assertTrue(g.getUnderflowCount() >= 5);
+		assertEquals(10, g.getHitCount() + g.getUnderflowCount());
+		
+		// Other sizes are always handled by the fallback
+		g.generate(iv, 0, 12);
+		assertEquals(10, g.getHitCount() + g.getUnderflowCount());
+	}
+	
+	@Test
+	public void testWithObfuscator() throws Exception {
+		char [] password = "password".toCharArray();
+		try (PrefetchIVGenerator g = new PrefetchIVGenerator(16)) {
+			StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, 1000, password, g);
+			for (int i = 0; i < 32; i++) {
+				assertArrayEquals(password, o.deobfuscate(o.obfuscate(password)));
+			}
+			assertEquals(32, g.getHitCount() + g.getUnderflowCount());
+		}
+	}
+
+	@Test
+	public void testConcurrentTake() throws Exception {
+		final int threads = 4;
+		final int count = 5000;
+		final List<ByteBuffer> ivs = new ArrayList<ByteBuffer>();
+		try (final PrefetchIVGenerator g = new PrefetchIVGenerator(64)) {
+			List<Thread> workers = new ArrayList<Thread>();
+			for (int t = 0; t < threads; t++) {
+				Thread w = new Thread() {
+					@Override
+					public void run() {
+						List<ByteBuffer> local = new ArrayList<ByteBuffer>();
+						for (int i = 0; i < count; i++) {
+							byte [] iv = new byte[16];
+							g.generate(iv, 0, iv.length);
+							local.add(ByteBuffer.wrap(iv));
+						}
+						synchronized (ivs) {
+							ivs.addAll(local);
+						}
+					}
+				};
+				w.start();
+				workers.add(w);
+			}
+			for (Thread w: workers) {
+				w.join();
+			}
+			assertEquals(threads * count, g.getHitCount() + g.getUnderflowCount());
+		}
+		// Each IV must be taken by a single caller
+		Set<ByteBuffer> unique = new HashSet<ByteBuffer>(ivs);
+		assertEquals(threads * count, unique.size());
+	}
+	
+	@Test
+	public void testCloseStopsRefill() throws Exception {
+		PrefetchIVGenerator g = new PrefetchIVGenerator(4);
+		waitFull(g);
+		g.close();
+		g.getRefillThread().join(5000);
+		assertFalse(g.getRefillThread().isAlive());
+	}
+	
+	private static Thread abandon() throws InterruptedException {
+		PrefetchIVGenerator g = new PrefetchIVGenerator(4);
+		waitFull(g);
+		return g.getRefillThread();
+	}
+	
+	@Test
+	public void testRefillStopsWhenCollected() throws Exception {
+		Thread t = abandon();
+		for (int i = 0; (i < 50) && t.isAlive(); i++) {
+			System.gc();
+			t.join(100);
+		}
+		assertFalse(t.isAlive());
+	}
+}
@@ -0,0 +1,124 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RotationEngineTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private static StringObfuscatorImpl obfuscator(int seed) {
+		byte [] key = new byte[32];
+		key[0] = (byte)seed;
+		return new StringObfuscatorImpl(new SecretKeySpec(key, "AES"));
+	}
+	
+	private static List<String> values(StringObfuscator o, int count) throws Exception {
+		List<String> ret = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			ret.add(o.obfuscate(("value " + i).toCharArray()));
+		}
+		return ret;
+	}
+
+	@Test
+	public void testRotate() throws Exception {
+		StringObfuscatorImpl from = obfuscator(1);
+		StringObfuscatorImpl to = obfuscator(2);
+		List<String> values = values(from, 5000);
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			RotationEngine engine = new RotationEngine(from, to, pool, 64);
+			final AtomicLong progress = new AtomicLong();
+			engine.setProgressListener(new RotationEngine.ProgressListener() {
+				@Override
+				public void progress(long processed, long elapsedNanos) {
+					assertTrue(processed > progress.get());
+					progress.set(processed);
+				}
+			});
+			final String [] ret = new String[values.size()];
+			RotationEngine.Stats stats = engine.rotate(values.iterator(), new RotationEngine.Sink() {
+				@Override
+				public void accept(long index, String value) throws IOException {
+					ret[(int)index] = value;
+				}
+			});
+			assertEquals(values.size(), stats.getCount());
+			assertEquals(values.size(), progress.get());
+			assertTrue(stats.getThroughput() > 0);
+			for (int i = 0; i < ret.length; i++) {
+				assertArrayEquals(("value " + i).toCharArray(), to.deobfuscate(ret[i]));
+			}
+			
+			// Empty source
+			assertEquals(0, engine.rotate(new ArrayList<String>().iterator(), null).getCount());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testRotateError() throws Exception {
+		StringObfuscatorImpl from = obfuscator(1);
+		StringObfuscatorImpl to = obfuscator(2);
+		List<String> values = values(from, 1000);
+		values.set(777, to.obfuscate("other".toCharArray()));
+		
+		RotationEngine engine = new RotationEngine(from, to, ForkJoinPool.commonPool(), 10);
+		try {
+			engine.rotate(values.iterator(), new RotationEngine.Sink() {
+				@Override
+				public void accept(long index, String value) throws IOException {
+					assertTrue(index < 770);
+				}
+			});
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals("Unable to rotate the value 777.", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testRotateFile() throws Exception {
+		StringObfuscatorImpl from = obfuscator(1);
+		StringObfuscatorImpl to = obfuscator(2);
+		List<String> values = values(from, 300);
+		values.add(100, "");
+		Path in = folder.newFile("in.txt").toPath();
+		Path out = folder.getRoot().toPath().resolve("out.txt");
+		Files.write(in, values, StandardCharsets.UTF_8);
+		
+		RotationEngine.Stats stats = new RotationEngine(from, to).rotate(in, out);
+		assertEquals(301, stats.getCount());
+		List<String> lines = Files.readAllLines(out, StandardCharsets.UTF_8);
+		assertEquals(301, lines.size());
+		assertEquals("", lines.get(100));
+		for (int i = 0; i < lines.size(); i++) {
+			if (i != 100) {
+				assertArrayEquals(from.deobfuscate(values.get(i)), to.deobfuscate(lines.get(i)));
+			}
+		}
+		assertTrue(Arrays.asList(stats.toString().split(" ")).contains("values/s)"));
+	}
+}
@@ -0,0 +1,147 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.KeyStore;
+import java.util.Base64;
+import java.util.Set;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SealedKeyFileTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private static SecretKey createKEK() throws Exception {
+		KeyGenerator generator = KeyGenerator.getInstance("AES");
+		generator.init(256);
+		return generator.generateKey();
+	}
+	
+	@Test
+	public void testWriteRead() throws Exception {
+		SecretKey kek = createKEK();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SealedKeyFile.write(out, SAMPLE_SALT, 1000, SAMPLE_PASSWORD, kek);
+		byte [] file = out.toByteArray();
+		assertEquals(4 + 16 + 32 + 16, file.length);
+		assertEquals(SealedKeyFile.MAGIC, new String(file, 0, 4, "US-ASCII"));
+		
+		SecretKey key = SealedKeyFile.read(new ByteArrayInputStream(file), kek);
+		assertArrayEquals(StringObfuscatorImpl.generateKey(SAMPLE_SALT, 1000, SAMPLE_PASSWORD, 256), key.getEncoded());
+		
+		// Compatible with the derived obfuscator
+		StringObfuscatorImpl o1 = new StringObfuscatorImpl(key);
+		StringObfuscatorImpl o2 = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		assertArrayEquals(SAMPLE_PASSWORD, o2.deobfuscate(o1.obfuscate(SAMPLE_PASSWORD)));
+	}
+	
+	@Test
+	public void testSavePermissions() throws Exception {
+		File dir = folder.newFolder();
+		Assume.assumeTrue(dir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+		SecretKey kek = createKEK();
+		Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rw-------");
+		
+		File file = new File(dir, "new.key");
+		SealedKeyFile.save(file, SAMPLE_SALT, 1000, SAMPLE_PASSWORD, kek);
+		assertEquals(ownerOnly, Files.getPosixFilePermissions(file.toPath()));
+		
+		// Existing files are restricted as well
+		File existing = new File(dir, "existing.key");
+		Files.write(existing.toPath(), new byte[100]);
+		Files.setPosixFilePermissions(existing.toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+		SealedKeyFile.save(existing, SAMPLE_SALT, 1000, SAMPLE_PASSWORD, kek);
+		assertEquals(ownerOnly, Files.getPosixFilePermissions(existing.toPath()));
+		assertEquals(4 + 16 + 32 + 16, existing.length());
+		
+		StringObfuscatorImpl o = SealedKeyFile.load(existing, kek);
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(SealedKeyFile.load(file, kek).obfuscate(SAMPLE_PASSWORD)));
+	}
+	
+	@Test
+	public void testReadInvalid() throws Exception {
+		SecretKey kek = createKEK();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SealedKeyFile.write(out, SAMPLE_SALT, 1000, SAMPLE_PASSWORD, kek);
+		byte [] file = out.toByteArray();
+		
+		// Wrong KEK
+		try {
+			SealedKeyFile.read(new ByteArrayInputStream(file), createKEK());
+			fail();
+		} catch (StringObfuscatorException e) {}
+		
+		// Tampered
+		for (int i = 0; i < file.length; i++) {
+			byte [] tampered = file.clone();
+			tampered[i] ^= 1;
+			try {
+				SealedKeyFile.read(new ByteArrayInputStream(tampered), kek);
+				fail();
+			} catch (StringObfuscatorException e) {}
+		}
+		
+		// Truncated
+		try {
+			SealedKeyFile.read(new ByteArrayInputStream(file, 0, 36), kek);
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testTool() throws Exception {
+		SecretKey kek = createKEK();
+		char [] storePassword = "changeit".toCharArray();
+		KeyStore ks = KeyStore.getInstance("PKCS12");
+		ks.load(null, null);
+		ks.setEntry("kek", new KeyStore.SecretKeyEntry(kek), new KeyStore.PasswordProtection(storePassword));
+		File keyStore = folder.newFile("kek.p12");
+		try (OutputStream out = new FileOutputStream(keyStore)) {
+			ks.store(out, storePassword);
+		}
+		File keyFile = new File(folder.getRoot(), "obfuscator.key");
+		
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int ret = SealedKeyTool.run(new String[] {
+				"-keystore", keyStore.getPath(), "-alias", "kek",
+				"-salt", Base64.getEncoder().encodeToString(SAMPLE_SALT),
+				"-iterations", "1000", "-out", keyFile.getPath()}, 
+				new BufferedReader(new StringReader("changeit\npassword\n")), new PrintStream(err));
+		assertEquals(err.toString(), 0, ret);
+		
+		SecretKey loadedKEK = SealedKeyFile.loadKEK(keyStore, "PKCS12", storePassword, "kek", storePassword);
+		StringObfuscatorImpl o1 = SealedKeyFile.load(keyFile, loadedKEK);
+		StringObfuscatorImpl o2 = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		assertArrayEquals(SAMPLE_PASSWORD, o2.deobfuscate(o1.obfuscate(SAMPLE_PASSWORD)));
+		
+		// Invalid arguments
+		err.reset();
+		assertEquals(2, SealedKeyTool.run(new String[] {"-keystore"}, null, new PrintStream(err)));
+		assertTrue(err.toString().contains("Usage"));
+	}
+}
@@ -0,0 +1,223 @@
+package br.com.opencs.benri.obfuscator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+
+import br.com.opencs.benri.util.Shredder;
+
+public class StringObfuscatorFactoryTest {
+
+	private static final byte [] SAMPLE_SALT = new byte[32];
+	private static final char [] SAMPLE_PASSWORD = "password".toCharArray();
+	
+	@Test
+	public void testGet() throws Exception {
+		StringObfuscatorFactory f = new StringObfuscatorFactory();
+		
+		StringObfuscatorImpl o1 = f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		StringObfuscatorImpl o2 = f.get(SAMPLE_SALT.clone(), 1000, SAMPLE_PASSWORD.clone());
+		assertSame(o1, o2);
+		assertEquals(1, f.size());
+		
+		assertNotSame(o1, f.get(SAMPLE_SALT, 1001, SAMPLE_PASSWORD));
+		assertNotSame(o1, f.get(SAMPLE_SALT, 1000, "other".toCharArray()));
+		byte [] salt = SAMPLE_SALT.clone();
+		salt[0] = 1;
+		assertNotSame(o1, f.get(salt, 1000, SAMPLE_PASSWORD));
+		
+		// Compatible with the regular constructor
+		StringObfuscatorImpl o3 = new StringObfuscatorImpl(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		assertArrayEquals(SAMPLE_PASSWORD, o3.deobfuscate(o1.obfuscate(SAMPLE_PASSWORD)));
+		assertArrayEquals(SAMPLE_PASSWORD, o1.deobfuscate(o3.obfuscate(SAMPLE_PASSWORD)));
+		
+		assertSame(StringObfuscatorFactory.getDefault(), StringObfuscatorFactory.getDefault());
+	}
+	
+	@Test
+	public void testConcurrentGet() throws Exception {
+		final StringObfuscatorFactory f = new StringObfuscatorFactory();
+		final StringObfuscatorImpl [] ret = new StringObfuscatorImpl[8];
+		Thread [] threads = new Thread[ret.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int idx = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						ret[idx] = f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread t: threads) {
+			t.join();
+		}
+		for (StringObfuscatorImpl o: ret) {
+			assertSame(ret[0], o);
+		}
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		StringObfuscatorFactory f = new StringObfuscatorFactory();
+		WeakReference<StringObfuscatorImpl> ref = new WeakReference<StringObfuscatorImpl>(f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD));
+		assertEquals(1, f.size());
+		
+		for (int i = 0; (i < 50) && (f.size() > 0); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertTrue(ref.get() == null);
+		assertEquals(0, f.size());
+		
+		// A new one is created on demand
+		StringObfuscatorImpl o = f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(o.obfuscate(SAMPLE_PASSWORD)));
+	}
+	
+	private static byte [] sample(int size) {
+		byte [] data = new byte[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = (byte)i;
+		}
+		return data;
+	}
+	
+	private static InputStream openInput(StringObfuscatorFactory f, byte [] data) throws Exception {
+		StringObfuscatorImpl o = f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream enc = o.createOutputStream(out, 64)) {
+			enc.write(data);
+		}
+		return o.createInputStream(new ByteArrayInputStream(out.toByteArray()));
+	}
+	
+	private static OutputStream openOutput(StringObfuscatorFactory f, ByteArrayOutputStream out) throws Exception {
+		return f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD).createOutputStream(out, 64);
+	}
+	
+	private static void collect(StringObfuscatorFactory f) throws Exception {
+		for (int i = 0; (i < 50) && (f.size() > 0); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+	}
+	
+	@Test
+	public void testStreamsKeepKeyAlive() throws Exception {
+		StringObfuscatorFactory f = new StringObfuscatorFactory();
+		byte [] data = sample(1000);
+		InputStream in = openInput(f, data);
+		ByteArrayOutputStream enc = new ByteArrayOutputStream();
+		OutputStream out = openOutput(f, enc);
+		
+		// Only the streams reference the obfuscator
+		collect(f);
+		assertEquals(1, f.size());
+		
+		ByteArrayOutputStream dec = new ByteArrayOutputStream();
+		byte [] buff = new byte[100];
+		int n;
+		while ((n = in.read(buff)) >= 0) {
+			dec.write(buff, 0, n);
+		}
+		in.close();
+		assertArrayEquals(data, dec.toByteArray());
+		out.write(data);
+		out.close();
+		
+		// Once the streams are gone, the entry is evicted
+		in = null;
+		out = null;
+		collect(f);
+		assertEquals(0, f.size());
+		
+		StringObfuscatorImpl o = f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		try (InputStream check = o.createInputStream(new ByteArrayInputStream(enc.toByteArray()))) {
+			for (byte b: data) {
+				assertEquals(b & 0xFF, check.read());
+			}
+			assertEquals(-1, check.read());
+		}
+	}
+	
+	@Test
+	public void testDestroyableSecretKey() throws Exception {
+		byte [] raw = new byte[32];
+		raw[0] = 1;
+		DestroyableSecretKey key = new DestroyableSecretKey(raw, "AES");
+		assertArrayEquals(raw, key.getEncoded());
+		key.destroy();
+		assertTrue(key.isDestroyed());
+	}
+
+	@Test
+	public void testGetAsync() throws Exception {
+		StringObfuscatorFactory f = new StringObfuscatorFactory();
+		char [] password = SAMPLE_PASSWORD.clone();
+		CompletableFuture<StringObfuscatorImpl> future = f.getAsync(SAMPLE_SALT, 1000, password);
+		// The password is copied
+		Shredder.shred(password);
+		StringObfuscatorImpl o = future.get();
+		assertSame(o, f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD));
+		
+		// Rejected by the executor
+		future = f.getAsync(SAMPLE_SALT, 1000, SAMPLE_PASSWORD, new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		});
+		assertTrue(future.isCompletedExceptionally());
+	}
+	
+	@Test
+	public void testGetLazy() throws Exception {
+		StringObfuscatorFactory f = new StringObfuscatorFactory();
+		LazyStringObfuscator o = f.getLazy(SAMPLE_SALT, 1000, SAMPLE_PASSWORD);
+		String obfuscated = o.obfuscate(SAMPLE_PASSWORD);
+		assertTrue(o.isReady());
+		assertSame(o.getObfuscator(), f.get(SAMPLE_SALT, 1000, SAMPLE_PASSWORD));
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(obfuscated));
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscateAll(o.obfuscateAll(Arrays.asList(SAMPLE_PASSWORD))).get(0));
+		
+		// Failures are reported on use
+		CompletableFuture<StringObfuscatorImpl> failed = new CompletableFuture<StringObfuscatorImpl>();
+		failed.completeExceptionally(new StringObfuscatorException("Failed."));
+		o = new LazyStringObfuscator(failed);
+		try {
+			o.obfuscate(SAMPLE_PASSWORD);
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals("Failed.", e.getMessage());
+		}
+		failed = new CompletableFuture<StringObfuscatorImpl>();
+		failed.completeExceptionally(new IllegalStateException("Boom."));
+		o = new LazyStringObfuscator(failed);
+		try {
+			o.deobfuscate("GCM1");
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+}
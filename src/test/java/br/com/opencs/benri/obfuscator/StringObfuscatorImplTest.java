@@ -1,10 +1,21 @@
 package br.com.opencs.benri.obfuscator;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 public class StringObfuscatorImplTest {
@@ -78,4 +89,340 @@ public class StringObfuscatorImplTest {
 			fail();
 		} catch (StringObfuscatorException e) {}			
 	}
+	
+	@Test
+	public void testObfuscateDeobfuscateReuse() throws Exception {
+		final StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		final String s1 = o.obfuscate(SAMPLE_PASSWORD);
+		
+		// Mixes failures with successful operations in the same thread
+		for (int i = 0; i < 100; i++) {
+			String s = o.obfuscate(SAMPLE_PASSWORD);
+			assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(s));
+			assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(s1));
+			try {
+				o.deobfuscate(s.substring(0, s.length() - 4));
+				fail();
+			} catch (StringObfuscatorException e) {}
+		}
+		
+		// Uses the same instance from multiple threads
+		final AtomicInteger errors = new AtomicInteger();
+		Thread [] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 100; j++) {
+							String s = o.obfuscate(SAMPLE_PASSWORD);
+							if (!Arrays.equals(SAMPLE_PASSWORD, o.deobfuscate(s)) ||
+									!Arrays.equals(SAMPLE_PASSWORD, o.deobfuscate(s1))) {
+								errors.incrementAndGet();
+							}
+						}
+					} catch (StringObfuscatorException e) {
+						errors.incrementAndGet();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread t: threads) {
+			t.join();
+		}
+		assertEquals(0, errors.get());
+	}
+	
+	@Test
+	public void testObfuscateAllDeobfuscateAll() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		List<char[]> values = new ArrayList<char[]>();
+		for (int i = 0; i < 100; i++) {
+			values.add(("value " + i + " \u00e7\u00e3o \u65e5\u672c").toCharArray());
+		}
+		values.add(new char[0]);
+		
+		List<String> obfuscated = o.obfuscateAll(values);
+		assertEquals(values.size(), obfuscated.size());
+		for (int i = 0; i < values.size(); i++) {
+			assertArrayEquals(values.get(i), o.deobfuscate(obfuscated.get(i)));
+		}
+		
+		List<char[]> deobfuscated = o.deobfuscateAll(obfuscated);
+		assertEquals(values.size(), deobfuscated.size());
+		for (int i = 0; i < values.size(); i++) {
+			assertArrayEquals(values.get(i), deobfuscated.get(i));
+		}
+		
+		// Fails in the middle of the batch
+		List<String> invalid = new ArrayList<String>(obfuscated);
+		invalid.set(50, invalid.get(50).substring(0, invalid.get(50).length() - 4));
+		try {
+			o.deobfuscateAll(invalid);
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testObfuscateAllDeobfuscateAllDefault() throws Exception {
+		final StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		StringObfuscator d = new StringObfuscator() {
+			@Override
+			public String obfuscate(char[] value) throws StringObfuscatorException {
+				return o.obfuscate(value);
+			}
+			
+			@Override
+			public char[] deobfuscate(String obfuscated) throws StringObfuscatorException {
+				return o.deobfuscate(obfuscated);
+			}
+		};
+		List<char[]> values = Arrays.asList(SAMPLE_PASSWORD, "other".toCharArray());
+		
+		List<char[]> deobfuscated = d.deobfuscateAll(d.obfuscateAll(values));
+		assertArrayEquals(values.get(0), deobfuscated.get(0));
+		assertArrayEquals(values.get(1), deobfuscated.get(1));
+	}
+	
+	@Test
+	public void testSealOpen() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		byte [] value = "some binary value".getBytes("utf-8");
+		
+		byte [] sealed = o.seal(value);
+		assertEquals(StringObfuscatorImpl.sealedLength(value.length), sealed.length);
+		assertArrayEquals(value, o.open(sealed));
+		
+		sealed = o.seal(SAMPLE_PASSWORD);
+		assertArrayEquals(SAMPLE_PASSWORD, o.openChars(sealed));
+		
+		// Both formats are interchangeable
+		String s = Base64.getUrlEncoder().encodeToString(sealed);
+		assertTrue(s.startsWith(StringObfuscatorImpl.HEADER));
+		assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(s));
+		assertArrayEquals(SAMPLE_PASSWORD, o.openChars(Base64.getUrlDecoder().decode(o.obfuscate(SAMPLE_PASSWORD))));
+		
+		for (int i: new int[] {0, 3, sealed.length - 1}) {
+			byte [] tampered = sealed.clone();
+			tampered[i]++;
+			try {
+				o.open(tampered);
+				fail();
+			} catch (StringObfuscatorException e) {}
+		}
+		try {
+			o.open(Arrays.copyOf(sealed, StringObfuscatorImpl.sealedLength(0) - 1));
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testSealOpenByteBuffer() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		byte [] value = "some binary value".getBytes("utf-8");
+		
+		for (boolean direct: new boolean[] {false, true}) {
+			ByteBuffer in = direct ? ByteBuffer.allocateDirect(value.length) : ByteBuffer.allocate(value.length);
+			in.put(value);
+			in.flip();
+			
+			ByteBuffer sealed = direct ? ByteBuffer.allocateDirect(100) : ByteBuffer.allocate(100);
+			assertEquals(StringObfuscatorImpl.sealedLength(value.length), o.seal(in, sealed));
+			assertEquals(0, in.remaining());
+			sealed.flip();
+			
+			byte [] tmp = new byte[sealed.remaining()];
+			sealed.duplicate().get(tmp);
+			assertArrayEquals(value, o.open(tmp));
+			
+			ByteBuffer out = direct ? ByteBuffer.allocateDirect(100) : ByteBuffer.allocate(100);
+			assertEquals(value.length, o.open(sealed, out));
+			out.flip();
+			tmp = new byte[out.remaining()];
+			out.get(tmp);
+			assertArrayEquals(value, tmp);
+			
+			// Too small
+			in.rewind();
+			try {
+				o.seal(in, ByteBuffer.allocate(StringObfuscatorImpl.sealedLength(value.length) - 1));
+				fail();
+			} catch (StringObfuscatorException e) {}
+			
+			// Invalid
+			sealed.rewind();
+			sealed.put(sealed.limit() - 1, (byte)(sealed.get(sealed.limit() - 1) + 1));
+			try {
+				o.open(sealed, ByteBuffer.allocate(100));
+				fail();
+			} catch (StringObfuscatorException e) {
+				assertEquals(0, sealed.position());
+			}
+		}
+	}
+	
+	@Test
+	public void testObfuscateTo() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		char [] value = "value \u00e7\u00e3o \u65e5\u672c \ud83d\ude00".toCharArray();
+		
+		char [] out = new char[StringObfuscatorImpl.maxOutputLength(value.length) + 2];
+		int size = o.obfuscateTo(value, out, 2);
+		assertEquals(StringObfuscatorImpl.outputLength(new String(value).getBytes("utf-8").length), size);
+		assertTrue(size <= StringObfuscatorImpl.maxOutputLength(value.length));
+		assertArrayEquals(value, o.deobfuscate(new String(out, 2, size)));
+		
+		try {
+			o.obfuscateTo(value, new char[size - 1], 0);
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals(FailureReason.BUFFER_TOO_SMALL, e.getReason());
+		}
+		
+		StringBuilder sb = new StringBuilder("prefix");
+		size = o.obfuscateTo(value, sb);
+		assertEquals(sb.length() - 6, size);
+		assertArrayEquals(value, o.deobfuscate(sb.substring(6)));
+		
+		Appendable a = new StringWriter();
+		size = o.obfuscateTo(value, a);
+		assertArrayEquals(value, o.deobfuscate(a.toString()));
+		
+		assertEquals(StringObfuscatorImpl.outputLength(SAMPLE_PASSWORD.length), o.obfuscate(SAMPLE_PASSWORD).length());
+	}
+	
+	@Test
+	public void testObfuscateToChecksCapacityFirst() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		IVGenerator counting = new IVGenerator() {
+			@Override
+			public void generate(byte [] iv, int offset, int size) {
+				calls.incrementAndGet();
+				StringObfuscatorImpl.DEFAULT_IV_GENERATOR.generate(iv, offset, size);
+			}
+		};
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD, counting);
+		char [] value = "value \u00e7\u00e3o \ud83d\ude00".toCharArray();
+		int size = o.obfuscate(value).length();
+		calls.set(0);
+		try {
+			o.obfuscateTo(value, new char[size + 1], 2);
+			fail();
+		} catch (StringObfuscatorException e) {
+			assertEquals(FailureReason.BUFFER_TOO_SMALL, e.getReason());
+		}
+		assertEquals(0, calls.get());
+		assertEquals(size, o.obfuscateTo(value, new char[size + 2], 2));
+		assertEquals(1, calls.get());
+	}
+	
+	@Test
+	public void testObfuscateToAppendableUnpadded() throws Exception {
+		CompactStringObfuscator o = new CompactStringObfuscator(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		for (int len = 0; len < 10; len++) {
+			char [] value = "0123456789".substring(0, len).toCharArray();
+			StringWriter w = new StringWriter();
+			int size = o.obfuscateTo(value, w);
+			assertEquals(w.toString().length(), size);
+			assertEquals(o.obfuscate(value).length(), size);
+			assertEquals(-1, w.toString().indexOf('='));
+			assertArrayEquals(value, o.deobfuscate(w.toString()));
+		}
+	}
+	
+	@Test
+	public void testLargeValues() throws Exception {
+		StringObfuscatorImpl [] obfuscators = {
+				new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD),
+				new CompactStringObfuscator(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD)};
+		for (StringObfuscatorImpl o: obfuscators) {
+			// Around the threshold of the JDK codec
+			for (int len = StringObfuscatorImpl.JDK_CODEC_THRESHOLD - 48; len < StringObfuscatorImpl.JDK_CODEC_THRESHOLD + 8; len++) {
+				char [] value = new char[len];
+				Arrays.fill(value, '\u00e7');
+				value[0] = 'x';
+				String s = o.obfuscate(value);
+				StringWriter w = new StringWriter();
+				o.obfuscateTo(value, w);
+				assertEquals(w.toString().length(), s.length());
+				assertEquals(w.toString().indexOf('='), s.indexOf('='));
+				assertArrayEquals(value, o.deobfuscate(s));
+				assertArrayEquals(value, o.deobfuscate(w.toString()));
+				char [] dest = new char[s.length()];
+				int n = o.deobfuscateInto(new StringBuilder(s), dest);
+				assertArrayEquals(value, Arrays.copyOf(dest, n));
+				
+				// Characters outside of Latin-1 with the low byte of a valid character
+				String invalid = s.substring(0, s.length() - 5) + '\u0141' + s.substring(s.length() - 4);
+				try {
+					o.deobfuscate(invalid);
+					fail();
+				} catch (StringObfuscatorException e) {
+					assertEquals(FailureReason.INVALID_FORMAT, e.getReason());
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testDeobfuscateInto() throws Exception {
+		StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		char [] value = "value \u00e7\u00e3o \u65e5\u672c \ud83d\ude00".toCharArray();
+		String s = o.obfuscate(value);
+		
+		char [] dest = new char[s.length()];
+		int n = o.deobfuscateInto(s, dest);
+		assertArrayEquals(value, Arrays.copyOf(dest, n));
+		
+		n = o.deobfuscateInto(new StringBuilder(s), dest, 3);
+		assertArrayEquals(value, Arrays.copyOfRange(dest, 3, 3 + n));
+		
+		dest = new char[value.length - 1];
+		try {
+			o.deobfuscateInto(s, dest);
+			fail();
+		} catch (StringObfuscatorException e) {}
+		assertArrayEquals(new char[dest.length], dest);
+		
+		try {
+			o.deobfuscateInto(s.substring(1), new char[100]);
+			fail();
+		} catch (StringObfuscatorException e) {}
+	}
+	
+	@Test
+	public void testWithPlaintext() throws Exception {
+		final StringObfuscatorImpl o = new StringObfuscatorImpl(SAMPLE_SALT, SAMPLE_ITERATIONS, SAMPLE_PASSWORD);
+		final String s = o.obfuscate(SAMPLE_PASSWORD);
+		final List<char[]> buffers = new ArrayList<char[]>();
+		
+		o.withPlaintext(s, new CharConsumer() {
+			@Override
+			public void accept(final char[] buff, final int offset, final int length) {
+				assertArrayEquals(SAMPLE_PASSWORD, Arrays.copyOfRange(buff, offset, offset + length));
+				buffers.add(buff);
+				
+				// Nested calls must not share the same buffer
+				try {
+					o.withPlaintext(s, new CharConsumer() {
+						@Override
+						public void accept(char[] buff2, int offset2, int length2) {
+							assertNotSame(buff, buff2);
+							assertArrayEquals(SAMPLE_PASSWORD, Arrays.copyOfRange(buff2, offset2, offset2 + length2));
+							buffers.add(buff2);
+						}
+					});
+					assertArrayEquals(SAMPLE_PASSWORD, o.deobfuscate(s));
+				} catch (StringObfuscatorException e) {
+					fail();
+				}
+				assertArrayEquals(SAMPLE_PASSWORD, Arrays.copyOfRange(buff, offset, offset + length));
+			}
+		});
+		assertEquals(2, buffers.size());
+		for (char [] b: buffers) {
+			assertArrayEquals(new char[b.length], b);
+		}
+	}
 }
@@ -0,0 +1,108 @@
+package br.com.opencs.benri.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class Base64URLTest {
+
+	@Test
+	public void testEncodedLength() {
+		for (int i = 0; i < 100; i++) {
+			assertEquals(Base64.getUrlEncoder().encodeToString(new byte[i]).length(), Base64URL.encodedLength(i));
+		}
+	}
+
+	@Test
+	public void testEncodeCharArray() {
+		Random random = new Random();
+		for (int size = 0; size < 100; size++) {
+			byte [] src = new byte[size + 2];
+			random.nextBytes(src);
+			String exp = Base64.getUrlEncoder().encodeToString(Arrays.copyOfRange(src, 1, size + 1));
+			
+			char [] dst = new char[Base64URL.encodedLength(size) + 3];
+			assertEquals(exp.length(), Base64URL.encode(src, 1, size, dst, 3));
+			assertEquals(exp, new String(dst, 3, exp.length()));
+		}
+	}
+
+	@Test
+	public void testEncodeAppendable() throws Exception {
+		Random random = new Random();
+		for (int size = 0; size < 100; size++) {
+			byte [] src = new byte[size + 2];
+			random.nextBytes(src);
+			String exp = Base64.getUrlEncoder().encodeToString(Arrays.copyOfRange(src, 1, size + 1));
+			
+			StringBuilder sb = new StringBuilder("x");
+			assertEquals(exp.length(), Base64URL.encode(src, 1, size, sb));
+			assertEquals("x" + exp, sb.toString());
+			
+			String unpadded = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(src, 1, size + 1));
+			sb.setLength(0);
+			assertEquals(unpadded.length(), Base64URL.encode(src, 1, size, sb, false));
+			assertEquals(unpadded, sb.toString());
+		}
+	}
+
+	@Test
+	public void testDecode() {
+		Random random = new Random();
+		for (int size = 0; size < 100; size++) {
+			byte [] src = new byte[size];
+			random.nextBytes(src);
+			String padded = "xyz" + Base64.getUrlEncoder().encodeToString(src);
+			String unpadded = "xyz" + Base64.getUrlEncoder().withoutPadding().encodeToString(src);
+			
+			for (String s: new String[] {padded, unpadded}) {
+				assertEquals(size, Base64URL.decodedLength(s, 3, s.length() - 3));
+				byte [] dst = new byte[size + 1];
+				assertEquals(size, Base64URL.decode(s, 3, s.length() - 3, dst, 1));
+				assertArrayEquals(src, Arrays.copyOfRange(dst, 1, size + 1));
+			}
+		}
+	}
+
+	@Test
+	public void testDecodeInvalid() {
+		String [] samples = {"A", "AB=", "A===", "AB=C", "====", "AB*D", "ABC\u00e7", "ABCD=", "AB==AB==", "ABCDE", "AB+/",
+				"ABC\u0141", "\u0141BCD", "AB\u0141", "A\u0141==", "\uFF41BCD"};
+		for (String s: samples) {
+			try {
+				Base64.getUrlDecoder().decode(s);
+				fail(s);
+			} catch (IllegalArgumentException e) {}
+			try {
+				Base64URL.decode(s, 0, s.length(), new byte[s.length()], 0);
+				fail(s);
+			} catch (IllegalArgumentException e) {}
+		}
+	}
+
+	@Test
+	public void testValueOf() {
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+		for (int i = 0; i < alphabet.length(); i++) {
+			assertEquals(i, Base64URL.valueOf(alphabet.charAt(i)));
+		}
+		assertEquals(-1, Base64URL.valueOf('+'));
+		assertEquals(-1, Base64URL.valueOf('='));
+		assertEquals(-1, Base64URL.valueOf('\u00C1'));
+		// Same low byte as 'A'
+		assertEquals(-1, Base64URL.valueOf('\u0141'));
+	}
+
+	@Test
+	public void testUnpaddedLength() {
+		for (int i = 0; i < 100; i++) {
+			assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[i]).length(), Base64URL.unpaddedLength(i));
+		}
+	}
+}
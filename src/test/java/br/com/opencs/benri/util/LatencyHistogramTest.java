@@ -0,0 +1,101 @@
+package br.com.opencs.benri.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBuckets() {
+		for (long v = 0; v < LatencyHistogram.SUB_BUCKETS * 2; v++) {
+			assertEquals(v, LatencyHistogram.getBucket(v));
+			assertEquals(v, LatencyHistogram.getLowestValue((int)v));
+		}
+		assertEquals(0, LatencyHistogram.getBucket(-1));
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.getHighestValue(LatencyHistogram.BUCKETS - 1));
+		
+		// Buckets are contiguous and cover every value
+		for (int b = 0; b < LatencyHistogram.BUCKETS - 1; b++) {
+			long low = LatencyHistogram.getLowestValue(b);
+			long high = LatencyHistogram.getHighestValue(b);
+			assertTrue(low <= high);
+			assertEquals(high + 1, LatencyHistogram.getLowestValue(b + 1));
+			assertEquals(b, LatencyHistogram.getBucket(low));
+			assertEquals(b, LatencyHistogram.getBucket(high));
+			// The relative error is bounded
+			assertTrue((high - low) <= low / LatencyHistogram.SUB_BUCKETS);
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram h = new LatencyHistogram();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getValueAtPercentile(50));
+		assertEquals(0.0, h.getMean(), 0.0);
+		
+		for (long v = 1; v <= 10000; v++) {
+			h.record(v * 1000);
+		}
+		assertEquals(10000, h.getCount());
+		assertEquals(10000000, h.getMax());
+		assertEquals(5000500.0, h.getMean(), 0.001);
+		long [][] expected = {{50, 5000000}, {90, 9000000}, {99, 9900000}, {100, 10000000}};
+		for (long [] e: expected) {
+			long v = h.getValueAtPercentile(e[0]);
+			assertTrue(v >= e[1]);
+			assertTrue(v <= e[1] + e[1] / LatencyHistogram.SUB_BUCKETS);
+		}
+		assertEquals(1000, h.getValueAtPercentile(0), 1000 / LatencyHistogram.SUB_BUCKETS);
+		
+		try {
+			h.getValueAtPercentile(101);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		
+		h.reset();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getMax());
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		final LatencyHistogram h = new LatencyHistogram();
+		final int threads = 4;
+		final int count = 100000;
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread [] t = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			final long seed = i;
+			t[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random random = new Random(seed);
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < count; j++) {
+						h.record(random.nextInt(1000000));
+					}
+				}
+			});
+			t[i].start();
+		}
+		start.countDown();
+		for (Thread thread: t) {
+			thread.join();
+		}
+		assertEquals(threads * count, h.getCount());
+		assertTrue(h.getMax() < 1000000);
+	}
+}
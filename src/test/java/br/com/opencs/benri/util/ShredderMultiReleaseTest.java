@@ -0,0 +1,154 @@
+package br.com.opencs.benri.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.com.opencs.benri.MultiReleaseClassLoader;
+
+/**
+ * Runs the same checks against every variant of {@link Shredder} found in
+ * the multi-release layout that the current JVM can load.
+ */
+public class ShredderMultiReleaseTest {
+	
+	private static final int [] SIZES = {0, 1, 15, 4095, 4096, 4097, 10000};
+	
+	private static Class<?> load(int version) throws Exception {
+		return new MultiReleaseClassLoader(version).loadClass(Shredder.class.getName());
+	}
+	
+	private static void invoke(Class<?> c, Class<?> type, Object value) throws Exception {
+		Method m = c.getMethod("shred", type);
+		m.invoke(null, value);
+	}
+
+	private static void invoke(Class<?> c, Class<?> type, Object value, int offset, int size) throws Exception {
+		Method m = c.getMethod("shred", type, int.class, int.class);
+		m.invoke(null, value, offset, size);
+	}
+	
+	private static byte [] randomBytes(Random random, int size) {
+		byte [] b = new byte[size];
+		random.nextBytes(b);
+		return b;
+	}
+
+	@Test
+	public void testVariantsAreDifferentClasses() throws Exception {
+		for (int version: MultiReleaseClassLoader.getVersions()) {
+			Class<?> c = load(version);
+			assertEquals(Shredder.class.getName(), c.getName());
+			assertNotSame(Shredder.class, c);
+			assertTrue(c.getClassLoader() instanceof MultiReleaseClassLoader);
+		}
+	}
+
+	@Test
+	public void testShredArrays() throws Exception {
+		Random random = new Random();
+		for (int version: MultiReleaseClassLoader.getVersions()) {
+			Class<?> c = load(version);
+			for (int size: SIZES) {
+				byte [] b = randomBytes(random, size);
+				invoke(c, byte[].class, b);
+				assertArrayEquals(new byte[size], b);
+				
+				char [] ch = new char[size];
+				for (int i = 0; i < size; i++) {
+					ch[i] = (char)(random.nextInt(26) + 'a');
+				}
+				invoke(c, char[].class, ch);
+				assertArrayEquals(new char[size], ch);
+			}
+			invoke(c, byte[].class, (Object)null);
+			invoke(c, char[].class, (Object)null);
+		}
+	}
+
+	@Test
+	public void testShredRegions() throws Exception {
+		Random random = new Random();
+		for (int version: MultiReleaseClassLoader.getVersions()) {
+			Class<?> c = load(version);
+			byte [] b = randomBytes(random, 100);
+			byte [] expected = b.clone();
+			for (int i = 10; i < 60; i++) {
+				expected[i] = 0;
+			}
+			invoke(c, byte[].class, b, 10, 50);
+			assertArrayEquals(expected, b);
+			
+			char [] ch = new char[100];
+			for (int i = 0; i < ch.length; i++) {
+				ch[i] = (char)(random.nextInt(26) + 'a');
+			}
+			char [] expectedChars = ch.clone();
+			for (int i = 10; i < 60; i++) {
+				expectedChars[i] = 0;
+			}
+			invoke(c, char[].class, ch, 10, 50);
+			assertArrayEquals(expectedChars, ch);
+		}
+	}
+
+	@Test
+	public void testShredByteBuffers() throws Exception {
+		Random random = new Random();
+		for (int version: MultiReleaseClassLoader.getVersions()) {
+			Class<?> c = load(version);
+			for (int size: SIZES) {
+				ByteBuffer heap = ByteBuffer.wrap(randomBytes(random, size));
+				invoke(c, ByteBuffer.class, heap);
+				assertArrayEquals(new byte[size], heap.array());
+				
+				// Direct, with a limit smaller than the capacity.
+				ByteBuffer direct = ByteBuffer.allocateDirect(size + 10);
+				direct.put(randomBytes(random, size + 10));
+				direct.position(size / 2);
+				direct.limit(size);
+				invoke(c, ByteBuffer.class, direct);
+				assertEquals(size, direct.position());
+				assertEquals(size, direct.limit());
+				for (int i = 0; i < size; i++) {
+					assertEquals(0, direct.get(i));
+				}
+			}
+			invoke(c, ByteBuffer.class, (Object)null);
+		}
+	}
+
+	@Test
+	public void testShredCharBuffers() throws Exception {
+		for (int version: MultiReleaseClassLoader.getVersions()) {
+			Class<?> c = load(version);
+			for (int size: SIZES) {
+				CharBuffer heap = CharBuffer.wrap(new char[size]);
+				for (int i = 0; i < size; i++) {
+					heap.put(i, 'x');
+				}
+				invoke(c, CharBuffer.class, heap);
+				assertArrayEquals(new char[size], heap.array());
+				
+				CharBuffer direct = ByteBuffer.allocateDirect(size * 2).asCharBuffer();
+				for (int i = 0; i < size; i++) {
+					direct.put(i, 'x');
+				}
+				invoke(c, CharBuffer.class, direct);
+				assertEquals(size, direct.position());
+				for (int i = 0; i < size; i++) {
+					assertEquals(0, direct.get(i));
+				}
+			}
+			invoke(c, CharBuffer.class, (Object)null);
+		}
+	}
+}
@@ -68,6 +68,20 @@ public class ShredderTest {
 		Shredder.shred((byte [])null);		
 	}
 
+	@Test
+	public void testShredByteArrayRegion() {
+		byte [] tmp = randomBytes(16);
+		byte [] exp = tmp.clone();
+		
+		Shredder.shred(tmp, 4, 8);
+		for (int i = 4; i < 12; i++) {
+			exp[i] = 0;
+		}
+		assertArrayEquals(exp, tmp);
+	
+		Shredder.shred((byte [])null, 0, 0);		
+	}
+
 	@Test
 	public void testShredCharArray() {
 		char [] tmp = randomChars(16);
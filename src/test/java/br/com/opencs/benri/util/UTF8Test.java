@@ -0,0 +1,158 @@
+package br.com.opencs.benri.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class UTF8Test {
+	
+	private static final String [] SAMPLES = {
+			"",
+			"password",
+			"ção",
+			"日本語",
+			"emoji 😀 end",
+			"mixed aç日😀z",
+			"unpaired \ud83d end",
+			"unpaired \ude00 end",
+			"reversed \ude00\ud83d",
+			"last \ud83d",
+	};
+	
+	private static byte [] jdkEncode(char [] value) {
+		ByteBuffer b = StandardCharsets.UTF_8.encode(CharBuffer.wrap(value));
+		return Arrays.copyOf(b.array(), b.limit());
+	}
+
+	private static char [] jdkDecode(byte [] value) {
+		CharBuffer c = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(value));
+		return Arrays.copyOf(c.array(), c.limit());
+	}
+	
+	private static char [] randomChars(Random random, int size) {
+		char [] tmp = new char[size];
+		for (int i = 0; i < size; i++) {
+			switch (random.nextInt(4)) {
+			case 0:
+				tmp[i] = (char)random.nextInt(0x80);
+				break;
+			case 1:
+				tmp[i] = (char)random.nextInt(0x800);
+				break;
+			default:
+				tmp[i] = (char)random.nextInt(0x10000);
+				break;
+			}
+		}
+		return tmp;
+	}
+	
+	private static void assertEncode(char [] value) {
+		byte [] exp = jdkEncode(value);
+		assertEquals(exp.length, UTF8.encodedLength(value, 0, value.length));
+		byte [] dst = new byte[value.length * UTF8.MAX_BYTES_PER_CHAR + 1];
+		int n = UTF8.encode(value, 0, value.length, dst, 1);
+		assertArrayEquals(exp, Arrays.copyOfRange(dst, 1, 1 + n));
+	}
+
+	private static void assertDecode(byte [] value) {
+		char [] exp = jdkDecode(value);
+		assertArrayEquals(exp, new String(value, StandardCharsets.UTF_8).toCharArray());
+		char [] dst = new char[value.length + 1];
+		int n = UTF8.decode(value, 0, value.length, dst, 1, value.length);
+		assertArrayEquals(exp, Arrays.copyOfRange(dst, 1, 1 + n));
+	}
+	
+	@Test
+	public void testEncode() {
+		for (String s: SAMPLES) {
+			assertEncode(s.toCharArray());
+		}
+		Random random = new Random(1234);
+		for (int i = 0; i < 1000; i++) {
+			assertEncode(randomChars(random, random.nextInt(64)));
+		}
+	}
+
+	@Test
+	public void testDecode() {
+		for (String s: SAMPLES) {
+			assertDecode(jdkEncode(s.toCharArray()));
+		}
+		Random random = new Random(1234);
+		for (int i = 0; i < 1000; i++) {
+			assertDecode(jdkEncode(randomChars(random, random.nextInt(64))));
+		}
+	}
+
+	@Test
+	public void testDecodeMalformed() {
+		byte [][] samples = {
+				{(byte)0x80},
+				{(byte)0xC0, (byte)0x80},
+				{(byte)0xC3},
+				{(byte)0xE0, (byte)0x80, (byte)0x80},
+				{(byte)0xE6, (byte)0x97},
+				{(byte)0xED, (byte)0xA0, (byte)0x80},
+				{(byte)0xF0, (byte)0x9F, (byte)0x98},
+				{(byte)0xF4, (byte)0x90, (byte)0x80, (byte)0x80},
+				{(byte)0xF8, (byte)0x80},
+				{(byte)0xFF, 'a'},
+		};
+		for (byte [] s: samples) {
+			assertDecode(s);
+		}
+		Random random = new Random(1234);
+		for (int i = 0; i < 10000; i++) {
+			byte [] tmp = new byte[random.nextInt(16)];
+			random.nextBytes(tmp);
+			assertDecode(tmp);
+		}
+	}
+
+	private static void assertReplacements(int expected, int... value) {
+		byte [] tmp = new byte[value.length];
+		for (int i = 0; i < value.length; i++) {
+			tmp[i] = (byte)value[i];
+		}
+		char [] dst = new char[tmp.length];
+		int n = UTF8.decode(tmp, 0, tmp.length, dst, 0, dst.length);
+		char [] exp = new char[expected];
+		Arrays.fill(exp, '\uFFFD');
+		assertArrayEquals(exp, Arrays.copyOf(dst, n));
+		assertDecode(tmp);
+	}
+	
+	@Test
+	public void testDecodeReplacementCount() {
+		// Maximal subparts
+		assertReplacements(1, 0xC3);
+		assertReplacements(2, 0xC0, 0x80);
+		assertReplacements(3, 0xE0, 0x80, 0x80);
+		assertReplacements(1, 0xE6, 0x97);
+		assertReplacements(1, 0xF0, 0x9F, 0x98);
+		assertReplacements(4, 0xF0, 0x80, 0x80, 0x80);
+		assertReplacements(4, 0xF4, 0x90, 0x80, 0x80);
+		assertReplacements(2, 0xF8, 0x80);
+		// Encoded surrogates: one per sequence, as the JDK does
+		assertReplacements(1, 0xED, 0xA0, 0x80);
+		assertReplacements(1, 0xED, 0xBF, 0xBF);
+		assertReplacements(2, 0xED, 0xA0, 0xBD, 0xED, 0xB8, 0x80);
+		assertReplacements(1, 0xED, 0xA0);
+	}
+
+	@Test
+	public void testDecodeOverflow() {
+		byte [] value = jdkEncode("abc😀".toCharArray());
+		assertEquals(-1, UTF8.decode(value, 0, value.length, new char[4], 0, 4));
+		assertEquals(-1, UTF8.decode(value, 0, value.length, new char[2], 0, 2));
+		assertEquals(5, UTF8.decode(value, 0, value.length, new char[5], 0, 5));
+	}
+}